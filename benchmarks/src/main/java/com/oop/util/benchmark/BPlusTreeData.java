@@ -0,0 +1,23 @@
+package com.oop.util.benchmark;
+
+import com.oop.util.BPlusTree;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/* Keys plus a BPlusTree of the benchmarked order holding all of them */
+public class BPlusTreeData extends KeyData {
+
+    @Param({"16", "64", "256"})
+    public int order;
+
+    BPlusTree bPlusTree;
+
+    @Setup(Level.Trial)
+    public void buildTrees() {
+        bPlusTree = new BPlusTree(order);
+        for (Comparable key : randomKeys) {
+            bPlusTree.add(key);
+        }
+    }
+}
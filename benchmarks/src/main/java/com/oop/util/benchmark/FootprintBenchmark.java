@@ -0,0 +1,134 @@
+package com.oop.util.benchmark;
+
+import com.oop.util.BPlusTree;
+import com.oop.util.BTree;
+import com.oop.util.StringBTree;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.TreeSet;
+
+/* Heap retained by a tree built from random keys, per key, reported as the 'bytesPerKey'
+   secondary result: the nodes only for Integer keys, the nodes and the strings for the
+   names. Only the footprint is of interest, the time of a single shot build is a by-product. */
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class FootprintBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Keys {
+
+        @Param({"1000000", "10000000"})
+        public int size;
+
+        @Param({"3", "16", "64"})
+        public int order;
+
+        Integer[] randomKeys;
+
+        @Setup(Level.Trial)
+        public void generateKeys() {
+            KeyData keyData = new KeyData();
+            keyData.size = size;
+            keyData.keyType = "Integer";
+            keyData.generateKeys();
+            randomKeys = new Integer[size];
+            for (int index = 0; index < size; index++) {
+                randomKeys[index] = (Integer) keyData.randomKeys[index];
+            }
+        }
+    }
+
+    /* ids of names with the long shared prefix of a name index; the names are created
+       while the tree is built, so that the strings a tree keeps count towards its footprint */
+    @State(Scope.Benchmark)
+    public static class Names {
+
+        @Param({"1000000"})
+        public int size;
+
+        Integer[] randomIds;
+
+        @Setup(Level.Trial)
+        public void generateIds() {
+            randomIds = new Integer[size];
+            for (int id = 0; id < size; id++) {
+                randomIds[id] = id;
+            }
+            Collections.shuffle(Arrays.asList(randomIds), new Random(42));
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public double bytesPerKey;
+    }
+
+    @Benchmark
+    public Object bTree(Keys keys, Footprint footprint) {
+        long before = usedHeap();
+        BTree<Integer> tree = new BTree<>(keys.order);
+        for (Integer key : keys.randomKeys) {
+            tree.add(key);
+        }
+        footprint.bytesPerKey = (double) (usedHeap() - before) / keys.size;
+        return tree;
+    }
+
+    @Benchmark
+    public Object treeSet(Keys keys, Footprint footprint) {
+        long before = usedHeap();
+        TreeSet<Integer> tree = new TreeSet<>();
+        for (Integer key : keys.randomKeys) {
+            tree.add(key);
+        }
+        footprint.bytesPerKey = (double) (usedHeap() - before) / keys.size;
+        return tree;
+    }
+
+    @Benchmark
+    public Object stringBTree(Names names, Footprint footprint) {
+        long before = usedHeap();
+        StringBTree tree = new StringBTree();
+        for (Integer id : names.randomIds) {
+            tree.add("Student" + id);
+        }
+        footprint.bytesPerKey = (double) (usedHeap() - before) / names.size;
+        return tree;
+    }
+
+    @Benchmark
+    public Object bPlusTreeOfStrings(Names names, Footprint footprint) {
+        long before = usedHeap();
+        BPlusTree<String> tree = new BPlusTree<>();
+        for (Integer id : names.randomIds) {
+            tree.add("Student" + id);
+        }
+        footprint.bytesPerKey = (double) (usedHeap() - before) / names.size;
+        return tree;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int run = 0; run < 3; run++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
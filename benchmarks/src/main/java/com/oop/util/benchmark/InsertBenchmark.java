@@ -0,0 +1,83 @@
+package com.oop.util.benchmark;
+
+import com.oop.util.BTree;
+import com.oop.util.BufferedBTree;
+import com.oop.util.ShardedBTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/* Time to load a whole key set into an empty tree, one add() per key */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class InsertBenchmark {
+
+    @Benchmark
+    public BTree addRandom(TreeData data) {
+        BTree tree = data.newTree();
+        for (Comparable key : data.randomKeys) {
+            tree.add(key);
+        }
+        return tree;
+    }
+
+    @Benchmark
+    public BTree addSorted(TreeData data) {
+        BTree tree = data.newTree();
+        for (Comparable key : data.sortedKeys) {
+            tree.add(key);
+        }
+        return tree;
+    }
+
+    @Benchmark
+    public BufferedBTree bufferedAddRandom(TreeData data) {
+        BufferedBTree tree = new BufferedBTree(data.order);
+        for (Comparable key : data.randomKeys) {
+            tree.add(key);
+        }
+        return tree;
+    }
+
+    // one shard per core, the keys routed in batches of 1024
+    @Benchmark
+    public int shardedAddAllRandom(TreeData data) {
+        try (ShardedBTree tree = new ShardedBTree(Runtime.getRuntime().availableProcessors(), data.order, null)) {
+            List<Comparable> keys = Arrays.asList(data.randomKeys);
+            for (int from = 0; from < keys.size(); from += 1024) {
+                tree.addAll(keys.subList(from, Math.min(from + 1024, keys.size())));
+            }
+            return tree.size();
+        }
+    }
+
+    @Benchmark
+    public TreeSet treeSetAddRandom(KeyData data) {
+        TreeSet treeSet = new TreeSet();
+        for (Comparable key : data.randomKeys) {
+            treeSet.add(key);
+        }
+        return treeSet;
+    }
+
+    @Benchmark
+    public TreeSet treeSetAddSorted(KeyData data) {
+        TreeSet treeSet = new TreeSet();
+        for (Comparable key : data.sortedKeys) {
+            treeSet.add(key);
+        }
+        return treeSet;
+    }
+}
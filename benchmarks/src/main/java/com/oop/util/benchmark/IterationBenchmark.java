@@ -0,0 +1,76 @@
+package com.oop.util.benchmark;
+
+import com.oop.util.TreeUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static com.oop.util.student.StudentSortStrategy.studentNameAscSort;
+
+/* Time for a full pass over a pre-built tree, through each of the read paths */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class IterationBenchmark {
+
+    @Benchmark
+    public void iterator(TreeData data, Blackhole blackhole) {
+        for (Object key : data.tree) {
+            blackhole.consume(key);
+        }
+    }
+
+    @Benchmark
+    public void forEach(TreeData data, Blackhole blackhole) {
+        data.tree.forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public List<?> toList(TreeData data) {
+        return TreeUtils.toList(data.tree);
+    }
+
+    @Benchmark
+    public List<?> toListSorted(TreeData data) {
+        return TreeUtils.toList(data.tree, comparator(data));
+    }
+
+    @Benchmark
+    public List<?> toListFilteredAndMapped(TreeData data) {
+        // keeps every other key and maps it to its hash, the shape of a typical report query
+        Predicate<Object> everyOther = key -> (key.hashCode() & 1) == 0;
+        Function<Object, Integer> hash = Object::hashCode;
+        return TreeUtils.toList(data.tree, comparator(data), everyOther, hash);
+    }
+
+    @Benchmark
+    public void bPlusTreeIterator(BPlusTreeData data, Blackhole blackhole) {
+        for (Object key : data.bPlusTree) {
+            blackhole.consume(key);
+        }
+    }
+
+    @Benchmark
+    public void treeSetIterator(TreeSetData data, Blackhole blackhole) {
+        for (Object key : data.treeSet) {
+            blackhole.consume(key);
+        }
+    }
+
+    private static Comparator comparator(KeyData data) {
+        return "Student".equals(data.keyType) ? studentNameAscSort() : Comparator.naturalOrder();
+    }
+}
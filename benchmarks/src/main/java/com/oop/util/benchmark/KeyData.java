@@ -0,0 +1,57 @@
+package com.oop.util.benchmark;
+
+import com.oop.model.Student;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/* Keys shared by the benchmarks, generated once per trial in sorted and shuffled order */
+@State(Scope.Benchmark)
+public class KeyData {
+
+    @Param({"1000", "100000", "10000000"})
+    public int size;
+
+    @Param({"Integer", "Student"})
+    public String keyType;
+
+    Comparable[] sortedKeys;
+    Comparable[] randomKeys;
+    // positions probed by lookups, in random order
+    int[] probeIndexes;
+
+    @Setup(Level.Trial)
+    public void generateKeys() {
+        sortedKeys = new Comparable[size];
+        for (int id = 0; id < size; id++) {
+            sortedKeys[id] = newKey(id);
+        }
+        List<Comparable> shuffled = Arrays.asList(sortedKeys.clone());
+        Collections.shuffle(shuffled, new Random(42));
+        randomKeys = shuffled.toArray(new Comparable[0]);
+
+        Random random = new Random(7);
+        probeIndexes = new int[1 << 16];
+        for (int probe = 0; probe < probeIndexes.length; probe++) {
+            probeIndexes[probe] = random.nextInt(size);
+        }
+    }
+
+    private Comparable newKey(int id) {
+        switch (keyType) {
+            case "Integer":
+                return id;
+            case "Student":
+                return new Student("Student" + id, id, (id % 400) / 100F);
+            default:
+                throw new IllegalArgumentException("Unknown key type: " + keyType);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.oop.util.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/* Time per single lookup, probing random keys/positions of a pre-built tree */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class LookupBenchmark {
+
+    // walks the shared probe sequence, one cursor per benchmark thread
+    @State(Scope.Thread)
+    public static class Probe {
+        private int position;
+
+        int next(KeyData data) {
+            int[] probeIndexes = data.probeIndexes;
+            return probeIndexes[position++ & (probeIndexes.length - 1)];
+        }
+    }
+
+    @Benchmark
+    public boolean contains(TreeData data, Probe probe) {
+        return data.tree.contains(data.sortedKeys[probe.next(data)]);
+    }
+
+    @Benchmark
+    public Object elementAt(TreeData data, Probe probe) {
+        return data.tree.elementAt(probe.next(data));
+    }
+
+    @Benchmark
+    public boolean treeSetContains(TreeSetData data, Probe probe) {
+        return data.treeSet.contains(data.sortedKeys[probe.next(data)]);
+    }
+}
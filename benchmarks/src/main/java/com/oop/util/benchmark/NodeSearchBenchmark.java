@@ -0,0 +1,97 @@
+package com.oop.util.benchmark;
+
+import com.oop.util.IntBTree;
+import com.oop.util.LongBTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/* Time per lookup in IntBTree and LongBTree across node sizes, with the node search
+   vectorised (the jdk.incubator.vector module added to the forked JVM) and scalar (the
+   same JVM without the module, so that KeySearch falls back to binary search). The keys
+   are few enough for the nodes to stay in cache, leaving the search within a node to
+   dominate. The library must be installed with 'mvn -Pvector install' for the vector
+   forks to differ from the scalar ones. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class NodeSearchBenchmark {
+    private static final String VECTOR_MODULE = "--add-modules=jdk.incubator.vector";
+
+    @State(Scope.Benchmark)
+    public static class Trees {
+
+        @Param({"16", "32", "64", "128", "256"})
+        public int order;
+
+        @Param({"100000"})
+        public int size;
+
+        IntBTree intTree;
+        LongBTree longTree;
+        int[] probes;
+
+        @Setup(Level.Trial)
+        public void buildTrees() {
+            Random random = new Random(42);
+            intTree = new IntBTree(order);
+            longTree = new LongBTree(order);
+            for (int index = 0; index < size; index++) {
+                int key = random.nextInt();
+                intTree.addInt(key);
+                longTree.addLong((long) key << 16);
+            }
+            // hits and misses alike, in random order
+            probes = new int[1 << 16];
+            int[] keys = intTree.toIntArray();
+            for (int probe = 0; probe < probes.length; probe++) {
+                probes[probe] = probe % 2 == 0 ? keys[random.nextInt(size)] : random.nextInt();
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Probe {
+        private int position;
+
+        int next(Trees trees) {
+            return trees.probes[position++ & (trees.probes.length - 1)];
+        }
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g", VECTOR_MODULE})
+    public boolean intVector(Trees trees, Probe probe) {
+        return trees.intTree.containsInt(probe.next(trees));
+    }
+
+    @Benchmark
+    public boolean intScalar(Trees trees, Probe probe) {
+        return trees.intTree.containsInt(probe.next(trees));
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g", VECTOR_MODULE})
+    public boolean longVector(Trees trees, Probe probe) {
+        return trees.longTree.containsLong((long) probe.next(trees) << 16);
+    }
+
+    @Benchmark
+    public boolean longScalar(Trees trees, Probe probe) {
+        return trees.longTree.containsLong((long) probe.next(trees) << 16);
+    }
+}
@@ -0,0 +1,27 @@
+package com.oop.util.benchmark;
+
+import com.oop.util.BTree;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/* Keys plus a BTree of the benchmarked order holding all of them */
+public class TreeData extends KeyData {
+
+    @Param({"3", "16", "64", "256"})
+    public int order;
+
+    BTree tree;
+
+    @Setup(Level.Trial)
+    public void buildTrees() {
+        tree = newTree();
+        for (Comparable key : randomKeys) {
+            tree.add(key);
+        }
+    }
+
+    BTree newTree() {
+        return new BTree(order);
+    }
+}
@@ -0,0 +1,20 @@
+package com.oop.util.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.util.TreeSet;
+
+/* Keys plus a java.util.TreeSet holding all of them, the baseline for BTree lookups and scans */
+public class TreeSetData extends KeyData {
+
+    TreeSet treeSet;
+
+    @Setup(Level.Trial)
+    public void buildTreeSet() {
+        treeSet = new TreeSet();
+        for (Comparable key : randomKeys) {
+            treeSet.add(key);
+        }
+    }
+}
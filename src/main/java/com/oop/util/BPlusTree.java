@@ -0,0 +1,623 @@
+package com.oop.util;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/* B+-Tree: keys are stored in the leaves only, an inner node holds a copy of the first
+   key of each of its children but the first to route searches. Without keys of their
+   own inner nodes have a higher fan-out for the same order, and the leaves are linked
+   both ways so that scans in either direction and range scans walk the leaf chain
+   instead of climbing back through the inner nodes. Duplicates are kept, as in BTree,
+   and every node counts the keys below it for positional access. */
+public class BPlusTree<T extends Comparable<T>> extends AbstractCollection<T> implements Tree<T> {
+    private static final int DEFAULT_ORDER = 64;
+
+    // keys per leaf and separators per inner node, which has one child more
+    private final int maxKeySize;
+    private final Comparator<T> comparator;
+
+    private Node root;
+    private int size = 0;
+
+    public BPlusTree() {
+        this(DEFAULT_ORDER, null);
+    }
+
+    public BPlusTree(Comparator<T> comparator) {
+        this(DEFAULT_ORDER, comparator);
+    }
+
+    public BPlusTree(int order) {
+        this(order, null);
+    }
+
+    public BPlusTree(int order, Comparator<T> comparator) {
+        if (order < 3) {
+            throw new IllegalArgumentException("Order of a BTree must be at least 3: " + order);
+        }
+        this.maxKeySize = order - 1;
+        this.comparator = comparator;
+        this.root = new Node(order, true);
+    }
+
+    @Override
+    public boolean add(T value) {
+        Objects.requireNonNull(value);
+        insert(root, value);
+        if (root.keySize > maxKeySize) {
+            // To create new root node above the split root
+            Node newRoot = new Node(maxKeySize + 1, false);
+            newRoot.children[0] = root;
+            newRoot.count = root.count;
+            splitChild(newRoot, 0);
+            root = newRoot;
+        }
+        size++;
+        return true;
+    }
+
+    // counts the new key in each node once it is in place, as the comparator may throw on the way down
+    private void insert(Node node, T value) {
+        if (node.isLeaf()) {
+            node.insertKey(upperBound(node, value), value);
+            node.count++;
+            return;
+        }
+        // child 'i' holds the keys from separator i - 1 up to separator i
+        int childIndex = upperBound(node, value);
+        Node child = node.children[childIndex];
+        insert(child, value);
+        node.count++;
+        if (child.keySize > maxKeySize) {
+            splitChild(node, childIndex);
+        }
+    }
+
+    /* To split the overflowing child at 'childIndex'; a leaf copies its new right
+    sibling's first key into 'parent', an inner node moves its median separator there */
+    private void splitChild(Node parent, int childIndex) {
+        Node left = parent.children[childIndex];
+        Node right = new Node(maxKeySize + 1, left.isLeaf());
+        int medianIndex = left.keySize / 2;
+        Object separator;
+        if (left.isLeaf()) {
+            right.keySize = left.keySize - medianIndex;
+            System.arraycopy(left.keys, medianIndex, right.keys, 0, right.keySize);
+            separator = right.keys[0];
+            right.next = left.next;
+            right.previous = left;
+            if (left.next != null) {
+                left.next.previous = right;
+            }
+            left.next = right;
+        } else {
+            separator = left.keys[medianIndex];
+            right.keySize = left.keySize - medianIndex - 1;
+            System.arraycopy(left.keys, medianIndex + 1, right.keys, 0, right.keySize);
+            System.arraycopy(left.children, medianIndex + 1, right.children, 0, right.keySize + 1);
+            Arrays.fill(left.children, medianIndex + 1, left.keySize + 1, null);
+        }
+        Arrays.fill(left.keys, medianIndex, left.keySize, null);
+        left.keySize = medianIndex;
+        left.count = left.countKeys();
+        right.count = right.countKeys();
+
+        parent.insertKey(childIndex, separator);
+        System.arraycopy(parent.children, childIndex + 1, parent.children, childIndex + 2,
+                parent.keySize - childIndex - 1);
+        parent.children[childIndex + 1] = right;
+    }
+
+    @Override
+    public boolean remove(Object value) {
+        if (value == null || !delete(root, value)) {
+            return false;
+        }
+        if (!root.isLeaf() && root.keySize == 0) {
+            // To collapse the root once it routes to a single child
+            root = root.children[0];
+        }
+        size--;
+        return true;
+    }
+
+    private boolean delete(Node node, Object value) {
+        int keyIndex = lowerBound(node, value);
+        if (node.isLeaf()) {
+            if (keyIndex == node.keySize || compare(node.keys[keyIndex], value) != 0) {
+                return false;
+            }
+            node.removeKey(keyIndex);
+            node.count--;
+            return true;
+        }
+        int childIndex = keyIndex;
+        boolean deleted = delete(node.children[childIndex], value);
+        // a duplicate of the separator may sit on its right side only
+        if (!deleted && childIndex < node.keySize && compare(node.keys[childIndex], value) == 0) {
+            childIndex++;
+            deleted = delete(node.children[childIndex], value);
+        }
+        if (!deleted) {
+            return false;
+        }
+        node.count--;
+        rebalanceChild(node, childIndex);
+        return true;
+    }
+
+    /* To remove the element at position 'index' in sorted order, which is that very
+    element even when keys equal to it are present, unlike remove(Object)
+      @return the removed element */
+    public T removeAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        T removed = deleteAt(root, index);
+        if (!root.isLeaf() && root.keySize == 0) {
+            root = root.children[0];
+        }
+        size--;
+        return removed;
+    }
+
+    // To remove the key at position 'index' of the subtree of 'node', found by the subtree key counts
+    private T deleteAt(Node node, int index) {
+        node.count--;
+        if (node.isLeaf()) {
+            T removed = (T) node.keys[index];
+            node.removeKey(index);
+            return removed;
+        }
+        int childIndex = 0;
+        while (index >= node.children[childIndex].count) {
+            index -= node.children[childIndex].count;
+            childIndex++;
+        }
+        T removed = deleteAt(node.children[childIndex], index);
+        rebalanceChild(node, childIndex);
+        return removed;
+    }
+
+    /* restores the minimum key count of the child at 'childIndex' by borrowing from a
+    sibling, or merging with a sibling */
+    private void rebalanceChild(Node parent, int childIndex) {
+        Node node = parent.children[childIndex];
+        int minKeySize = maxKeySize / 2;
+        if (node.keySize >= minKeySize) {
+            return;
+        }
+        Node left = childIndex > 0 ? parent.children[childIndex - 1] : null;
+        Node right = childIndex < parent.keySize ? parent.children[childIndex + 1] : null;
+        if (left != null && left.keySize > minKeySize) {
+            if (node.isLeaf()) {
+                // To move the last key of the left leaf over, it becomes the separator
+                node.insertKey(0, left.keys[left.keySize - 1]);
+                left.removeKey(left.keySize - 1);
+                left.count--;
+                node.count++;
+                parent.keys[childIndex - 1] = node.keys[0];
+            } else {
+                // To rotate the last child of the left sibling through the parent's separator
+                node.insertKey(0, parent.keys[childIndex - 1]);
+                parent.keys[childIndex - 1] = left.keys[left.keySize - 1];
+                Node movedChild = left.children[left.keySize];
+                left.children[left.keySize] = null;
+                left.removeKey(left.keySize - 1);
+                System.arraycopy(node.children, 0, node.children, 1, node.keySize);
+                node.children[0] = movedChild;
+                left.count -= movedChild.count;
+                node.count += movedChild.count;
+            }
+        } else if (right != null && right.keySize > minKeySize) {
+            if (node.isLeaf()) {
+                // To move the first key of the right leaf over, its new first key is the separator
+                node.insertKey(node.keySize, right.keys[0]);
+                right.removeKey(0);
+                right.count--;
+                node.count++;
+                parent.keys[childIndex] = right.keys[0];
+            } else {
+                // To rotate the first child of the right sibling through the parent's separator
+                node.insertKey(node.keySize, parent.keys[childIndex]);
+                parent.keys[childIndex] = right.keys[0];
+                Node movedChild = right.children[0];
+                System.arraycopy(right.children, 1, right.children, 0, right.keySize);
+                right.children[right.keySize] = null;
+                right.removeKey(0);
+                node.children[node.keySize] = movedChild;
+                right.count -= movedChild.count;
+                node.count += movedChild.count;
+            }
+        } else if (left != null) {
+            merge(parent, childIndex - 1);
+        } else {
+            merge(parent, childIndex);
+        }
+    }
+
+    /* To merge the children on both sides of the parent's separator at 'keyIndex' into
+    the left one; the separator is dropped between leaves and pulled down between inner nodes */
+    private static void merge(Node parent, int keyIndex) {
+        Node left = parent.children[keyIndex];
+        Node right = parent.children[keyIndex + 1];
+        if (left.isLeaf()) {
+            System.arraycopy(right.keys, 0, left.keys, left.keySize, right.keySize);
+            left.keySize += right.keySize;
+            left.next = right.next;
+            if (right.next != null) {
+                right.next.previous = left;
+            }
+        } else {
+            left.keys[left.keySize] = parent.keys[keyIndex];
+            System.arraycopy(right.keys, 0, left.keys, left.keySize + 1, right.keySize);
+            System.arraycopy(right.children, 0, left.children, left.keySize + 1, right.keySize + 1);
+            left.keySize += right.keySize + 1;
+        }
+        left.count += right.count;
+
+        parent.removeKey(keyIndex);
+        System.arraycopy(parent.children, keyIndex + 2, parent.children, keyIndex + 1,
+                parent.keySize - keyIndex);
+        parent.children[parent.keySize + 1] = null;
+    }
+
+    @Override
+    public void clear() {
+        root = new Node(maxKeySize + 1, true);
+        size = 0;
+    }
+
+    @Override
+    public boolean contains(Object value) {
+        if (value == null) {
+            return false;
+        }
+        LeafCursor cursor = new LeafCursor();
+        return cursor.position(value, true) && compare(cursor.key(), value) == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public T elementAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        LeafCursor cursor = new LeafCursor();
+        cursor.seekAt(index);
+        return cursor.key();
+    }
+
+    public T first() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return elementAt(0);
+    }
+
+    public T last() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return elementAt(size - 1);
+    }
+
+    public Cursor<T> cursor() {
+        return new LeafCursor();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        LeafCursor cursor = new LeafCursor();
+        cursor.seekFirst();
+        return new LeafIterator(cursor, null, false, false);
+    }
+
+    public Iterator<T> descendingIterator() {
+        LeafCursor cursor = new LeafCursor();
+        cursor.seekLast();
+        return new LeafIterator(cursor, null, false, true);
+    }
+
+    // ascending elements from 'from' to 'to', each bound included when its flag says so
+    public Iterable<T> range(T from, boolean fromInclusive, T to, boolean toInclusive) {
+        return () -> {
+            LeafCursor cursor = new LeafCursor();
+            cursor.position(from, fromInclusive);
+            return new LeafIterator(cursor, to, toInclusive, false);
+        };
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        for (Node leaf = leftmostLeaf(); leaf != null; leaf = leaf.next) {
+            for (int keyIndex = 0; keyIndex < leaf.keySize; keyIndex++) {
+                action.accept((T) leaf.keys[keyIndex]);
+            }
+        }
+    }
+
+    private Node leftmostLeaf() {
+        Node node = root;
+        while (!node.isLeaf()) {
+            node = node.children[0];
+        }
+        return node;
+    }
+
+    private Node rightmostLeaf() {
+        Node node = root;
+        while (!node.isLeaf()) {
+            node = node.children[node.keySize];
+        }
+        return node;
+    }
+
+    private int compare(Object k1, Object k2) {
+        return BTree.compare(k1, k2, comparator);
+    }
+
+    // index of the first key greater than/equal to 'value'
+    private int lowerBound(Node node, Object value) {
+        int low = 0;
+        int high = node.keySize;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(node.keys[mid], value) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // index of the first key greater than 'value'
+    private int upperBound(Node node, Object value) {
+        int low = 0;
+        int high = node.keySize;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(node.keys[mid], value) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Cursor holding a leaf and a key index in it, moved along the leaf links
+    private final class LeafCursor implements Cursor<T> {
+        private Node leaf;
+        private int keyIndex;
+        // position of the key in sorted order, for removal through an iterator
+        private int index;
+
+        @Override
+        public boolean seek(T key) {
+            return position(key, true);
+        }
+
+        /* To position on the first key greater than/equal to 'key', or greater than it
+        when not 'inclusive' */
+        private boolean position(Object key, boolean inclusive) {
+            Node node = root;
+            index = 0;
+            while (!node.isLeaf()) {
+                int childIndex = inclusive ? lowerBound(node, key) : upperBound(node, key);
+                for (int leftIndex = 0; leftIndex < childIndex; leftIndex++) {
+                    index += node.children[leftIndex].count;
+                }
+                node = node.children[childIndex];
+            }
+            leaf = node;
+            keyIndex = inclusive ? lowerBound(node, key) : upperBound(node, key);
+            index += keyIndex;
+            if (keyIndex == leaf.keySize) {
+                // the leaves on the right hold keys from the separator on, all greater
+                leaf = leaf.next;
+                keyIndex = 0;
+            }
+            return validate();
+        }
+
+        @Override
+        public boolean seekAt(int index) {
+            if (index < 0 || index >= size) {
+                reset();
+                return false;
+            }
+            this.index = index;
+            Node node = root;
+            while (!node.isLeaf()) {
+                int childIndex = 0;
+                while (index >= node.children[childIndex].count) {
+                    index -= node.children[childIndex].count;
+                    childIndex++;
+                }
+                node = node.children[childIndex];
+            }
+            leaf = node;
+            keyIndex = index;
+            return true;
+        }
+
+        @Override
+        public boolean seekFirst() {
+            leaf = leftmostLeaf();
+            keyIndex = 0;
+            index = 0;
+            return validate();
+        }
+
+        @Override
+        public boolean seekLast() {
+            leaf = rightmostLeaf();
+            keyIndex = leaf.keySize - 1;
+            index = size - 1;
+            return validate();
+        }
+
+        @Override
+        public boolean next() {
+            index++;
+            if (leaf != null && ++keyIndex == leaf.keySize) {
+                leaf = leaf.next;
+                keyIndex = 0;
+            }
+            return leaf != null;
+        }
+
+        @Override
+        public boolean prev() {
+            index--;
+            if (leaf != null && --keyIndex < 0) {
+                leaf = leaf.previous;
+                keyIndex = leaf == null ? 0 : leaf.keySize - 1;
+            }
+            return leaf != null;
+        }
+
+        @Override
+        public boolean isValid() {
+            return leaf != null;
+        }
+
+        @Override
+        public T key() {
+            if (leaf == null) {
+                throw new NoSuchElementException();
+            }
+            return (T) leaf.keys[keyIndex];
+        }
+
+        @Override
+        public void reset() {
+            leaf = null;
+        }
+
+        // only an empty root leaf has no keys
+        private boolean validate() {
+            if (leaf != null && leaf.keySize == 0) {
+                leaf = null;
+            }
+            return leaf != null;
+        }
+    }
+
+    /* Iterator along the leaf chain, in either direction, up to an optional upper bound;
+    remove() deletes the last returned key by its position and seeks the cursor again, as
+    the leaves may have been merged or rebalanced */
+    private final class LeafIterator implements Iterator<T> {
+        private final LeafCursor cursor;
+        private final Object to;
+        private final boolean toInclusive;
+        private final boolean descending;
+        // position of the last returned key, -1 when there is none to remove
+        private int lastIndex = -1;
+
+        private LeafIterator(LeafCursor cursor, Object to, boolean toInclusive, boolean descending) {
+            this.cursor = cursor;
+            this.to = to;
+            this.toInclusive = toInclusive;
+            this.descending = descending;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!cursor.isValid()) {
+                return false;
+            }
+            if (to == null) {
+                return true;
+            }
+            int comparison = compare(cursor.key(), to);
+            return comparison < 0 || (comparison == 0 && toInclusive);
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T resultKey = cursor.key();
+            lastIndex = cursor.index;
+            if (descending) {
+                cursor.prev();
+            } else {
+                cursor.next();
+            }
+            return resultKey;
+        }
+
+        @Override
+        public void remove() {
+            if (lastIndex < 0) {
+                throw new IllegalStateException();
+            }
+            removeAt(lastIndex);
+            // the next key took the removed key's position, or is the one before it
+            cursor.seekAt(descending ? lastIndex - 1 : lastIndex);
+            lastIndex = -1;
+        }
+    }
+
+    private static final class Node {
+        // one slot over the maximum for the key that overflows a node before its split
+        private final Object[] keys;
+        // null for a leaf
+        private final Node[] children;
+        private int keySize;
+        // number of keys stored in the leaves below this node
+        private int count;
+        // neighbouring leaves
+        private Node previous;
+        private Node next;
+
+        private Node(int order, boolean leaf) {
+            this.keys = new Object[order];
+            this.children = leaf ? null : new Node[order + 1];
+        }
+
+        private boolean isLeaf() {
+            return children == null;
+        }
+
+        private void insertKey(int keyIndex, Object value) {
+            System.arraycopy(keys, keyIndex, keys, keyIndex + 1, keySize - keyIndex);
+            keys[keyIndex] = value;
+            keySize++;
+        }
+
+        private void removeKey(int keyIndex) {
+            System.arraycopy(keys, keyIndex + 1, keys, keyIndex, keySize - keyIndex - 1);
+            keys[--keySize] = null;
+        }
+
+        private int countKeys() {
+            if (isLeaf()) {
+                return keySize;
+            }
+            int count = 0;
+            for (int childIndex = 0; childIndex <= keySize; childIndex++) {
+                count += children[childIndex].count;
+            }
+            return count;
+        }
+    }
+}
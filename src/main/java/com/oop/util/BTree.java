@@ -1,108 +1,483 @@
 package com.oop.util;
 
+import com.oop.util.metrics.TreeMetrics;
+import com.oop.util.metrics.TreeStats;
+
 import java.util.*;
 import java.util.function.Consumer;
 
-public class BTree<T extends Comparable<T>> extends AbstractCollection<T> implements Tree<T> {
+import static com.oop.util.metrics.TreeMetrics.Operation.ADD;
+import static com.oop.util.metrics.TreeMetrics.Operation.CONTAINS;
+import static com.oop.util.metrics.TreeMetrics.Operation.ELEMENT_AT;
+import static com.oop.util.metrics.TreeMetrics.Operation.REMOVE;
+
+/* Sorted multiset: keys equal to each other are all kept, in no particular order among
+   themselves, so that add always changes the tree. It offers the NavigableSet navigation and
+   range views, and equals any Set of the same size whose elements it contains, as a
+   TreeSet would, which is symmetric for a tree without duplicates; a tree with any
+   never equals a Set other than a BTree, as it cannot contain all of one as large as
+   itself. Against another BTree or view, each element must occur as often in both.
+   hashCode is the sum of the element hashes, as for a Set. */
+public class BTree<T extends Comparable<T>> extends AbstractCollection<T> implements NavigableSet<T>, Tree<T> {
+    // share of maxKeySize filled per node by a bulk load, full nodes suit read-mostly trees
+    public static final double DEFAULT_FILL_FACTOR = 1.0;
+
     // Defaulted to 2-3(order 3) B-Tree
     private int maxChildrenSize = 3;
     private int maxKeySize = maxChildrenSize - 1;
 
+    // null while the tree is empty
     private Node<T> root;
     private int size = 0;
     private final Comparator<T> comparator;
+    // null unless enableMetrics() was called, operations only test this field then
+    private TreeMetrics metrics;
+    /* token of the nodes this tree may change in place; snapshot() hands the current
+    nodes over by replacing it, so that writes copy any node they reach that carries an
+    older one. Null in a snapshot, which changes no node at all */
+    private Object owner = new Object();
 
     public BTree() {
-        this.root = new NullNode<>();
         this.comparator = null;
     }
 
     public BTree(Comparator<T> comparator) {
-        this.root = new NullNode<>();
         this.comparator = comparator;
     }
 
     public BTree(int order) {
+        checkOrder(order);
         this.maxKeySize = order - 1;
         this.maxChildrenSize = order;
-        this.root = new NullNode<>();
         this.comparator = null;
     }
 
     public BTree(int order, Comparator<T> comparator) {
+        checkOrder(order);
         this.maxKeySize = order - 1;
         this.maxChildrenSize = order;
-        this.root = new NullNode<>();
         this.comparator = comparator;
     }
 
+    public static <T extends Comparable<T>> BTree<T> fromSorted(Iterable<? extends T> sortedValues) {
+        return fromSorted(sortedValues, 3, null, DEFAULT_FILL_FACTOR);
+    }
+
+    /* Builds a tree bottom-up from values already in the order of 'comparator', in O(n)
+      @param order      - maximum number of children per node
+      @param comparator - ordering of the values, null for their natural ordering
+      @param fillFactor - share of keys per node to fill, in the range (0, 1] */
+    public static <T extends Comparable<T>> BTree<T> fromSorted(Iterable<? extends T> sortedValues, int order,
+                                                             Comparator<T> comparator, double fillFactor) {
+        Collection<? extends T> values = sortedValues instanceof Collection
+                ? (Collection<? extends T>) sortedValues
+                : copyOf(sortedValues);
+        return fromSorted(values.iterator(), values.size(), order, comparator, fillFactor);
+    }
+
+    /* Builds a tree bottom-up from 'size' values streamed in the order of 'comparator',
+    taking each value as its place in the tree comes up, e.g. from a file being read */
+    public static <T extends Comparable<T>> BTree<T> fromSorted(Iterator<? extends T> sortedValues, int size,
+                                                             int order, Comparator<T> comparator,
+                                                             double fillFactor) {
+        BTree<T> tree = new BTree<>(order, comparator);
+        new BulkLoader<>(tree, fillFactor).load(sortedValues, size);
+        return tree;
+    }
+
+    // read-only view of the nodes of 'source' as they are now
+    private BTree(BTree<T> source) {
+        this.maxChildrenSize = source.maxChildrenSize;
+        this.maxKeySize = source.maxKeySize;
+        this.comparator = source.comparator;
+        this.root = source.root;
+        this.size = source.size;
+        this.owner = null;
+    }
+
+    private static <T> List<T> copyOf(Iterable<? extends T> values) {
+        List<T> list = new ArrayList<>();
+        values.forEach(list::add);
+        return list;
+    }
+
+    private static void checkOrder(int order) {
+        // a split must leave at least one key on each side of the median
+        if (order < 3) {
+            throw new IllegalArgumentException("Order of a BTree must be at least 3: " + order);
+        }
+    }
+
+    // minimum number of keys a non-root node keeps, the smaller half of a split
+    private int minKeySize() {
+        return maxKeySize / 2;
+    }
+
     @Override
     public boolean add(T value) {
-        if (root.isNull()) {
-            root = new NodeImpl<>(NullNode.getInstance());
-            root.addKey(value, comparator);
-        } else {
-            Node<T> node = root;
-            while (!node.isNull()) {
-                if (node.isLeaf()) {
-                    node.addKey(value, comparator);
-                    if (node.keys.size() <= maxKeySize) {
-                        break;
-                    }
-          /* condition : no. of keys exceed the maxKeySize, add the element to the
-          node and split it */
-                    node.split(this);
-                    break;
-                }
+        if (metrics == null) {
+            return insert(value);
+        }
+        long start = System.nanoTime();
+        insert(value);
+        metrics.recordOperation(ADD, System.nanoTime() - start);
+        return true;
+    }
 
-        /* Traversing through children of a node to place the new node
-        at the correct position */
-                // case 1: When new key is less than/equal to the leftmost key of the node
-                T leftKey = node.keys.get(0);
-                if (compare(value, leftKey, comparator) <= 0) {
-                    node = node.getChild(0);
-                    continue;
-                }
+    private boolean insert(T value) {
+        checkWritable();
+        root = root == null ? new Node<>(maxChildrenSize, true, owner) : writable(root);
+        long splitCount = metrics == null ? 0 : metrics.splitCount();
+        insert(root, value);
+        if (root.keySize > maxKeySize) {
+            // To create new root node above the split root
+            Node<T> newRoot = new Node<>(maxChildrenSize, false, owner);
+            newRoot.children[0] = root;
+            newRoot.count = root.count;
+            splitChild(newRoot, 0);
+            root = newRoot;
+        }
+        if (metrics != null && metrics.splitCount() > splitCount) {
+            metrics.recordSplitCascade((int) (metrics.splitCount() - splitCount));
+        }
+        size++;
+        return true;
+    }
 
-                // case 2: When new key is greater than the rightmost key of the node
-                int numberOfKeys = node.keys.size();
-                int last = numberOfKeys - 1;
-                T rightKey = node.keys.get(last);
-                if (compare(value, rightKey, comparator) > 0) {
-                    node = node.getChild(numberOfKeys);
-                    continue;
-                }
+    /* To add 'value' to the subtree of 'node'; a node overflowing by one key is split by
+    its parent on the way back up, so splits follow the descent path without parent links */
+    private void insert(Node<T> node, T value) {
+        /* every node on the descent path gains one key in its subtree, counted once the key
+        is in place, so that a comparator throwing on the way down leaves the counts intact */
+        if (node.isLeaf()) {
+            // equal keys are placed after the existing ones
+            node.insertKey(upperBound(node.keys, node.keySize, value, comparator), value);
+            node.count++;
+            return;
+        }
+        /* Traversing to the child left of the first key greater than/equal to the new key,
+        which places the new key at the correct position */
+        int childIndex = lowerBound(node.keys, node.keySize, value, comparator);
+        Node<T> child = writableChild(node, childIndex);
+        insert(child, value);
+        node.count++;
+        if (child.keySize > maxKeySize) {
+            splitChild(node, childIndex);
+        }
+    }
 
-                // case 3: Check internal nodes to fix the position of the new key
-                for (int keyIndex = 1; keyIndex < node.keys.size(); keyIndex++) {
-                    T prev = node.keys.get(keyIndex - 1);
-                    T next = node.keys.get(keyIndex);
-                    if (compare(value, prev, comparator) > 0 && compare(value, next, comparator) <= 0) {
-                        node = node.getChild(keyIndex);
-                        break;
-                    }
-                }
+    // To split the overflowing child at 'childIndex', moving its median key into 'parent'
+    private void splitChild(Node<T> parent, int childIndex) {
+        if (metrics != null) {
+            metrics.recordSplit();
+        }
+        Node<T> left = parent.children[childIndex];
+        int medianIndex = left.keySize / 2;
+        Object medianValue = left.keys[medianIndex];
+
+        // the split node itself is kept as the left node
+        Node<T> right = new Node<>(maxChildrenSize, left.isLeaf(), owner);
+        right.keySize = left.keySize - medianIndex - 1;
+        System.arraycopy(left.keys, medianIndex + 1, right.keys, 0, right.keySize);
+        Arrays.fill(left.keys, medianIndex, left.keySize, null);
+        if (!left.isLeaf()) {
+            System.arraycopy(left.children, medianIndex + 1, right.children, 0, right.keySize + 1);
+            Arrays.fill(left.children, medianIndex + 1, left.keySize + 1, null);
+        }
+        left.keySize = medianIndex;
+        left.count = left.countKeys();
+        right.count = right.countKeys();
+
+        parent.insertKey(childIndex, medianValue);
+        System.arraycopy(parent.children, childIndex + 1, parent.children, childIndex + 2,
+                parent.keySize - childIndex - 1);
+        parent.children[childIndex + 1] = right;
+    }
+
+    @Override
+    public boolean remove(Object value) {
+        if (metrics == null) {
+            return delete(value);
+        }
+        long start = System.nanoTime();
+        boolean removed = delete(value);
+        metrics.recordOperation(REMOVE, System.nanoTime() - start);
+        return removed;
+    }
+
+    private boolean delete(Object value) {
+        checkWritable();
+        if (root == null) {
+            return false;
+        }
+        root = writable(root);
+        if (!delete(root, value)) {
+            return false;
+        }
+        if (root.keySize == 0) {
+            // To collapse the root once it has no keys left
+            root = root.isLeaf() ? null : root.children[0];
+        }
+        size--;
+        return true;
+    }
+
+    /* To remove a key equal to 'value' from the subtree of 'node', the first one met on
+    the way down; children left short of keys are rebalanced on the way back up */
+    private boolean delete(Node<T> node, Object value) {
+        int keyIndex = lowerBound(node.keys, node.keySize, value, comparator);
+        boolean found = keyIndex < node.keySize && compare(node.keys[keyIndex], value, comparator) == 0;
+        if (node.isLeaf()) {
+            if (!found) {
+                return false;
             }
+            node.removeKey(keyIndex);
+        } else if (found) {
+            /* key of an internal node is replaced by its predecessor, the rightmost key
+            of the left subtree, so that the key is always taken out of a leaf */
+            node.keys[keyIndex] = deleteLast(writableChild(node, keyIndex));
+            rebalanceChild(node, keyIndex);
+        } else {
+            if (!delete(writableChild(node, keyIndex), value)) {
+                return false;
+            }
+            rebalanceChild(node, keyIndex);
         }
-        size++;
+        node.count--;
         return true;
     }
 
+    // To remove the rightmost key of the subtree of 'node', returning it
+    private Object deleteLast(Node<T> node) {
+        node.count--;
+        if (node.isLeaf()) {
+            return node.removeKey(node.keySize - 1);
+        }
+        Object last = deleteLast(writableChild(node, node.keySize));
+        rebalanceChild(node, node.keySize);
+        return last;
+    }
+
+    /* To remove the element at position 'index' in sorted order, which is that very
+    element even when keys equal to it are present, unlike remove(Object)
+      @return the removed element */
+    public T removeAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        long start = metrics == null ? 0 : System.nanoTime();
+        checkWritable();
+        root = writable(root);
+        Object removed = deleteAt(root, index);
+        if (root.keySize == 0) {
+            root = root.isLeaf() ? null : root.children[0];
+        }
+        size--;
+        if (metrics != null) {
+            metrics.recordOperation(REMOVE, System.nanoTime() - start);
+        }
+        return (T) removed;
+    }
+
+    // To remove the key at position 'index' of the subtree of 'node', found by the subtree key counts
+    private Object deleteAt(Node<T> node, int index) {
+        node.count--;
+        if (node.isLeaf()) {
+            return node.removeKey(index);
+        }
+        for (int childIndex = 0; ; childIndex++) {
+            int childCount = node.children[childIndex].count;
+            if (index < childCount) {
+                Object removed = deleteAt(writableChild(node, childIndex), index);
+                rebalanceChild(node, childIndex);
+                return removed;
+            }
+            if (index == childCount) {
+                // an inner key is replaced by its predecessor, as in delete
+                Object removed = node.keys[childIndex];
+                node.keys[childIndex] = deleteLast(writableChild(node, childIndex));
+                rebalanceChild(node, childIndex);
+                return removed;
+            }
+            index -= childCount + 1;
+        }
+    }
+
+    /* restores the minimum key count of the child at 'childIndex' by borrowing a key
+    from a sibling through the parent, or merging with a sibling when neither has
+    a key to spare; a merge takes a key from the parent, which its own parent
+    rebalances next */
+    private void rebalanceChild(Node<T> parent, int childIndex) {
+        Node<T> node = parent.children[childIndex];
+        int minKeySize = minKeySize();
+        if (node.keySize >= minKeySize) {
+            return;
+        }
+        Node<T> left = childIndex > 0 ? parent.children[childIndex - 1] : null;
+        Node<T> right = childIndex < parent.keySize ? parent.children[childIndex + 1] : null;
+        if (left != null && left.keySize > minKeySize) {
+            // To rotate the last key of the left sibling through the parent
+            left = writableChild(parent, childIndex - 1);
+            node.insertKey(0, parent.keys[childIndex - 1]);
+            parent.keys[childIndex - 1] = left.removeKey(left.keySize - 1);
+            left.count--;
+            node.count++;
+            if (!left.isLeaf()) {
+                Node<T> movedChild = left.children[left.keySize + 1];
+                left.children[left.keySize + 1] = null;
+                System.arraycopy(node.children, 0, node.children, 1, node.keySize);
+                node.children[0] = movedChild;
+                left.count -= movedChild.count;
+                node.count += movedChild.count;
+            }
+        } else if (right != null && right.keySize > minKeySize) {
+            // To rotate the first key of the right sibling through the parent
+            right = writableChild(parent, childIndex + 1);
+            node.insertKey(node.keySize, parent.keys[childIndex]);
+            parent.keys[childIndex] = right.removeKey(0);
+            right.count--;
+            node.count++;
+            if (!right.isLeaf()) {
+                Node<T> movedChild = right.children[0];
+                System.arraycopy(right.children, 1, right.children, 0, right.keySize + 1);
+                right.children[right.keySize + 1] = null;
+                node.children[node.keySize] = movedChild;
+                right.count -= movedChild.count;
+                node.count += movedChild.count;
+            }
+        } else {
+            if (metrics != null) {
+                metrics.recordMerge();
+            }
+            // the node merged into is the left one, the right one is only read
+            int keyIndex = left != null ? childIndex - 1 : childIndex;
+            writableChild(parent, keyIndex);
+            merge(parent, keyIndex);
+        }
+    }
+
+    // To merge the children on both sides of the parent's key at 'keyIndex' into the left one
+    private static <T> void merge(Node<T> parent, int keyIndex) {
+        Node<T> left = parent.children[keyIndex];
+        Node<T> right = parent.children[keyIndex + 1];
+        left.ensureCapacity(left.keySize + 1 + right.keySize);
+        left.keys[left.keySize] = parent.keys[keyIndex];
+        System.arraycopy(right.keys, 0, left.keys, left.keySize + 1, right.keySize);
+        if (!left.isLeaf()) {
+            System.arraycopy(right.children, 0, left.children, left.keySize + 1, right.keySize + 1);
+        }
+        left.keySize += right.keySize + 1;
+        left.count += right.count + 1;
+
+        parent.removeKey(keyIndex);
+        System.arraycopy(parent.children, keyIndex + 2, parent.children, keyIndex + 1,
+                parent.keySize - keyIndex);
+        parent.children[parent.keySize + 1] = null;
+    }
+
     @Override
-    public boolean remove(Object value) {
-        return false; // TODO: logic will be implemented in the future.
+    public boolean addAll(Collection<? extends T> values) {
+        // an empty tree is bulk loaded when the values are known to be in the tree's order
+        if (isEmpty() && values.size() > 1 && isOrderedBy(values, comparator)) {
+            checkWritable();
+            new BulkLoader<>(this, DEFAULT_FILL_FACTOR).load(values.iterator(), values.size());
+            return true;
+        }
+        return super.addAll(values);
+    }
+
+    private static boolean isOrderedBy(Collection<?> values, Comparator<?> comparator) {
+        return values instanceof SortedSet
+                && Objects.equals(((SortedSet<?>) values).comparator(), comparator);
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> values) {
+        boolean modified = false;
+        for (Object value : values) {
+            while (remove(value)) {
+                modified = true;
+            }
+        }
+        return modified;
     }
 
     @Override
     public void clear() {
-        root = NullNode.getInstance();
+        checkWritable();
+        root = null;
         size = 0;
     }
 
+    /* Point-in-time view of the tree in O(1): the snapshot keeps the current nodes, and
+    from then on this tree copies each node on the root-to-leaf path of a write before
+    changing it, leaving the snapshot's nodes untouched. The snapshot can be read, e.g.
+    iterated at length on another thread, while this tree goes on being written; nodes
+    no longer reachable from either are reclaimed with the snapshot.
+      @return read-only tree of the keys present now, whose writes throw
+      UnsupportedOperationException */
+    public BTree<T> snapshot() {
+        if (owner == null) {
+            return this;
+        }
+        owner = new Object();
+        return new BTree<>(this);
+    }
+
+    private void checkWritable() {
+        if (owner == null) {
+            throw new UnsupportedOperationException("A snapshot of a BTree is read-only");
+        }
+    }
+
+    // 'node' when it belongs to this tree, otherwise a copy of it that does
+    private Node<T> writable(Node<T> node) {
+        return node.owner == owner ? node : node.copy(owner);
+    }
+
+    // To make the child at 'childIndex' of a node of this tree belong to it too, returning the child
+    private Node<T> writableChild(Node<T> parent, int childIndex) {
+        Node<T> child = parent.children[childIndex];
+        if (child.owner != owner) {
+            child = child.copy(owner);
+            parent.children[childIndex] = child;
+        }
+        return child;
+    }
+
     @Override
     public boolean contains(Object value) {
-        Node<T> node = root.getNode((T) value, this);
-        return !node.isNull();
+        if (metrics != null) {
+            return countedContains(value);
+        }
+        return find(root, value, comparator);
+    }
+
+    /* locating the first key greater than/equal to 'value' in each node, if it is not
+    equal traverse the child subtree left of that key */
+    private static <T> boolean find(Node<T> node, Object value, Comparator comparator) {
+        while (node != null) {
+            int keyIndex = lowerBound(node.keys, node.keySize, value, comparator);
+            if (keyIndex < node.keySize && compare(node.keys[keyIndex], value, comparator) == 0) {
+                return true;
+            }
+            node = node.isLeaf() ? null : node.children[keyIndex];
+        }
+        return false;
+    }
+
+    // contains, recording its latency and the comparisons it made, which are included in the latency
+    private boolean countedContains(Object value) {
+        long start = System.nanoTime();
+        int[] comparisons = new int[1];
+        Comparator<T> countingComparator = (key1, key2) -> {
+            comparisons[0]++;
+            return compare(key1, key2, comparator);
+        };
+        boolean found = find(root, value, countingComparator);
+        metrics.recordOperation(CONTAINS, System.nanoTime() - start);
+        metrics.recordComparisons(comparisons[0]);
+        return found;
     }
 
     @Override
@@ -110,10 +485,95 @@ public class BTree<T extends Comparable<T>> extends AbstractCollection<T> implem
         return size;
     }
 
+    // maximum number of children per node
+    public int order() {
+        return maxChildrenSize;
+    }
+
+    /* releases the spare capacity of every node, e.g. after a large batch of removals;
+    nodes still shared with a snapshot are left as they are */
+    public void trimToSize() {
+        if (root != null) {
+            root.trimToSize(owner);
+        }
+    }
+
+    /* Starts recording counters and latencies of add, remove, contains and elementAt,
+      node splits and merges, and comparisons per contains
+      @return the metrics of this tree, the same instance until disableMetrics() */
+    public TreeMetrics enableMetrics() {
+        if (metrics == null) {
+            metrics = new TreeMetrics();
+        }
+        return metrics;
+    }
+
+    public void disableMetrics() {
+        metrics = null;
+    }
+
+    // metrics being recorded, null when they are not enabled
+    public TreeMetrics metrics() {
+        return metrics;
+    }
+
+    /* @return height, node count and fill per level of the tree, visiting every node */
+    public TreeStats stats() {
+        List<Integer> nodesPerLevel = new ArrayList<>();
+        List<Integer> keysPerLevel = new ArrayList<>();
+        List<Node<T>> level = root == null ? Collections.emptyList() : Collections.singletonList(root);
+        while (!level.isEmpty()) {
+            List<Node<T>> nextLevel = new ArrayList<>();
+            int keys = 0;
+            for (Node<T> node : level) {
+                keys += node.keySize;
+                if (!node.isLeaf()) {
+                    nextLevel.addAll(Arrays.asList(node.children).subList(0, node.keySize + 1));
+                }
+            }
+            nodesPerLevel.add(level.size());
+            keysPerLevel.add(keys);
+            level = nextLevel;
+        }
+        return new TreeStats(maxChildrenSize, size,
+                nodesPerLevel.stream().mapToInt(Integer::intValue).toArray(),
+                keysPerLevel.stream().mapToInt(Integer::intValue).toArray());
+    }
+
     static int compare(Object k1, Object k2, Comparator comparator) {
         return comparator == null ? ((Comparable) k1).compareTo(k2) : comparator.compare(k1, k2);
     }
 
+    // binary search for the index of the first of 'keySize' keys greater than/equal to 'value'
+    static int lowerBound(Object[] keys, int keySize, Object value, Comparator comparator) {
+        int low = 0;
+        int high = keySize;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(keys[mid], value, comparator) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // binary search for the index of the first of 'keySize' keys greater than 'value'
+    static int upperBound(Object[] keys, int keySize, Object value, Comparator comparator) {
+        int low = 0;
+        int high = keySize;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(keys[mid], value, comparator) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
     @Override
     public boolean isEmpty() {
         return size == 0;
@@ -121,7 +581,171 @@ public class BTree<T extends Comparable<T>> extends AbstractCollection<T> implem
 
     @Override
     public T elementAt(int index) {
-        return (T) this.toArray()[index];
+        if (metrics == null) {
+            return keyAt(index);
+        }
+        long start = System.nanoTime();
+        T key = keyAt(index);
+        metrics.recordOperation(ELEMENT_AT, System.nanoTime() - start);
+        return key;
+    }
+
+    private T keyAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        Node<T> node = root;
+        while (true) {
+            if (node.isLeaf()) {
+                return node.key(index);
+            }
+            // skip whole subtrees using their key counts until the index falls inside one
+            for (int childIndex = 0; childIndex <= node.keySize; childIndex++) {
+                Node<T> child = node.children[childIndex];
+                if (index < child.count) {
+                    node = child;
+                    break;
+                }
+                index -= child.count;
+                if (index == 0) {
+                    return node.key(childIndex);
+                }
+                index--;
+            }
+        }
+    }
+
+    /* @return number of elements in the tree strictly less than 'value' */
+    public int rank(T value) {
+        return rank(value, false);
+    }
+
+    // number of elements less than 'value', or less than/equal to it when 'inclusive'
+    private int rank(Object value, boolean inclusive) {
+        int rank = 0;
+        Node<T> node = root;
+        while (node != null) {
+            int keyIndex = inclusive
+                    ? upperBound(node.keys, node.keySize, value, comparator)
+                    : lowerBound(node.keys, node.keySize, value, comparator);
+            rank += keyIndex;
+            if (node.isLeaf()) {
+                break;
+            }
+            for (int childIndex = 0; childIndex < keyIndex; childIndex++) {
+                rank += node.children[childIndex].count;
+            }
+            node = node.children[keyIndex];
+        }
+        return rank;
+    }
+
+    /* @return position of 'value' in the sorted order of the tree, or -1 if it is not present */
+    public int indexOf(Object value) {
+        int index = rank((T) value);
+        if (index < size && compare(keyAt(index), value, comparator) == 0) {
+            return index;
+        }
+        return -1;
+    }
+
+    // element at 'index' when it lies within [fromIndex, toIndex), null otherwise
+    private T elementWithin(int index, int fromIndex, int toIndex) {
+        return index >= fromIndex && index < toIndex ? keyAt(index) : null;
+    }
+
+    @Override
+    public T lower(T value) {
+        return elementWithin(rank(value, false) - 1, 0, size);
+    }
+
+    @Override
+    public T floor(T value) {
+        return elementWithin(rank(value, true) - 1, 0, size);
+    }
+
+    @Override
+    public T ceiling(T value) {
+        return elementWithin(rank(value, false), 0, size);
+    }
+
+    @Override
+    public T higher(T value) {
+        return elementWithin(rank(value, true), 0, size);
+    }
+
+    @Override
+    public T first() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return keyAt(0);
+    }
+
+    @Override
+    public T last() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return keyAt(size - 1);
+    }
+
+    @Override
+    public T pollFirst() {
+        return isEmpty() ? null : removeAt(0);
+    }
+
+    @Override
+    public T pollLast() {
+        return isEmpty() ? null : removeAt(size - 1);
+    }
+
+    @Override
+    public Comparator<? super T> comparator() {
+        return comparator;
+    }
+
+    @Override
+    public NavigableSet<T> subSet(T fromElement, boolean fromInclusive, T toElement, boolean toInclusive) {
+        if (compare(fromElement, toElement, comparator) > 0) {
+            throw new IllegalArgumentException("fromElement > toElement");
+        }
+        return new SubSet(false, fromElement, fromInclusive, false, toElement, toInclusive, false);
+    }
+
+    @Override
+    public NavigableSet<T> headSet(T toElement, boolean inclusive) {
+        return new SubSet(true, null, false, false, toElement, inclusive, false);
+    }
+
+    @Override
+    public NavigableSet<T> tailSet(T fromElement, boolean inclusive) {
+        return new SubSet(false, fromElement, inclusive, true, null, false, false);
+    }
+
+    @Override
+    public SortedSet<T> subSet(T fromElement, T toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public SortedSet<T> headSet(T toElement) {
+        return headSet(toElement, false);
+    }
+
+    @Override
+    public SortedSet<T> tailSet(T fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+    @Override
+    public NavigableSet<T> descendingSet() {
+        return new SubSet(true, null, false, true, null, false, true);
+    }
+
+    @Override
+    public Iterator<T> descendingIterator() {
+        return new DescendingIterator(size - 1, size);
     }
 
     @Override
@@ -129,367 +753,947 @@ public class BTree<T extends Comparable<T>> extends AbstractCollection<T> implem
         return TreePrinter.getString(this);
     }
 
+    @Override
+    public boolean equals(Object other) {
+        return other == this || elementsEqual(this, other);
+    }
+
+    @Override
+    public int hashCode() {
+        return elementHashCode(this);
+    }
+
+    /* whether the Set 'other' holds the elements of 'elements', a BTree or a view of one,
+    each as often when 'other' is a BTree or a view too */
+    private static boolean elementsEqual(NavigableSet<?> elements, Object other) {
+        if (!(other instanceof Set)) {
+            return false;
+        }
+        Collection<?> otherElements = (Collection<?>) other;
+        if (elements.size() != otherElements.size()) {
+            return false;
+        }
+        try {
+            if (other instanceof BTree || other instanceof BTree.SubSet) {
+                for (Object element : elements) {
+                    if (occurrences(elements, element) != occurrences((NavigableSet<?>) other, element)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            return elements.containsAll(otherElements);
+        } catch (ClassCastException | NullPointerException e) {
+            // elements 'other' cannot compare, as in AbstractSet.equals
+            return false;
+        }
+    }
+
+    // number of elements of 'elements' equal to 'element'
+    private static int occurrences(NavigableSet<?> elements, Object element) {
+        return ((NavigableSet<Object>) elements).subSet(element, true, element, true).size();
+    }
+
+    // sum of the element hashes, as Set.hashCode
+    private static int elementHashCode(Collection<?> elements) {
+        int hashCode = 0;
+        for (Object element : elements) {
+            hashCode += element.hashCode();
+        }
+        return hashCode;
+    }
+
     @Override
     public Iterator<T> iterator() {
-        return (new InorderIterator());
+        return (new InorderIterator(0, size));
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return new TreeSpliterator(0, size);
     }
 
+    // To visit every element in descending order
     @Override
     public void forEach(Consumer<? super T> action) {
-        Stack<Node<T>> nodeStack = new Stack<>();
-        Stack<Integer> keyIndexStack = new Stack<>();
-        if (!root.keys.isEmpty())
-            pushRightPath(root, nodeStack, keyIndexStack);
+        Cursor<T> cursor = cursor();
+        for (boolean valid = cursor.seekLast(); valid; valid = cursor.prev())
+            action.accept(cursor.key());
+    }
+
+    public Cursor<T> cursor() {
+        return new TreeCursor();
+    }
+
+    /* Cursor holding the path from the root to its element in two arrays that only grow
+    with the height of the tree, so moving it allocates nothing. Nodes above the current
+    one are stored with the index of the child the path goes through, the current node
+    with the index of the current key. */
+    private final class TreeCursor implements Cursor<T> {
+        private Node<T>[] nodePath = new Node[8];
+        private int[] indexPath = new int[8];
+        // level of the current node in the path, -1 when invalid
+        private int top = -1;
 
-        while (!nodeStack.isEmpty()) {
-            Node<T> node = nodeStack.peek();
-            int keyIndex = keyIndexStack.pop();
-            T resultKey = node.keys.get(keyIndex - 1);
-            keyIndex--;
+        @Override
+        public boolean seek(T key) {
+            if (!start())
+                return false;
+            while (true) {
+                Node<T> node = nodePath[top];
+                int keyIndex = lowerBound(node.keys, node.keySize, key, comparator);
+                indexPath[top] = keyIndex;
+                if (node.isLeaf())
+                    break;
+                push(node.children[keyIndex]);
+            }
+            // past the last key of the leaf, the next greater key is the separator above
+            if (indexPath[top] == nodePath[top].keySize)
+                ascendRight();
+            return isValid();
+        }
 
-            if (keyIndex > 0)
-                keyIndexStack.push(keyIndex);
-            else
-                nodeStack.pop();
-            if (!node.isLeaf())
-                pushRightPath(node.children.get(keyIndex), nodeStack, keyIndexStack);
-            action.accept(resultKey);
+        @Override
+        public boolean seekAt(int index) {
+            if (index < 0 || index >= size) {
+                reset();
+                return false;
+            }
+            start();
+            while (!nodePath[top].isLeaf()) {
+                Node<T> node = nodePath[top];
+                for (int childIndex = 0; childIndex <= node.keySize; childIndex++) {
+                    Node<T> child = node.children[childIndex];
+                    indexPath[top] = childIndex;
+                    if (index < child.count) {
+                        push(child);
+                        break;
+                    }
+                    index -= child.count;
+                    if (index == 0)
+                        return true;
+                    index--;
+                }
+            }
+            indexPath[top] = index;
+            return true;
         }
-    }
 
-    private void pushRightPath(Node<T> node, Stack<Node<T>> nodeStack, Stack<Integer> keyIndexStack) {
-        while (true) {
-            nodeStack.push(node);
-            int lastKeyIndex = node.keys.size();
-            int lastChildIndex = node.children.size() - 1;
-            keyIndexStack.push(lastKeyIndex);
-            if (node.isLeaf())
-                break;
-            node = node.children.get(lastChildIndex);
+        @Override
+        public boolean seekFirst() {
+            if (!start())
+                return false;
+            descendLeft();
+            return true;
+        }
+
+        @Override
+        public boolean seekLast() {
+            if (!start())
+                return false;
+            descendRight();
+            return true;
+        }
+
+        @Override
+        public boolean next() {
+            if (!isValid())
+                return false;
+            Node<T> node = nodePath[top];
+            if (!node.isLeaf()) {
+                // the successor of an inner key is the leftmost key of its right subtree
+                push(node.children[++indexPath[top]]);
+                descendLeft();
+            } else if (++indexPath[top] == node.keySize) {
+                ascendRight();
+            }
+            return isValid();
+        }
+
+        @Override
+        public boolean prev() {
+            if (!isValid())
+                return false;
+            Node<T> node = nodePath[top];
+            if (!node.isLeaf()) {
+                // the predecessor of an inner key is the rightmost key of its left subtree
+                push(node.children[indexPath[top]]);
+                descendRight();
+            } else if (--indexPath[top] < 0) {
+                ascendLeft();
+            }
+            return isValid();
+        }
+
+        @Override
+        public boolean isValid() {
+            return top >= 0;
+        }
+
+        @Override
+        public T key() {
+            if (!isValid())
+                throw new NoSuchElementException();
+            return nodePath[top].key(indexPath[top]);
+        }
+
+        @Override
+        public void reset() {
+            Arrays.fill(nodePath, 0, Math.max(top + 1, 0), null);
+            top = -1;
+        }
+
+        // To start a path at the root, false when the tree is empty
+        private boolean start() {
+            reset();
+            if (root == null)
+                return false;
+            push(root);
+            return true;
+        }
+
+        private void push(Node<T> node) {
+            if (++top == nodePath.length) {
+                nodePath = Arrays.copyOf(nodePath, top * 2);
+                indexPath = Arrays.copyOf(indexPath, top * 2);
+            }
+            nodePath[top] = node;
+        }
+
+        // To extend the path from the current node's child at its index to the leftmost leaf
+        private void descendLeft() {
+            while (!nodePath[top].isLeaf()) {
+                indexPath[top] = 0;
+                push(nodePath[top].children[0]);
+            }
+            indexPath[top] = 0;
+        }
+
+        // To extend the path from the current node to the rightmost leaf below it
+        private void descendRight() {
+            while (!nodePath[top].isLeaf()) {
+                Node<T> node = nodePath[top];
+                indexPath[top] = node.keySize;
+                push(node.children[node.keySize]);
+            }
+            indexPath[top] = nodePath[top].keySize - 1;
+        }
+
+        // To climb to the nearest node the path leaves through a child with a key after it
+        private void ascendRight() {
+            do {
+                nodePath[top--] = null;
+            } while (top >= 0 && indexPath[top] == nodePath[top].keySize);
+        }
+
+        // To climb to the nearest node the path leaves through a child with a key before it
+        private void ascendLeft() {
+            do {
+                nodePath[top--] = null;
+            } while (top >= 0 && indexPath[top] == 0);
+            if (top >= 0)
+                indexPath[top]--;
         }
     }
 
+    /* Ascending iterator over 'count' elements starting at position 'fromIndex', the
+    start is found by descending with the subtree key counts instead of walking there */
     private final class InorderIterator implements Iterator<T> {
-        private Stack<Node<T>> nodeStack;
-        private Stack<Integer> keyIndexStack;
-
-        public InorderIterator() {
-            nodeStack = new Stack<>();
-            keyIndexStack = new Stack<>();
-            if (!root.keys.isEmpty())
-                pushLeftPath(root);
+        private final TreeCursor cursor = new TreeCursor();
+        private int remaining;
+        // position of the next element, and of the last one returned or -1 once it is removed
+        private int nextIndex;
+        private int lastIndex = -1;
+
+        public InorderIterator(int fromIndex, int count) {
+            remaining = count;
+            nextIndex = fromIndex;
+            if (count > 0)
+                cursor.seekAt(fromIndex);
         }
 
         public boolean hasNext() {
-            return !nodeStack.isEmpty();
+            return remaining > 0;
         }
 
         public T next() {
             if (!hasNext())
                 throw new NoSuchElementException();
-
-            Node<T> node = nodeStack.peek();
-            int keyIndex = keyIndexStack.pop();
-            T resultKey = node.keys.get(keyIndex);
-            keyIndex++;
-
-            if (keyIndex < node.keys.size())
-                keyIndexStack.push(keyIndex);
-            else
-                nodeStack.pop();
-            if (!node.isLeaf())
-                pushLeftPath(node.children.get(keyIndex));
+            T resultKey = cursor.key();
+            lastIndex = nextIndex++;
+            if (--remaining > 0)
+                cursor.next();
             return resultKey;
         }
 
+        // removes by position, the path of the cursor is found again in the changed tree
         public void remove() {
-            throw new UnsupportedOperationException();
+            if (lastIndex < 0)
+                throw new IllegalStateException();
+            removeAt(lastIndex);
+            lastIndex = -1;
+            nextIndex--;
+            if (remaining > 0)
+                cursor.seekAt(nextIndex);
+        }
+    }
+
+    /* Spliterator over the elements at positions [index, toIndex). It splits at the key of
+    the highest node falling inside the range, nearest to its middle, so both halves cover
+    whole subtrees and know their exact size. DISTINCT is not reported, the tree keeps
+    duplicates. */
+    private final class TreeSpliterator implements Spliterator<T> {
+        private int index;
+        private final int toIndex;
+        private InorderIterator iterator;
+
+        private TreeSpliterator(int fromIndex, int toIndex) {
+            this.index = fromIndex;
+            this.toIndex = toIndex;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            if (iterator != null || toIndex - index < 2)
+                return null;
+            int splitIndex = splitIndex(index, toIndex);
+            if (splitIndex < 0)
+                return null;
+            Spliterator<T> prefix = new TreeSpliterator(index, splitIndex);
+            index = splitIndex;
+            return prefix;
         }
 
-        private void pushLeftPath(Node<T> node) {
+        // position of the key to start the second half at, -1 when there is none
+        private int splitIndex(int fromIndex, int toIndex) {
+            int middle = (fromIndex + toIndex) >>> 1;
+            Node<T> node = root;
+            // position of the first element of the subtree rooted at 'node'
+            int offset = 0;
             while (true) {
-                nodeStack.push(node);
-                keyIndexStack.push(0);
-                if (node.isLeaf())
-                    break;
-                node = node.children.get(0);
+                int numberOfKeys = node.keySize;
+                int splitIndex = -1;
+                Node<T> rangeChild = null;
+                int rangeChildOffset = 0;
+                int childOffset = offset;
+                for (int childIndex = 0; childIndex <= numberOfKeys; childIndex++) {
+                    Node<T> child = node.isLeaf() ? null : node.children[childIndex];
+                    int childCount = child == null ? 0 : child.count;
+                    // the range may also take in the keys on either side of the child
+                    if (child != null && fromIndex >= childOffset - 1 && toIndex <= childOffset + childCount + 1) {
+                        rangeChild = child;
+                        rangeChildOffset = childOffset;
+                    }
+                    int keyPosition = childOffset + childCount;
+                    if (childIndex < numberOfKeys && keyPosition > fromIndex && keyPosition < toIndex
+                            && (splitIndex < 0 || Math.abs(keyPosition - middle) < Math.abs(splitIndex - middle)))
+                        splitIndex = keyPosition;
+                    childOffset = keyPosition + 1;
+                }
+                if (splitIndex >= 0 || node.isLeaf() || rangeChild == null)
+                    return splitIndex;
+                node = rangeChild;
+                offset = rangeChildOffset;
             }
         }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            if (index >= toIndex)
+                return false;
+            if (iterator == null)
+                iterator = new InorderIterator(index, toIndex - index);
+            index++;
+            action.accept(iterator.next());
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            while (tryAdvance(action)) {
+                // tryAdvance hands each element to the action
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return toIndex - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SORTED | Spliterator.SIZED
+                    | Spliterator.SUBSIZED | Spliterator.NONNULL;
+        }
+
+        @Override
+        public Comparator<? super T> getComparator() {
+            return comparator;
+        }
     }
 
-    private abstract static class Node<T extends Comparable<T>> {
-        Node<T> parent;
-        List<T> keys;
-        List<Node<T>> children;
+    // Descending iterator over 'count' elements starting at position 'fromIndex'
+    private final class DescendingIterator implements Iterator<T> {
+        private final TreeCursor cursor = new TreeCursor();
+        private int remaining;
+        private int nextIndex;
+        private int lastIndex = -1;
+
+        public DescendingIterator(int fromIndex, int count) {
+            remaining = count;
+            nextIndex = fromIndex;
+            if (count > 0)
+                cursor.seekAt(fromIndex);
+        }
 
-        protected abstract void addKey(T t, Comparator<T> comparator);
+        public boolean hasNext() {
+            return remaining > 0;
+        }
 
-        protected abstract Node<T> getChild(int i);
+        public T next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            T resultKey = cursor.key();
+            lastIndex = nextIndex--;
+            if (--remaining > 0)
+                cursor.prev();
+            return resultKey;
+        }
 
-        protected abstract boolean addChild(Node<T> leftChild, BTree<T> tree);
+        // the elements still to come lie before the removed one, their positions stay
+        public void remove() {
+            if (lastIndex < 0)
+                throw new IllegalStateException();
+            removeAt(lastIndex);
+            lastIndex = -1;
+            if (remaining > 0)
+                cursor.seekAt(nextIndex);
+        }
+    }
 
-        protected abstract boolean removeChild(Node<T> node);
+    private final class SubSet extends AbstractCollection<T> implements NavigableSet<T> {
+        private final boolean fromStart;
+        private final T low;
+        private final boolean lowInclusive;
+        private final boolean toEnd;
+        private final T high;
+        private final boolean highInclusive;
+        private final boolean descending;
+
+        private SubSet(boolean fromStart, T low, boolean lowInclusive,
+                       boolean toEnd, T high, boolean highInclusive, boolean descending) {
+            this.fromStart = fromStart;
+            this.low = low;
+            this.lowInclusive = lowInclusive;
+            this.toEnd = toEnd;
+            this.high = high;
+            this.highInclusive = highInclusive;
+            this.descending = descending;
+        }
 
-        protected abstract Node<T> getNode(T value, BTree<T> tree);
+        private int fromIndex() {
+            return fromStart ? 0 : rank(low, !lowInclusive);
+        }
 
-        protected abstract boolean isNull();
+        private int toIndex() {
+            return toEnd ? size : Math.max(fromIndex(), rank(high, highInclusive));
+        }
 
-        protected abstract void split(BTree<T> tree);
+        private boolean tooLow(Object value) {
+            if (fromStart) {
+                return false;
+            }
+            int comparison = compare(value, low, comparator);
+            return comparison < 0 || (comparison == 0 && !lowInclusive);
+        }
 
-        protected abstract boolean isLeaf();
+        private boolean tooHigh(Object value) {
+            if (toEnd) {
+                return false;
+            }
+            int comparison = compare(value, high, comparator);
+            return comparison > 0 || (comparison == 0 && !highInclusive);
+        }
 
-        public abstract String toString();
-    }
+        private boolean inRange(Object value) {
+            return !tooLow(value) && !tooHigh(value);
+        }
 
-    private static class NullNode<T extends Comparable<T>> extends Node<T> {
+        // a bound of a nested view may equal an exclusive bound of this view only when exclusive too
+        private boolean inRange(Object value, boolean inclusive) {
+            if (inclusive) {
+                return inRange(value);
+            }
+            return (fromStart || compare(value, low, comparator) >= 0)
+                    && (toEnd || compare(value, high, comparator) <= 0);
+        }
 
-        private static final NullNode instance = new NullNode();
+        @Override
+        public int size() {
+            return toIndex() - fromIndex();
+        }
 
-        private NullNode() {
-            this.parent = instance;
-            this.keys = Collections.EMPTY_LIST;
-            this.children = Collections.EMPTY_LIST;
+        @Override
+        public boolean isEmpty() {
+            return size() == 0;
         }
 
-        public static NullNode getInstance() {
-            return instance;
+        @Override
+        public boolean contains(Object value) {
+            return inRange(value) && BTree.this.contains(value);
         }
 
         @Override
-        protected Node<T> getChild(int i) {
-            return getInstance();
+        public boolean add(T value) {
+            if (!inRange(value)) {
+                throw new IllegalArgumentException("Value out of range: " + value);
+            }
+            return BTree.this.add(value);
         }
 
         @Override
-        protected void addKey(T t, Comparator<T> comparator) {
+        public boolean remove(Object value) {
+            return inRange(value) && BTree.this.remove(value);
         }
 
         @Override
-        protected boolean addChild(Node<T> leftChild, BTree<T> tree) {
-            return false;
+        public void clear() {
+            while (pollFirst() != null) {
+                // pollFirst removes the element
+            }
         }
 
         @Override
-        protected void split(BTree<T> tree) {
+        public Iterator<T> iterator() {
+            int fromIndex = fromIndex();
+            int toIndex = toIndex();
+            return descending
+                    ? new DescendingIterator(toIndex - 1, toIndex - fromIndex)
+                    : new InorderIterator(fromIndex, toIndex - fromIndex);
         }
 
         @Override
-        protected boolean removeChild(Node<T> node) {
-            return false;
+        public Iterator<T> descendingIterator() {
+            return descendingSet().iterator();
         }
 
+        // the descending order is reported as ORDERED only, and as the tree, not DISTINCT
         @Override
-        protected boolean isNull() {
-            return true;
+        public Spliterator<T> spliterator() {
+            return descending
+                    ? Spliterators.spliterator(this, Spliterator.ORDERED | Spliterator.NONNULL)
+                    : new TreeSpliterator(fromIndex(), toIndex());
         }
 
         @Override
-        protected Node<T> getNode(T value, BTree<T> tree) {
-            return getInstance();
+        public boolean equals(Object other) {
+            return other == this || elementsEqual(this, other);
         }
 
         @Override
-        protected boolean isLeaf() {
-            return true;
+        public int hashCode() {
+            return elementHashCode(this);
+        }
+
+        // navigation in ascending order of the tree, restricted to the range
+        private T ascendingLower(T value) {
+            return elementWithin(Math.min(toIndex(), rank(value, false)) - 1, fromIndex(), toIndex());
+        }
+
+        private T ascendingFloor(T value) {
+            return elementWithin(Math.min(toIndex(), rank(value, true)) - 1, fromIndex(), toIndex());
+        }
+
+        private T ascendingCeiling(T value) {
+            return elementWithin(Math.max(fromIndex(), rank(value, false)), fromIndex(), toIndex());
+        }
+
+        private T ascendingHigher(T value) {
+            return elementWithin(Math.max(fromIndex(), rank(value, true)), fromIndex(), toIndex());
         }
 
         @Override
-        public String toString() {
-            return "keys:() parent:() keySize=0 children=0";
+        public T lower(T value) {
+            return descending ? ascendingHigher(value) : ascendingLower(value);
         }
-    }
 
-    private static class NodeImpl<T extends Comparable<T>> extends Node<T> {
+        @Override
+        public T floor(T value) {
+            return descending ? ascendingCeiling(value) : ascendingFloor(value);
+        }
 
-        private NodeImpl(Node<T> parent) {
-            this.parent = parent;
-            this.keys = new ArrayList<>();
-            this.children = new ArrayList<>();
+        @Override
+        public T ceiling(T value) {
+            return descending ? ascendingFloor(value) : ascendingCeiling(value);
         }
 
-        protected void addKey(T value, Comparator<T> comparator) {
-            keys.add(value);
-            keys.sort(comparator);
+        @Override
+        public T higher(T value) {
+            return descending ? ascendingLower(value) : ascendingHigher(value);
         }
 
-        protected Node<T> getChild(int index) {
-            if (index >= children.size()) {
-                return NullNode.getInstance();
-            }
-            return children.get(index);
+        private T firstOrNull() {
+            return elementWithin(descending ? toIndex() - 1 : fromIndex(), fromIndex(), toIndex());
         }
 
-        protected boolean addChild(Node<T> child, BTree<T> tree) {
+        private T lastOrNull() {
+            return elementWithin(descending ? fromIndex() : toIndex() - 1, fromIndex(), toIndex());
+        }
 
-            Comparator<Node<T>> nodeComparator =
-                    (node1, node2) ->
-                            tree.comparator == null
-                                    ? node1.keys.get(0).compareTo(node2.keys.get(0))
-                                    : tree.comparator.compare(node1.keys.get(0), node2.keys.get(0));
-            child.parent = this;
-            children.add(child);
-            children.sort(nodeComparator);
-            return true;
+        @Override
+        public T first() {
+            T first = firstOrNull();
+            if (first == null) {
+                throw new NoSuchElementException();
+            }
+            return first;
         }
 
-        protected boolean removeChild(Node<T> child) {
-            boolean found = false;
-            if (children.contains(child)) {
-                children.remove(child);
-                found = true;
+        @Override
+        public T last() {
+            T last = lastOrNull();
+            if (last == null) {
+                throw new NoSuchElementException();
             }
-            return found;
+            return last;
         }
 
         @Override
-        protected boolean isNull() {
-            return false;
+        public T pollFirst() {
+            return pollAt(descending ? toIndex() - 1 : fromIndex());
         }
 
         @Override
-        protected boolean isLeaf() {
-            return children.size() == 0;
+        public T pollLast() {
+            return pollAt(descending ? fromIndex() : toIndex() - 1);
         }
 
-        protected Node<T> getNode(T value, BTree<T> tree) {
-            Node<T> node = this;
-            while (!node.isNull()) {
-                T leftKey = node.keys.get(0);
-        /* comparing input value with left-most key in the node,
-        if 'value' is less, traverse left child to get the node */
-                if (compare(value, leftKey, tree.comparator) < 0) {
-                    node = node.getChild(0);
-                    continue;
-                }
+        // To remove the element at 'index' of the tree when it lies in the view, by position
+        private T pollAt(int index) {
+            return index >= fromIndex() && index < toIndex() ? removeAt(index) : null;
+        }
 
-                int numberOfKeys = node.keys.size();
-                int last = numberOfKeys - 1;
-                T rightKey = node.keys.get(last);
-        /* comparing input value with right-most key in the node,
-        if 'value' is more, traverse right child to get the node*/
-                if (compare(value, rightKey, tree.comparator) > 0) {
-                    node = node.getChild(numberOfKeys);
-                    continue;
-                }
+        @Override
+        public Comparator<? super T> comparator() {
+            if (!descending) {
+                return comparator;
+            }
+            return comparator == null
+                    ? (Comparator<T>) Comparator.reverseOrder()
+                    : comparator.reversed();
+        }
 
-                for (int keyIndex = 0; keyIndex < numberOfKeys; keyIndex++) {
-                    T currentValue = node.keys.get(keyIndex);
-                    if (compare(currentValue, value, tree.comparator) == 0) {
-                        return node;
-                    }
-                    int next = keyIndex + 1;
-                    if (next <= last) {
-                        T nextValue = node.keys.get(next);
-                        // To traverse child subtree when 'value' lies between 2 keys in a node
-                        if (compare(currentValue, value, tree.comparator) < 0
-                                && compare(nextValue, value, tree.comparator) > 0) {
-                            if (next < node.children.size()) {
-                                node = node.getChild(next);
-                                break;
-                            }
-                            return NullNode.getInstance();
-                        }
-                    }
+        // view over [from, to] of the tree's ascending order, within the bounds of this view
+        private NavigableSet<T> ascendingSubSet(boolean fromStart, T from, boolean fromInclusive,
+                                                boolean toEnd, T to, boolean toInclusive) {
+            if (!fromStart && !toEnd && compare(from, to, comparator) > 0) {
+                throw new IllegalArgumentException("fromElement > toElement");
+            }
+            if (!fromStart && !inRange(from, fromInclusive)) {
+                throw new IllegalArgumentException("fromElement out of range: " + from);
+            }
+            if (!toEnd && !inRange(to, toInclusive)) {
+                throw new IllegalArgumentException("toElement out of range: " + to);
+            }
+            if (fromStart) {
+                from = low;
+                fromInclusive = lowInclusive;
+            }
+            if (toEnd) {
+                to = high;
+                toInclusive = highInclusive;
+            }
+            return new SubSet(fromStart && this.fromStart, from, fromInclusive,
+                    toEnd && this.toEnd, to, toInclusive, descending);
+        }
+
+        @Override
+        public NavigableSet<T> subSet(T fromElement, boolean fromInclusive, T toElement, boolean toInclusive) {
+            if (descending) {
+                if (compare(fromElement, toElement, comparator) < 0) {
+                    throw new IllegalArgumentException("fromElement > toElement");
                 }
+                return ascendingSubSet(false, toElement, toInclusive, false, fromElement, fromInclusive);
             }
-            return NullNode.getInstance();
+            return ascendingSubSet(false, fromElement, fromInclusive, false, toElement, toInclusive);
         }
 
-        protected void split(BTree<T> tree) {
-            Node<T> node = this;
-            int numberOfKeys = node.keys.size();
-            int medianIndex = numberOfKeys / 2;
-            T medianValue = node.keys.get(medianIndex);
+        @Override
+        public NavigableSet<T> headSet(T toElement, boolean inclusive) {
+            return descending
+                    ? ascendingSubSet(false, toElement, inclusive, true, null, false)
+                    : ascendingSubSet(true, null, false, false, toElement, inclusive);
+        }
 
-            Node<T> left = new NodeImpl<>(null);
-            // To create left node and add keys before median index position
-            for (int keyIndex = 0; keyIndex < medianIndex; keyIndex++) {
-                left.addKey(node.keys.get(keyIndex), tree.comparator);
-            }
-            // To attach the child nodes before median index position to the left node
-            // if (node.children.size() > 0) {
-            if (!node.isLeaf()) {
-                for (int childIndex = 0; childIndex <= medianIndex; childIndex++) {
-                    Node<T> leftChild = node.getChild(childIndex);
-                    left.addChild(leftChild, tree);
+        @Override
+        public NavigableSet<T> tailSet(T fromElement, boolean inclusive) {
+            return descending
+                    ? ascendingSubSet(true, null, false, false, fromElement, inclusive)
+                    : ascendingSubSet(false, fromElement, inclusive, true, null, false);
+        }
+
+        @Override
+        public SortedSet<T> subSet(T fromElement, T toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        @Override
+        public SortedSet<T> headSet(T toElement) {
+            return headSet(toElement, false);
+        }
+
+        @Override
+        public SortedSet<T> tailSet(T fromElement) {
+            return tailSet(fromElement, true);
+        }
+
+        @Override
+        public NavigableSet<T> descendingSet() {
+            return new SubSet(fromStart, low, lowInclusive, toEnd, high, highInclusive, !descending);
+        }
+    }
+
+    /* Node with its keys and children in arrays sized for the transient overflow key and
+    child that trigger a split, and no link to its parent: operations that change the
+    shape of the tree carry the path from the root down themselves. A leaf has no
+    children array at all. */
+    private static final class Node<T> {
+        Object[] keys;
+        Node<T>[] children;
+        int keySize;
+        // number of keys stored in the subtree rooted at this node
+        int count;
+        // owner token of the tree that may change this node in place
+        final Object owner;
+
+        private Node(int order, boolean leaf, Object owner) {
+            this.keys = new Object[order];
+            this.children = leaf ? null : new Node[order + 1];
+            this.owner = owner;
+        }
+
+        private Node(Node<T> node, Object owner) {
+            this.keys = node.keys.clone();
+            this.children = node.isLeaf() ? null : node.children.clone();
+            this.keySize = node.keySize;
+            this.count = node.count;
+            this.owner = owner;
+        }
+
+        private Node<T> copy(Object owner) {
+            return new Node<>(this, owner);
+        }
+
+        private boolean isLeaf() {
+            return children == null;
+        }
+
+        private T key(int keyIndex) {
+            return (T) keys[keyIndex];
+        }
+
+        private void insertKey(int keyIndex, Object value) {
+            ensureCapacity(keySize + 1);
+            System.arraycopy(keys, keyIndex, keys, keyIndex + 1, keySize - keyIndex);
+            keys[keyIndex] = value;
+            keySize++;
+        }
+
+        private Object removeKey(int keyIndex) {
+            Object value = keys[keyIndex];
+            System.arraycopy(keys, keyIndex + 1, keys, keyIndex, keySize - keyIndex - 1);
+            keys[--keySize] = null;
+            return value;
+        }
+
+        // To make room for 'keySize' keys and their children in a node trimmed by trimToSize
+        private void ensureCapacity(int keySize) {
+            if (keys.length < keySize) {
+                keys = Arrays.copyOf(keys, keySize);
+                if (!isLeaf()) {
+                    children = Arrays.copyOf(children, keySize + 1);
                 }
             }
+        }
 
-            Node<T> right = new NodeImpl<>(null);
-            // To create right node and add keys after median index position
-            for (int keyIndex = medianIndex + 1; keyIndex < numberOfKeys; keyIndex++) {
-                right.addKey(node.keys.get(keyIndex), tree.comparator);
+        // a node of another owner is shared with a snapshot, and so is everything below it
+        private void trimToSize(Object owner) {
+            if (this.owner != owner) {
+                return;
             }
-            // To attach the child nodes after median index position to the right node
-            // if (node.children.size() > 0) {
-            if (!node.isLeaf()) {
-                for (int childIndex = medianIndex + 1; childIndex < node.children.size(); childIndex++) {
-                    Node<T> rightChild = node.getChild(childIndex);
-                    right.addChild(rightChild, tree);
+            keys = Arrays.copyOf(keys, keySize);
+            if (!isLeaf()) {
+                children = Arrays.copyOf(children, keySize + 1);
+                for (Node<T> child : children) {
+                    child.trimToSize(owner);
                 }
             }
+        }
 
-            if (node.parent.isNull()) {
-                // To create new root node, in case there is no parent node
-                Node<T> newRoot = new NodeImpl<>(NullNode.getInstance());
-                newRoot.addKey(medianValue, tree.comparator);
-                node.parent = newRoot;
-                tree.root = newRoot;
-                node = tree.root;
-                node.addChild(left, tree);
-                node.addChild(right, tree);
-            } else {
-                // To make the split node parent, move node to the parent level
-                Node<T> parent = node.parent;
-                parent.addKey(medianValue, tree.comparator);
-                parent.removeChild(node);
-                parent.addChild(left, tree);
-                parent.addChild(right, tree);
-
-                if (parent.keys.size() > tree.maxKeySize) {
-                    parent.split(tree);
+        private int countKeys() {
+            int count = keySize;
+            if (!isLeaf()) {
+                for (int childIndex = 0; childIndex <= keySize; childIndex++) {
+                    count += children[childIndex].count;
                 }
             }
+            return count;
         }
 
-        public String toString() {
+        // 'parent' is the node above this one, null for the root
+        private String toString(Node<T> parent) {
             StringBuilder builder = new StringBuilder();
             builder.append("keys: (");
-            keys.forEach(key -> builder.append(key).append(","));
+            for (int keyIndex = 0; keyIndex < keySize; keyIndex++) {
+                builder.append(keys[keyIndex]).append(",");
+            }
             builder.append(")\t");
 
             builder.append("parent: (");
-            parent.keys.forEach(key -> builder.append(key).append(","));
+            for (int keyIndex = 0; parent != null && keyIndex < parent.keySize; keyIndex++) {
+                builder.append(parent.keys[keyIndex]).append(",");
+            }
             builder.append(")\t");
 
             builder
                     .append("keySize=")
-                    .append(keys.size())
+                    .append(keySize)
                     .append(" children=")
-                    .append(children.size())
+                    .append(isLeaf() ? 0 : keySize + 1)
                     .append("\t");
 
             return builder.toString();
         }
+    }
+
+    /* Packs sorted values into a tree without descending from the root per value:
+    the node shape is laid out level by level first, sizing nodes evenly around the
+    fill factor within the min/max key bounds, then keys are poured in in-order */
+    private static class BulkLoader<T extends Comparable<T>> {
+        private final BTree<T> tree;
+        private final int targetKeySize;
+        private Iterator<? extends T> values;
+        private T previous;
+        private int leafIndex;
+        private int leafKeySize;
+        private int leavesWithExtraKey;
+
+        private BulkLoader(BTree<T> tree, double fillFactor) {
+            if (!(fillFactor > 0 && fillFactor <= 1)) {
+                throw new IllegalArgumentException("Fill factor must be in the range (0, 1]: " + fillFactor);
+            }
+            this.tree = tree;
+            int target = (int) Math.round(fillFactor * tree.maxKeySize);
+            this.targetKeySize = Math.max(Math.max(1, tree.minKeySize()), Math.min(target, tree.maxKeySize));
+        }
 
+        private void load(Iterator<? extends T> values, int numberOfValues) {
+            this.values = values;
+            if (numberOfValues == 0) {
+                return;
+            }
+            // the keys of n values in L leaves are spread as n - (L - 1) leaf keys and L - 1 separators
+            int numberOfLeaves = numberOfValues <= tree.maxKeySize ? 1 : nodesFor(numberOfValues + 1);
+            leafKeySize = (numberOfValues + 1) / numberOfLeaves - 1;
+            leavesWithExtraKey = (numberOfValues + 1) % numberOfLeaves;
+
+            List<Node<T>> level = new ArrayList<>(numberOfLeaves);
+            for (int leaf = 0; leaf < numberOfLeaves; leaf++) {
+                level.add(new Node<>(tree.maxChildrenSize, true, tree.owner));
+            }
+            while (level.size() > 1) {
+                int numberOfChildren = level.size();
+                int numberOfParents = numberOfChildren <= tree.maxChildrenSize ? 1 : nodesFor(numberOfChildren);
+                List<Node<T>> parents = new ArrayList<>(numberOfParents);
+                int childIndex = 0;
+                for (int parentIndex = 0; parentIndex < numberOfParents; parentIndex++) {
+                    Node<T> parent = new Node<>(tree.maxChildrenSize, false, tree.owner);
+                    int childrenSize = numberOfChildren / numberOfParents
+                            + (parentIndex < numberOfChildren % numberOfParents ? 1 : 0);
+                    for (int position = 0; position < childrenSize; position++) {
+                        parent.children[position] = level.get(childIndex++);
+                    }
+                    // the keys between the children are poured in by fill
+                    parent.keySize = childrenSize - 1;
+                    parents.add(parent);
+                }
+                level = parents;
+            }
+            tree.root = level.get(0);
+            fill(tree.root);
+            tree.size = numberOfValues;
+            if (values.hasNext()) {
+                throw new IllegalArgumentException("More values than the declared size were supplied");
+            }
+        }
+
+        /* number of nodes to share 'slots' (keys + 1 each) between, closest to the
+        target fill while keeping every node between the min and max key sizes */
+        private int nodesFor(int slots) {
+            int fewest = (slots + tree.maxKeySize) / (tree.maxKeySize + 1);
+            int most = slots / (tree.minKeySize() + 1);
+            int target = (int) Math.round((double) slots / (targetKeySize + 1));
+            return Math.max(fewest, Math.min(target, most));
+        }
+
+        private void fill(Node<T> node) {
+            if (node.isLeaf()) {
+                int keySize = leafKeySize + (leafIndex++ < leavesWithExtraKey ? 1 : 0);
+                for (int keyIndex = 0; keyIndex < keySize; keyIndex++) {
+                    node.keys[keyIndex] = next();
+                }
+                node.keySize = keySize;
+                node.count = keySize;
+                return;
+            }
+            int count = 0;
+            int last = node.keySize;
+            for (int childIndex = 0; childIndex <= last; childIndex++) {
+                Node<T> child = node.children[childIndex];
+                fill(child);
+                count += child.count;
+                if (childIndex < last) {
+                    node.keys[childIndex] = next();
+                    count++;
+                }
+            }
+            node.count = count;
+        }
+
+        private T next() {
+            if (!values.hasNext()) {
+                throw new IllegalArgumentException("Fewer values than the declared size were supplied");
+            }
+            T value = values.next();
+            if (previous != null && compare(previous, value, tree.comparator) > 0) {
+                throw new IllegalArgumentException("Values are not sorted: " + value + " after " + previous);
+            }
+            previous = value;
+            return value;
+        }
     }
 
     private static class TreePrinter {
 
         public static <T extends Comparable<T>> String getString(BTree<T> tree) {
-            return getString(tree.root, "");
+            if (tree.root == null) {
+                return "└── keys:() parent:() keySize=0 children=0\n";
+            }
+            return getString(tree.root, null, "");
         }
 
-        private static <T extends Comparable<T>> String getString(
-                Node<T> node, String prefix) {
+        private static <T> String getString(Node<T> node, Node<T> parent, String prefix) {
             StringBuilder builder = new StringBuilder();
             builder.append(prefix).append("└── ");
 
-            builder.append(node.toString());
+            builder.append(node.toString(parent));
             builder.append("\n");
 
-            node.children
-                    .forEach(child -> builder.append(getString(child, prefix + "    ")));
+            for (int childIndex = 0; !node.isLeaf() && childIndex <= node.keySize; childIndex++) {
+                builder.append(getString(node.children[childIndex], node, prefix + "    "));
+            }
 
             return builder.toString();
         }
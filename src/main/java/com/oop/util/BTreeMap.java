@@ -0,0 +1,525 @@
+package com.oop.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/* Sorted map kept in a BTree of key-value entries ordered by key. A new value for an
+   existing key is stored in its entry, so put, merge and the compute methods only
+   change the tree when a key is added or removed. Range and descending views are maps
+   over the matching views of the entry tree, and write through to it. */
+public class BTreeMap<K, V> extends AbstractMap<K, V> implements NavigableMap<K, V> {
+    private final NavigableSet<Entry<K, V>> entries;
+    // ordering of this view, null for the natural ordering of the keys
+    private final Comparator<? super K> comparator;
+
+    public BTreeMap() {
+        this(new BTree<>(), null);
+    }
+
+    public BTreeMap(Comparator<? super K> comparator) {
+        this(new BTree<>(entryComparator(comparator)), comparator);
+    }
+
+    public BTreeMap(int order) {
+        this(new BTree<>(order), null);
+    }
+
+    public BTreeMap(int order, Comparator<? super K> comparator) {
+        this(new BTree<>(order, entryComparator(comparator)), comparator);
+    }
+
+    private BTreeMap(NavigableSet<Entry<K, V>> entries, Comparator<? super K> comparator) {
+        this.entries = entries;
+        this.comparator = comparator;
+    }
+
+    private static <K, V> Comparator<Entry<K, V>> entryComparator(Comparator<? super K> comparator) {
+        return comparator == null ? null : (e1, e2) -> comparator.compare(e1.key, e2.key);
+    }
+
+    private int compare(Object k1, Object k2) {
+        return comparator == null ? ((Comparable) k1).compareTo(k2) : comparator.compare((K) k1, (K) k2);
+    }
+
+    // entry with a key equal to 'key', null when there is none
+    private Entry<K, V> find(Object key) {
+        Objects.requireNonNull(key);
+        Entry<K, V> entry = entries.ceiling(probe(key));
+        return entry != null && compare(entry.key, key) == 0 ? entry : null;
+    }
+
+    // entry only used to position a search at 'key'
+    private static <K, V> Entry<K, V> probe(Object key) {
+        return new Entry<>((K) key, null);
+    }
+
+    @Override
+    public V get(Object key) {
+        Entry<K, V> entry = find(key);
+        return entry == null ? null : entry.value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return find(key) != null;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        // a key of the wrong type fails here, even on an empty map
+        compare(key, key);
+        Entry<K, V> entry = find(key);
+        if (entry != null) {
+            return entry.setValue(value);
+        }
+        entries.add(new Entry<>(key, value));
+        return null;
+    }
+
+    @Override
+    public V remove(Object key) {
+        Entry<K, V> entry = find(key);
+        if (entry == null) {
+            return null;
+        }
+        entries.remove(entry);
+        return entry.value;
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        Objects.requireNonNull(mappingFunction);
+        Entry<K, V> entry = find(key);
+        if (entry != null && entry.value != null) {
+            return entry.value;
+        }
+        V value = mappingFunction.apply(key);
+        if (value != null) {
+            store(key, entry, value);
+        }
+        return value;
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(remappingFunction);
+        Entry<K, V> entry = find(key);
+        if (entry == null || entry.value == null) {
+            return null;
+        }
+        return replaceOrRemove(entry, remappingFunction.apply(key, entry.value));
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(remappingFunction);
+        Entry<K, V> entry = find(key);
+        V value = remappingFunction.apply(key, entry == null ? null : entry.value);
+        if (entry != null) {
+            return replaceOrRemove(entry, value);
+        }
+        if (value != null) {
+            store(key, null, value);
+        }
+        return value;
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(value);
+        Objects.requireNonNull(remappingFunction);
+        Entry<K, V> entry = find(key);
+        if (entry == null || entry.value == null) {
+            store(key, entry, value);
+            return value;
+        }
+        return replaceOrRemove(entry, remappingFunction.apply(entry.value, value));
+    }
+
+    // To set the value of 'entry', or add an entry for 'key' when there is none
+    private void store(K key, Entry<K, V> entry, V value) {
+        if (entry != null) {
+            entry.value = value;
+        } else {
+            entries.add(new Entry<>(key, value));
+        }
+    }
+
+    // To set the value of 'entry', removing it from the map when 'value' is null
+    private V replaceOrRemove(Entry<K, V> entry, V value) {
+        if (value == null) {
+            entries.remove(entry);
+        } else {
+            entry.value = value;
+        }
+        return value;
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+    }
+
+    /* entries iterate in key order and write a new value through to the map; the iterator
+    removes the last returned entry from the tree by its position */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<Map.Entry<K, V>>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return (Iterator) entries.iterator();
+            }
+
+            @Override
+            public int size() {
+                return entries.size();
+            }
+        };
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return comparator;
+    }
+
+    @Override
+    public Map.Entry<K, V> lowerEntry(K key) {
+        return snapshot(entries.lower(probe(key)));
+    }
+
+    @Override
+    public K lowerKey(K key) {
+        return keyOf(entries.lower(probe(key)));
+    }
+
+    @Override
+    public Map.Entry<K, V> floorEntry(K key) {
+        return snapshot(entries.floor(probe(key)));
+    }
+
+    @Override
+    public K floorKey(K key) {
+        return keyOf(entries.floor(probe(key)));
+    }
+
+    @Override
+    public Map.Entry<K, V> ceilingEntry(K key) {
+        return snapshot(entries.ceiling(probe(key)));
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+        return keyOf(entries.ceiling(probe(key)));
+    }
+
+    @Override
+    public Map.Entry<K, V> higherEntry(K key) {
+        return snapshot(entries.higher(probe(key)));
+    }
+
+    @Override
+    public K higherKey(K key) {
+        return keyOf(entries.higher(probe(key)));
+    }
+
+    @Override
+    public Map.Entry<K, V> firstEntry() {
+        return isEmpty() ? null : snapshot(entries.first());
+    }
+
+    @Override
+    public Map.Entry<K, V> lastEntry() {
+        return isEmpty() ? null : snapshot(entries.last());
+    }
+
+    @Override
+    public Map.Entry<K, V> pollFirstEntry() {
+        return snapshot(entries.pollFirst());
+    }
+
+    @Override
+    public Map.Entry<K, V> pollLastEntry() {
+        return snapshot(entries.pollLast());
+    }
+
+    @Override
+    public K firstKey() {
+        return entries.first().key;
+    }
+
+    @Override
+    public K lastKey() {
+        return entries.last().key;
+    }
+
+    // entries handed out by navigation are fixed copies, as in java.util.TreeMap
+    private static <K, V> Map.Entry<K, V> snapshot(Entry<K, V> entry) {
+        return entry == null ? null : new AbstractMap.SimpleImmutableEntry<>(entry.key, entry.value);
+    }
+
+    private static <K> K keyOf(Entry<K, ?> entry) {
+        return entry == null ? null : entry.key;
+    }
+
+    @Override
+    public NavigableMap<K, V> descendingMap() {
+        return new BTreeMap<>(entries.descendingSet(), Collections.reverseOrder(comparator));
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+        return new KeySet<>(this);
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+        return descendingMap().navigableKeySet();
+    }
+
+    @Override
+    public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        return new BTreeMap<>(entries.subSet(probe(fromKey), fromInclusive, probe(toKey), toInclusive), comparator);
+    }
+
+    @Override
+    public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+        return new BTreeMap<>(entries.headSet(probe(toKey), inclusive), comparator);
+    }
+
+    @Override
+    public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        return new BTreeMap<>(entries.tailSet(probe(fromKey), inclusive), comparator);
+    }
+
+    @Override
+    public SortedMap<K, V> subMap(K fromKey, K toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(K toKey) {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(K fromKey) {
+        return tailMap(fromKey, true);
+    }
+
+    /* Key with a value slot that can be replaced in place; entries order by key, the
+    natural ordering through compareTo and any other through the tree's comparator */
+    private static final class Entry<K, V> implements Map.Entry<K, V>, Comparable<Entry<K, V>> {
+        private final K key;
+        private V value;
+
+        private Entry(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            V oldValue = this.value;
+            this.value = value;
+            return oldValue;
+        }
+
+        @Override
+        public int compareTo(Entry<K, V> entry) {
+            return ((Comparable) key).compareTo(entry.key);
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) object;
+            return Objects.equals(key, entry.getKey()) && Objects.equals(value, entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    // Keys of a map, navigating and taking range views through the map
+    private static final class KeySet<K> extends AbstractSet<K> implements NavigableSet<K> {
+        private final BTreeMap<K, ?> map;
+
+        private KeySet(BTreeMap<K, ?> map) {
+            this.map = map;
+        }
+
+        @Override
+        public Iterator<K> iterator() {
+            Iterator<? extends Map.Entry<K, ?>> entryIterator = map.entries.iterator();
+            return new Iterator<K>() {
+                @Override
+                public boolean hasNext() {
+                    return entryIterator.hasNext();
+                }
+
+                @Override
+                public K next() {
+                    return entryIterator.next().getKey();
+                }
+
+                @Override
+                public void remove() {
+                    entryIterator.remove();
+                }
+            };
+        }
+
+        @Override
+        public Iterator<K> descendingIterator() {
+            return descendingSet().iterator();
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            return map.containsKey(key);
+        }
+
+        @Override
+        public boolean remove(Object key) {
+            Entry<K, ?> entry = map.find(key);
+            return entry != null && map.entries.remove(entry);
+        }
+
+        @Override
+        public void clear() {
+            map.clear();
+        }
+
+        @Override
+        public K lower(K key) {
+            return map.lowerKey(key);
+        }
+
+        @Override
+        public K floor(K key) {
+            return map.floorKey(key);
+        }
+
+        @Override
+        public K ceiling(K key) {
+            return map.ceilingKey(key);
+        }
+
+        @Override
+        public K higher(K key) {
+            return map.higherKey(key);
+        }
+
+        @Override
+        public K first() {
+            return map.firstKey();
+        }
+
+        @Override
+        public K last() {
+            return map.lastKey();
+        }
+
+        @Override
+        public K pollFirst() {
+            return keyOf(map.entries.pollFirst());
+        }
+
+        @Override
+        public K pollLast() {
+            return keyOf(map.entries.pollLast());
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return map.comparator();
+        }
+
+        @Override
+        public NavigableSet<K> descendingSet() {
+            return map.descendingMap().navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<K> subSet(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+            return map.subMap(fromKey, fromInclusive, toKey, toInclusive).navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<K> headSet(K toKey, boolean inclusive) {
+            return map.headMap(toKey, inclusive).navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<K> tailSet(K fromKey, boolean inclusive) {
+            return map.tailMap(fromKey, inclusive).navigableKeySet();
+        }
+
+        @Override
+        public SortedSet<K> subSet(K fromKey, K toKey) {
+            return subSet(fromKey, true, toKey, false);
+        }
+
+        @Override
+        public SortedSet<K> headSet(K toKey) {
+            return headSet(toKey, false);
+        }
+
+        @Override
+        public SortedSet<K> tailSet(K fromKey) {
+            return tailSet(fromKey, true);
+        }
+    }
+}
@@ -0,0 +1,611 @@
+package com.oop.util;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+import static com.oop.util.BTree.compare;
+import static com.oop.util.BTree.lowerBound;
+import static com.oop.util.BTree.upperBound;
+
+/* Insert-optimised B+-Tree in the manner of a Bε-tree: every inner node carries a
+   buffer of pending insert and delete messages. An update only lands in the root's
+   buffer; once a buffer holds more than 'bufferSize' messages, they all move down, one
+   batch per child, into the child's buffer or, for a leaf, merged into its keys in a
+   single pass. A descent and any splits it causes are so shared by a whole batch of
+   updates instead of paid per update.
+
+   Lookups, iteration and positional access add up the messages pending along the path
+   to a leaf. Keys equal to each other are always kept in the same leaf, so that every
+   message for a key travels the one path to it; duplicates are kept, as in BTree. As in
+   ConcurrentBTree, removals leave nodes underfull instead of merging them. */
+public class BufferedBTree<T extends Comparable<T>> extends AbstractCollection<T> implements Tree<T> {
+    private static final int DEFAULT_ORDER = 16;
+    private static final int DEFAULT_BUFFER_SIZE = 256;
+
+    // keys per leaf and separators per inner node, which has one child more
+    private final int maxKeySize;
+    // messages an inner node holds before it flushes them to its children
+    private final int bufferSize;
+    private final Comparator<T> comparator;
+
+    private Node root;
+    private int size = 0;
+
+    public BufferedBTree() {
+        this(DEFAULT_ORDER, DEFAULT_BUFFER_SIZE, null);
+    }
+
+    public BufferedBTree(Comparator<T> comparator) {
+        this(DEFAULT_ORDER, DEFAULT_BUFFER_SIZE, comparator);
+    }
+
+    public BufferedBTree(int order) {
+        this(order, DEFAULT_BUFFER_SIZE, null);
+    }
+
+    /* @param order      - maximum number of children per node
+      @param bufferSize - pending messages per inner node before a flush, larger buffers
+                          batch more updates per descent at the cost of slower lookups */
+    public BufferedBTree(int order, int bufferSize, Comparator<T> comparator) {
+        if (order < 3) {
+            throw new IllegalArgumentException("Order of a BTree must be at least 3: " + order);
+        }
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("Buffer size must be at least 1: " + bufferSize);
+        }
+        this.maxKeySize = order - 1;
+        this.bufferSize = bufferSize;
+        this.comparator = comparator;
+        this.root = new Node(order, true);
+    }
+
+    @Override
+    public boolean add(T value) {
+        Objects.requireNonNull(value);
+        update(value, false);
+        size++;
+        return true;
+    }
+
+    /* a delete message is only sent for a key that is present, so the result is known
+    up front and every pending delete finds a key equal to it once it reaches a leaf */
+    @Override
+    public boolean remove(Object value) {
+        if (value == null || !contains(value)) {
+            return false;
+        }
+        update(value, true);
+        size--;
+        return true;
+    }
+
+    private void update(Object value, boolean delete) {
+        if (root.isLeaf()) {
+            if (delete) {
+                root.removeKey(lowerBound(root.keys, root.keySize, value, comparator));
+            } else {
+                root.insertKey(upperBound(root.keys, root.keySize, value, comparator), value);
+            }
+            root.count = root.keySize;
+        } else {
+            root.addMessage(value, delete, comparator);
+            root.count += delete ? -1 : 1;
+            if (root.messageSize > bufferSize) {
+                flush(root);
+            }
+        }
+        growRoot();
+    }
+
+    // To put new roots above the root for as long as it overflows
+    private void growRoot() {
+        while (isOverflowing(root)) {
+            Node newRoot = new Node(maxKeySize + 1, false);
+            newRoot.children[0] = root;
+            newRoot.count = root.count;
+            if (!splitChildren(newRoot, 0)) {
+                // a root leaf of equal keys only
+                return;
+            }
+            root = newRoot;
+        }
+    }
+
+    /* To move every message of 'node' down, as one batch per child; the children are
+    taken right to left, so that a split only shifts the children already done */
+    private void flush(Node node) {
+        for (int childIndex = node.keySize, to = node.messageSize; childIndex >= 0 && to > 0; childIndex--) {
+            int from = messageBoundary(node, childIndex);
+            if (from == to) {
+                continue;
+            }
+            Node child = node.children[childIndex];
+            if (child.isLeaf()) {
+                Object[] keys = merge(child.keys, child.keySize, node, from, to, comparator);
+                child.keys = keys;
+                child.keySize = keys.length;
+                child.count = keys.length;
+            } else {
+                for (int index = from; index < to; index++) {
+                    child.addMessage(node.messages[index], node.deletes[index], comparator);
+                }
+                child.count += node.net(from, to);
+                if (child.messageSize > bufferSize) {
+                    flush(child);
+                }
+            }
+            node.removeMessages(from, to);
+            splitChildren(node, childIndex);
+            to = from;
+        }
+    }
+
+    // To apply every pending message to the leaves, e.g. ahead of a long read-only phase
+    public void flush() {
+        if (!root.isLeaf()) {
+            flushAll(root);
+            growRoot();
+        }
+    }
+
+    private void flushAll(Node node) {
+        flush(node);
+        if (!node.children[0].isLeaf()) {
+            for (int childIndex = node.keySize; childIndex >= 0; childIndex--) {
+                flushAll(node.children[childIndex]);
+                splitChildren(node, childIndex);
+            }
+        }
+    }
+
+    private boolean isOverflowing(Node node) {
+        return node.keySize > maxKeySize;
+    }
+
+    /* To split the child at 'childIndex' and the nodes split off it until none of them
+    overflows, a batch can overflow a child several times over
+      @return whether any child was split */
+    private boolean splitChildren(Node parent, int childIndex) {
+        boolean split = false;
+        int last = childIndex;
+        for (int index = childIndex; index <= last; ) {
+            if (isOverflowing(parent.children[index]) && splitChild(parent, index)) {
+                split = true;
+                last++;
+            } else {
+                index++;
+            }
+        }
+        return split;
+    }
+
+    /* To split the child at 'childIndex' in two; a leaf is split between two different
+    keys nearest its middle and puts the first key on the right into 'parent', an inner
+    node moves its median separator there and splits its buffer along it
+      @return false for a leaf of equal keys only, which is left as it is */
+    private boolean splitChild(Node parent, int childIndex) {
+        Node left = parent.children[childIndex];
+        Node right;
+        Object separator;
+        if (left.isLeaf()) {
+            int splitIndex = leafSplitIndex(left);
+            if (splitIndex < 0) {
+                return false;
+            }
+            separator = left.keys[splitIndex];
+            right = new Node(maxKeySize + 1, true);
+            right.keys = Arrays.copyOfRange(left.keys, splitIndex, Math.max(left.keySize, splitIndex + maxKeySize + 1));
+            right.keySize = left.keySize - splitIndex;
+            right.count = right.keySize;
+            Arrays.fill(left.keys, splitIndex, left.keySize, null);
+            left.keySize = splitIndex;
+            left.count = splitIndex;
+        } else {
+            int medianIndex = left.keySize / 2;
+            separator = left.keys[medianIndex];
+            right = new Node(Math.max(maxKeySize + 1, left.keySize - medianIndex), false);
+            right.keySize = left.keySize - medianIndex - 1;
+            System.arraycopy(left.keys, medianIndex + 1, right.keys, 0, right.keySize);
+            System.arraycopy(left.children, medianIndex + 1, right.children, 0, right.keySize + 1);
+            Arrays.fill(left.keys, medianIndex, left.keySize, null);
+            Arrays.fill(left.children, medianIndex + 1, left.keySize + 1, null);
+            left.keySize = medianIndex;
+
+            // messages from the separator on are bound for the right node
+            int messageIndex = lowerBound(left.messages, left.messageSize, separator, comparator);
+            right.ensureMessageCapacity(left.messageSize - messageIndex);
+            System.arraycopy(left.messages, messageIndex, right.messages, 0, left.messageSize - messageIndex);
+            System.arraycopy(left.deletes, messageIndex, right.deletes, 0, left.messageSize - messageIndex);
+            right.messageSize = left.messageSize - messageIndex;
+            left.removeMessages(messageIndex, left.messageSize);
+            left.count = left.countKeys();
+            right.count = right.countKeys();
+        }
+        parent.insertChild(childIndex, separator, right);
+        return true;
+    }
+
+    // index nearest the middle of 'leaf' where a key differs from the one before it, -1 for none
+    private int leafSplitIndex(Node leaf) {
+        int middle = leaf.keySize / 2;
+        for (int distance = 0; distance <= middle; distance++) {
+            int below = middle - distance;
+            if (below > 0 && compare(leaf.keys[below - 1], leaf.keys[below], comparator) < 0) {
+                return below;
+            }
+            int above = middle + distance;
+            if (above < leaf.keySize && above > 0 && compare(leaf.keys[above - 1], leaf.keys[above], comparator) < 0) {
+                return above;
+            }
+        }
+        return -1;
+    }
+
+    /* keys[0, keySize) with the messages [from, to) of 'node' applied in order, as a new
+    array; all messages for one key are deletes followed by inserts, so the deletes take
+    keys already there and the inserts are placed after the equal keys left */
+    private static Object[] merge(Object[] keys, int keySize, Node node, int from, int to,
+                                  Comparator comparator) {
+        int inserts = (to - from + node.net(from, to)) / 2;
+        Object[] merged = new Object[keySize + inserts];
+        int mergedSize = 0;
+        int keyIndex = 0;
+        for (int messageIndex = from; messageIndex < to; messageIndex++) {
+            Object value = node.messages[messageIndex];
+            while (keyIndex < keySize && compare(keys[keyIndex], value, comparator) <= 0) {
+                merged[mergedSize++] = keys[keyIndex++];
+            }
+            if (!node.deletes[messageIndex]) {
+                merged[mergedSize++] = value;
+            } else if (mergedSize > 0 && compare(merged[mergedSize - 1], value, comparator) == 0) {
+                merged[--mergedSize] = null;
+            } else {
+                throw new IllegalStateException("Pending delete without a key equal to " + value);
+            }
+        }
+        System.arraycopy(keys, keyIndex, merged, mergedSize, keySize - keyIndex);
+        mergedSize += keySize - keyIndex;
+        return mergedSize == merged.length ? merged : Arrays.copyOf(merged, mergedSize);
+    }
+
+    /* index of the first message of 'node' bound for the child at 'childIndex', the
+    message count for the one past the last child */
+    private int messageBoundary(Node node, int childIndex) {
+        if (childIndex == 0) {
+            return 0;
+        }
+        if (childIndex > node.keySize) {
+            return node.messageSize;
+        }
+        return lowerBound(node.messages, node.messageSize, node.keys[childIndex - 1], comparator);
+    }
+
+    /* keys of 'leaf' with the messages still pending for it in the buffers along
+    path[0, depth], applied from the deepest buffer, which holds the oldest ones */
+    private Object[] pendingKeys(Node leaf, Node[] path, int[] childIndexPath, int depth) {
+        // the separators nearest the leaf on either side, null where the leaf is outermost
+        Object lower = null;
+        Object upper = null;
+        for (int level = 0; level <= depth; level++) {
+            int childIndex = childIndexPath[level];
+            if (childIndex > 0) {
+                lower = path[level].keys[childIndex - 1];
+            }
+            if (childIndex < path[level].keySize) {
+                upper = path[level].keys[childIndex];
+            }
+        }
+        Object[] keys = Arrays.copyOf(leaf.keys, leaf.keySize);
+        for (int level = depth; level >= 0; level--) {
+            Node node = path[level];
+            int from = messageIndex(node, lower, 0);
+            int to = messageIndex(node, upper, node.messageSize);
+            if (from < to) {
+                keys = merge(keys, keys.length, node, from, to, comparator);
+            }
+        }
+        return keys;
+    }
+
+    @Override
+    public void clear() {
+        root = new Node(maxKeySize + 1, true);
+        size = 0;
+    }
+
+    // number of keys equal to 'value' in the leaf it belongs to, plus the net of the messages on the way there
+    @Override
+    public boolean contains(Object value) {
+        if (value == null) {
+            return false;
+        }
+        int count = 0;
+        Node node = root;
+        while (!node.isLeaf()) {
+            int from = lowerBound(node.messages, node.messageSize, value, comparator);
+            int to = upperBound(node.messages, node.messageSize, value, comparator);
+            count += node.net(from, to);
+            node = node.children[upperBound(node.keys, node.keySize, value, comparator)];
+        }
+        count += upperBound(node.keys, node.keySize, value, comparator)
+                - lowerBound(node.keys, node.keySize, value, comparator);
+        return count > 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public T elementAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return new LeafIterator(index).next();
+    }
+
+    // inserts less deletes pending in the buffers along path[0, depth] for keys in ['lower', 'upper')
+    private int pendingNet(Node[] path, int depth, Object lower, Object upper) {
+        int net = 0;
+        for (int level = 0; level <= depth; level++) {
+            Node node = path[level];
+            net += node.net(messageIndex(node, lower, 0), messageIndex(node, upper, node.messageSize));
+        }
+        return net;
+    }
+
+    // index of the first message of 'node' not less than 'bound', 'unbounded' for a null bound
+    private int messageIndex(Node node, Object bound, int unbounded) {
+        return bound == null ? unbounded : lowerBound(node.messages, node.messageSize, bound, comparator);
+    }
+
+    private int height() {
+        int height = 0;
+        for (Node node = root; !node.isLeaf(); node = node.children[0]) {
+            height++;
+        }
+        return height;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new LeafIterator(0);
+    }
+
+    /* iterates the leaves left to right, each with the messages pending for it applied;
+    remove() sends a delete message for the last returned key, which as for remove(Object)
+    takes a key equal to it, and then finds the next key again by its position, as the
+    message may have set off a flush that reshaped the path */
+    private final class LeafIterator implements Iterator<T> {
+        private Node[] nodePath;
+        private int[] childIndexPath;
+        private int depth = -1;
+        private Object[] leafKeys;
+        private int keyIndex;
+        // positions of the next key and of the last returned one, -1 when there is none to remove
+        private int nextIndex;
+        private int lastIndex = -1;
+        private T lastKey;
+
+        private LeafIterator(int index) {
+            seekAt(index);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return leafKeys != null;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T resultKey = (T) leafKeys[keyIndex];
+            lastKey = resultKey;
+            lastIndex = nextIndex++;
+            if (++keyIndex == leafKeys.length) {
+                nextLeaf();
+            }
+            return resultKey;
+        }
+
+        @Override
+        public void remove() {
+            if (lastIndex < 0) {
+                throw new IllegalStateException();
+            }
+            BufferedBTree.this.remove(lastKey);
+            seekAt(lastIndex);
+            lastIndex = -1;
+            lastKey = null;
+        }
+
+        // To descend to the key at position 'index' counting the pending messages, none past the last key
+        private void seekAt(int index) {
+            nextIndex = index;
+            int height = height();
+            nodePath = new Node[height];
+            childIndexPath = new int[height];
+            depth = -1;
+            leafKeys = null;
+            if (index >= size) {
+                return;
+            }
+            // the separators around the subtree of 'node', null where it is outermost
+            Object lower = null;
+            Object upper = null;
+            Node node = root;
+            while (!node.isLeaf()) {
+                depth++;
+                nodePath[depth] = node;
+                // a child holds its own keys and the messages bound for it on the path down to it
+                int childIndex = 0;
+                while (true) {
+                    Object childLower = childIndex > 0 ? node.keys[childIndex - 1] : lower;
+                    Object childUpper = childIndex < node.keySize ? node.keys[childIndex] : upper;
+                    int childCount = node.children[childIndex].count
+                            + pendingNet(nodePath, depth, childLower, childUpper);
+                    if (index < childCount) {
+                        lower = childLower;
+                        upper = childUpper;
+                        break;
+                    }
+                    index -= childCount;
+                    childIndex++;
+                }
+                childIndexPath[depth] = childIndex;
+                node = node.children[childIndex];
+            }
+            leafKeys = pendingKeys(node, nodePath, childIndexPath, depth);
+            keyIndex = index;
+        }
+
+        // To climb to the nearest inner node with a child right of the path and descend from there
+        private void nextLeaf() {
+            while (depth >= 0 && childIndexPath[depth] == nodePath[depth].keySize) {
+                depth--;
+            }
+            leafKeys = null;
+            if (depth >= 0) {
+                pushLeftPath(nodePath[depth].children[++childIndexPath[depth]]);
+            }
+        }
+
+        // leaves left empty by removals are passed over
+        private void pushLeftPath(Node node) {
+            while (true) {
+                while (!node.isLeaf()) {
+                    depth++;
+                    nodePath[depth] = node;
+                    childIndexPath[depth] = 0;
+                    node = node.children[0];
+                }
+                leafKeys = pendingKeys(node, nodePath, childIndexPath, depth);
+                keyIndex = 0;
+                if (leafKeys.length > 0) {
+                    return;
+                }
+                while (depth >= 0 && childIndexPath[depth] == nodePath[depth].keySize) {
+                    depth--;
+                }
+                if (depth < 0) {
+                    leafKeys = null;
+                    return;
+                }
+                node = nodePath[depth].children[++childIndexPath[depth]];
+            }
+        }
+    }
+
+    private static final class Node {
+        // keys of a leaf, separators of an inner node; grown past the order when needed
+        private Object[] keys;
+        // null for a leaf
+        private Node[] children;
+        private int keySize;
+        /* pending messages of an inner node sorted by key, and whether each is a delete;
+        the messages for one key are the deletes followed by the inserts */
+        private Object[] messages;
+        private boolean[] deletes;
+        private int messageSize;
+        // number of keys in the subtree, counting the messages pending in it
+        private int count;
+
+        private Node(int order, boolean leaf) {
+            this.keys = new Object[order];
+            if (!leaf) {
+                this.children = new Node[order + 1];
+                this.messages = new Object[order];
+                this.deletes = new boolean[order];
+            }
+        }
+
+        private boolean isLeaf() {
+            return children == null;
+        }
+
+        private void insertKey(int keyIndex, Object value) {
+            if (keySize == keys.length) {
+                keys = Arrays.copyOf(keys, Math.max(4, keySize * 2));
+            }
+            System.arraycopy(keys, keyIndex, keys, keyIndex + 1, keySize - keyIndex);
+            keys[keyIndex] = value;
+            keySize++;
+        }
+
+        private void removeKey(int keyIndex) {
+            System.arraycopy(keys, keyIndex + 1, keys, keyIndex, keySize - keyIndex - 1);
+            keys[--keySize] = null;
+        }
+
+        // To add 'child' right of the child at 'childIndex', with 'separator' between the two
+        private void insertChild(int childIndex, Object separator, Node child) {
+            if (keySize + 2 > children.length) {
+                children = Arrays.copyOf(children, children.length * 2);
+            }
+            insertKey(childIndex, separator);
+            System.arraycopy(children, childIndex + 1, children, childIndex + 2, keySize - childIndex - 1);
+            children[childIndex + 1] = child;
+        }
+
+        /* To add a message after those for equal keys; a delete cancels out with a
+        pending insert of an equal key instead */
+        private void addMessage(Object value, boolean delete, Comparator comparator) {
+            int messageIndex = upperBound(messages, messageSize, value, comparator);
+            if (delete && messageIndex > 0 && !deletes[messageIndex - 1]
+                    && compare(messages[messageIndex - 1], value, comparator) == 0) {
+                removeMessages(messageIndex - 1, messageIndex);
+                return;
+            }
+            ensureMessageCapacity(messageSize + 1);
+            System.arraycopy(messages, messageIndex, messages, messageIndex + 1, messageSize - messageIndex);
+            System.arraycopy(deletes, messageIndex, deletes, messageIndex + 1, messageSize - messageIndex);
+            messages[messageIndex] = value;
+            deletes[messageIndex] = delete;
+            messageSize++;
+        }
+
+        private void removeMessages(int from, int to) {
+            System.arraycopy(messages, to, messages, from, messageSize - to);
+            System.arraycopy(deletes, to, deletes, from, messageSize - to);
+            Arrays.fill(messages, messageSize - (to - from), messageSize, null);
+            messageSize -= to - from;
+        }
+
+        private void ensureMessageCapacity(int capacity) {
+            if (messages.length < capacity) {
+                int grown = Math.max(capacity, messages.length * 2);
+                messages = Arrays.copyOf(messages, grown);
+                deletes = Arrays.copyOf(deletes, grown);
+            }
+        }
+
+        // inserts less deletes among the messages [from, to)
+        private int net(int from, int to) {
+            int net = 0;
+            for (int messageIndex = from; messageIndex < to; messageIndex++) {
+                net += deletes[messageIndex] ? -1 : 1;
+            }
+            return net;
+        }
+
+        private int countKeys() {
+            int count = net(0, messageSize);
+            for (int childIndex = 0; childIndex <= keySize; childIndex++) {
+                count += children[childIndex].count;
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,477 @@
+package com.oop.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractCollection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/* Thread-safe B-Tree using optimistic lock coupling. Every node carries a version
+   word: readers descend without taking any lock and validate the versions they
+   read, restarting when a writer got in between; writers lock only the leaf they
+   change, or a full node and its parent while splitting it on the way down.
+
+   Keys live in the leaves and inner nodes hold separator copies, leaves are linked
+   to their right sibling for scans. Unlike BTree, equal keys are stored once, and
+   removals leave nodes underfull instead of merging them, so nodes are never retired
+   while a reader may still be on them. Iteration and elementAt are weakly consistent.
+   clear() starts a new generation, a fresh root with a key count of its own, so that a
+   writer still at work in the old tree only ever counts its key there. */
+public class ConcurrentBTree<T extends Comparable<T>> extends AbstractCollection<T> implements Tree<T> {
+    private static final VarHandle VERSION;
+
+    static {
+        try {
+            VERSION = MethodHandles.lookup().findVarHandle(Node.class, "version", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // outcome of an operation that observed a concurrent change and has to start over
+    private static final int RESTART = -1;
+
+    // Defaulted to order 16, wider nodes keep the tree shallow and split less often
+    private static final int DEFAULT_ORDER = 16;
+
+    private final int maxKeySize;
+    private final Comparator<T> comparator;
+
+    private volatile Generation generation;
+
+    public ConcurrentBTree() {
+        this(DEFAULT_ORDER, null);
+    }
+
+    public ConcurrentBTree(Comparator<T> comparator) {
+        this(DEFAULT_ORDER, comparator);
+    }
+
+    public ConcurrentBTree(int order) {
+        this(order, null);
+    }
+
+    public ConcurrentBTree(int order, Comparator<T> comparator) {
+        if (order < 3) {
+            throw new IllegalArgumentException("Order of a BTree must be at least 3: " + order);
+        }
+        this.maxKeySize = order - 1;
+        this.comparator = comparator;
+        this.generation = new Generation(new Node(maxKeySize, true));
+    }
+
+    @Override
+    public boolean add(T value) {
+        Objects.requireNonNull(value);
+        while (true) {
+            Generation generation = this.generation;
+            int inserted = insert(generation, value);
+            if (inserted != RESTART) {
+                if (inserted == 1) {
+                    generation.size.increment();
+                }
+                return inserted == 1;
+            }
+        }
+    }
+
+    private int insert(Generation generation, T value) {
+        Node parent = null;
+        long parentVersion = 0;
+        Node node = generation.root;
+        long version = readLock(node);
+        if (node != generation.root) {
+            // the root was split between reading it and its version
+            return RESTART;
+        }
+        try {
+            while (true) {
+                if (node.keySize == maxKeySize) {
+                    /* a full node is split before descending below it, so that a split
+                    further down always finds room for the separator in its parent */
+                    if (parent != null && !upgrade(parent, parentVersion)) {
+                        return RESTART;
+                    }
+                    if (!upgrade(node, version)) {
+                        unlock(parent);
+                        return RESTART;
+                    }
+                    if (parent != null || node == generation.root) {
+                        split(generation, parent, node);
+                    }
+                    unlock(node);
+                    unlock(parent);
+                    return RESTART;
+                }
+                if (node.isLeaf()) {
+                    break;
+                }
+                Node child = node.children[childIndex(node, value)];
+                long childVersion = readLock(child);
+                if (!validate(node, version)) {
+                    return RESTART;
+                }
+                parent = node;
+                parentVersion = version;
+                node = child;
+                version = childVersion;
+            }
+        } catch (RuntimeException e) {
+            return restartOrRethrow(node, version, e);
+        }
+
+        // the leaf is locked in the version it had when it was reached from a valid parent
+        if (!upgrade(node, version)) {
+            return RESTART;
+        }
+        try {
+            int keyIndex = lowerBound(node, value);
+            if (keyIndex < node.keySize && compare(node.keys[keyIndex], value) == 0) {
+                return 0;
+            }
+            System.arraycopy(node.keys, keyIndex, node.keys, keyIndex + 1, node.keySize - keyIndex);
+            node.keys[keyIndex] = value;
+            node.keySize++;
+            return 1;
+        } finally {
+            unlock(node);
+        }
+    }
+
+    // To split a locked full node, moving its upper half into a new right sibling
+    private void split(Generation generation, Node parent, Node node) {
+        int medianIndex = node.keySize / 2;
+        Node right = new Node(maxKeySize, node.isLeaf());
+        Object separator;
+        if (node.isLeaf()) {
+            // the first key of the right leaf is copied up as the separator
+            right.keySize = node.keySize - medianIndex;
+            System.arraycopy(node.keys, medianIndex, right.keys, 0, right.keySize);
+            separator = right.keys[0];
+            right.next = node.next;
+            node.next = right;
+        } else {
+            // the median key of an inner node moves up as the separator
+            right.keySize = node.keySize - medianIndex - 1;
+            System.arraycopy(node.keys, medianIndex + 1, right.keys, 0, right.keySize);
+            System.arraycopy(node.children, medianIndex + 1, right.children, 0, right.keySize + 1);
+            for (int childIndex = medianIndex + 1; childIndex <= node.keySize; childIndex++) {
+                node.children[childIndex] = null;
+            }
+            separator = node.keys[medianIndex];
+        }
+        for (int keyIndex = medianIndex; keyIndex < node.keySize; keyIndex++) {
+            node.keys[keyIndex] = null;
+        }
+        node.keySize = medianIndex;
+
+        if (parent == null) {
+            // To create new root node, published only once it is complete
+            Node newRoot = new Node(maxKeySize, false);
+            newRoot.keys[0] = separator;
+            newRoot.children[0] = node;
+            newRoot.children[1] = right;
+            newRoot.keySize = 1;
+            generation.root = newRoot;
+        } else {
+            int childIndex = 0;
+            while (parent.children[childIndex] != node) {
+                childIndex++;
+            }
+            System.arraycopy(parent.keys, childIndex, parent.keys, childIndex + 1, parent.keySize - childIndex);
+            System.arraycopy(parent.children, childIndex + 1, parent.children, childIndex + 2,
+                    parent.keySize - childIndex);
+            parent.keys[childIndex] = separator;
+            parent.children[childIndex + 1] = right;
+            parent.keySize++;
+        }
+    }
+
+    @Override
+    public boolean remove(Object value) {
+        while (true) {
+            Generation generation = this.generation;
+            int removed = delete(generation, value);
+            if (removed != RESTART) {
+                if (removed == 1) {
+                    generation.size.decrement();
+                }
+                return removed == 1;
+            }
+        }
+    }
+
+    private int delete(Generation generation, Object value) {
+        Node node = generation.root;
+        long version = readLock(node);
+        if (node != generation.root) {
+            // the root was split between reading it and its version
+            return RESTART;
+        }
+        try {
+            while (!node.isLeaf()) {
+                Node child = node.children[childIndex(node, value)];
+                long childVersion = readLock(child);
+                if (!validate(node, version)) {
+                    return RESTART;
+                }
+                node = child;
+                version = childVersion;
+            }
+        } catch (RuntimeException e) {
+            return restartOrRethrow(node, version, e);
+        }
+
+        if (!upgrade(node, version)) {
+            return RESTART;
+        }
+        try {
+            int keyIndex = lowerBound(node, value);
+            if (keyIndex == node.keySize || compare(node.keys[keyIndex], value) != 0) {
+                return 0;
+            }
+            System.arraycopy(node.keys, keyIndex + 1, node.keys, keyIndex, node.keySize - keyIndex - 1);
+            node.keys[--node.keySize] = null;
+            return 1;
+        } finally {
+            unlock(node);
+        }
+    }
+
+    @Override
+    public void clear() {
+        // writers still in the old generation finish there, uncounted by the new one
+        generation = new Generation(new Node(maxKeySize, true));
+    }
+
+    @Override
+    public boolean contains(Object value) {
+        while (true) {
+            int found = lookup(generation, value);
+            if (found != RESTART) {
+                return found == 1;
+            }
+        }
+    }
+
+    private int lookup(Generation generation, Object value) {
+        Node node = generation.root;
+        long version = readLock(node);
+        if (node != generation.root) {
+            // the root was split between reading it and its version
+            return RESTART;
+        }
+        try {
+            while (!node.isLeaf()) {
+                Node child = node.children[childIndex(node, value)];
+                long childVersion = readLock(child);
+                if (!validate(node, version)) {
+                    return RESTART;
+                }
+                node = child;
+                version = childVersion;
+            }
+            int keyIndex = lowerBound(node, value);
+            boolean found = keyIndex < node.keySize && compare(node.keys[keyIndex], value) == 0;
+            if (!validate(node, version)) {
+                return RESTART;
+            }
+            return found ? 1 : 0;
+        } catch (RuntimeException e) {
+            return restartOrRethrow(node, version, e);
+        }
+    }
+
+    /* an optimistic read may see a node halfway through a change, e.g. a cleared key slot;
+    the failure only counts when the node was not changed in the meantime */
+    private static int restartOrRethrow(Node node, long version, RuntimeException e) {
+        if (validate(node, version)) {
+            throw e;
+        }
+        return RESTART;
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(generation.size.sum(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return generation.size.sum() == 0;
+    }
+
+    /* walks the leaves up to 'index', O(n) as keeping subtree counts would make every
+    insert lock the whole root-to-leaf path */
+    @Override
+    public T elementAt(int index) {
+        if (index >= 0) {
+            Iterator<T> iterator = iterator();
+            for (int position = 0; iterator.hasNext(); position++) {
+                T value = iterator.next();
+                if (position == index) {
+                    return value;
+                }
+            }
+        }
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new LeafIterator();
+    }
+
+    private int compare(Object k1, Object k2) {
+        return BTree.compare(k1, k2, comparator);
+    }
+
+    // child to descend into, separators are the smallest keys of their right subtree
+    private int childIndex(Node node, Object value) {
+        int low = 0;
+        int high = Math.min(node.keySize, node.keys.length);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(node.keys[mid], value) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int lowerBound(Node node, Object value) {
+        int low = 0;
+        int high = Math.min(node.keySize, node.keys.length);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(node.keys[mid], value) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // version of an unlocked node, spinning while a writer holds it
+    private static long readLock(Node node) {
+        long version = node.version;
+        while ((version & 1) != 0) {
+            Thread.onSpinWait();
+            version = node.version;
+        }
+        return version;
+    }
+
+    // true when the node was not changed since 'version' was read
+    private static boolean validate(Node node, long version) {
+        VarHandle.acquireFence();
+        return node.version == version;
+    }
+
+    private static boolean upgrade(Node node, long version) {
+        return VERSION.compareAndSet(node, version, version + 1);
+    }
+
+    private static void unlock(Node node) {
+        if (node != null) {
+            node.version = node.version + 1;
+        }
+    }
+
+    // Iterates leaf by leaf along the right-links, copying each leaf under a validated read
+    private final class LeafIterator implements Iterator<T> {
+        private final Object[] buffer = new Object[maxKeySize];
+        private int bufferSize;
+        private int position;
+        private Node nextLeaf;
+
+        private LeafIterator() {
+            nextLeaf = leftmostLeaf(generation);
+        }
+
+        private Node leftmostLeaf(Generation generation) {
+            while (true) {
+                Node node = generation.root;
+                long version = readLock(node);
+                boolean valid = node == generation.root;
+                while (valid && !node.isLeaf()) {
+                    Node child = node.children[0];
+                    long childVersion = readLock(child);
+                    valid = validate(node, version);
+                    node = child;
+                    version = childVersion;
+                }
+                if (valid) {
+                    return node;
+                }
+            }
+        }
+
+        private void load(Node leaf) {
+            while (true) {
+                long version = readLock(leaf);
+                int keySize = Math.min(leaf.keySize, buffer.length);
+                System.arraycopy(leaf.keys, 0, buffer, 0, keySize);
+                Node next = leaf.next;
+                if (validate(leaf, version)) {
+                    bufferSize = keySize;
+                    position = 0;
+                    nextLeaf = next;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (position == bufferSize && nextLeaf != null) {
+                load(nextLeaf);
+            }
+            return position < bufferSize;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return (T) buffer[position++];
+        }
+    }
+
+    // the tree since the last clear(): its current root and the keys added to it less those removed
+    private static final class Generation {
+        volatile Node root;
+        final LongAdder size = new LongAdder();
+
+        private Generation(Node root) {
+            this.root = root;
+        }
+    }
+
+    private static final class Node {
+        // even when unlocked, odd while a writer holds the node
+        volatile long version;
+        int keySize;
+        final Object[] keys;
+        // null for leaves
+        final Node[] children;
+        // right sibling, set for leaves only
+        Node next;
+
+        private Node(int maxKeySize, boolean leaf) {
+            this.keys = new Object[maxKeySize];
+            this.children = leaf ? null : new Node[maxKeySize + 1];
+        }
+
+        private boolean isLeaf() {
+            return children == null;
+        }
+    }
+}
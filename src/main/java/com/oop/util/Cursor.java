@@ -0,0 +1,33 @@
+package com.oop.util;
+
+import java.util.NoSuchElementException;
+
+/* Movable position over the elements of a tree in ascending order. A cursor is either
+   on an element, returned by key(), or invalid after moving past either end or before
+   the first seek. It can be positioned again by any seek, so one instance serves any
+   number of scans; it must be positioned again after the tree is modified. */
+public interface Cursor<T> {
+
+    // To position on the first element greater than/equal to 'key'
+    boolean seek(T key);
+
+    // To position on the element at 'index' in ascending order
+    boolean seekAt(int index);
+
+    boolean seekFirst();
+
+    boolean seekLast();
+
+    // To move to the next greater element, invalid when there is none
+    boolean next();
+
+    // To move to the next smaller element, invalid when there is none
+    boolean prev();
+
+    boolean isValid();
+
+    T key() throws NoSuchElementException;
+
+    // To make the cursor invalid and drop its references to the tree's nodes
+    void reset();
+}
@@ -0,0 +1,134 @@
+package com.oop.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/* Search of the sorted keys of a node in the primitive trees, IntBTree and LongBTree.
+   Built with the 'vector' profile and run with the jdk.incubator.vector module resolved,
+   e.g. by '--add-modules jdk.incubator.vector', keys are compared a vector at a time by
+   VectorKeySearch; otherwise, or for nodes too small for a whole vector, by binary
+   search. VectorKeySearch is looked up by name and only loaded in the first case, so
+   the class builds and runs on any JDK. */
+final class KeySearch {
+    private static final MethodHandle INT_VECTOR_SEARCH;
+    private static final MethodHandle LONG_VECTOR_SEARCH;
+    // keys of the smallest node searched a vector at a time, Integer.MAX_VALUE without vector search
+    static final int INT_LANES;
+    static final int LONG_LANES;
+    static final boolean VECTORIZED;
+
+    static {
+        MethodHandle intSearch = null;
+        MethodHandle longSearch = null;
+        int intLanes = Integer.MAX_VALUE;
+        int longLanes = Integer.MAX_VALUE;
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                Class<?> vectorKeySearch = Class.forName("com.oop.util.VectorKeySearch");
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                intSearch = lookup.findStatic(vectorKeySearch, "lowerBound",
+                        MethodType.methodType(int.class, int[].class, int.class, int.class));
+                longSearch = lookup.findStatic(vectorKeySearch, "lowerBound",
+                        MethodType.methodType(int.class, long[].class, int.class, long.class));
+                intLanes = vectorKeySearch.getDeclaredField("INT_LANES").getInt(null);
+                longLanes = vectorKeySearch.getDeclaredField("LONG_LANES").getInt(null);
+            } catch (ReflectiveOperationException e) {
+                // built without the vector profile
+                intSearch = null;
+                longSearch = null;
+                intLanes = Integer.MAX_VALUE;
+                longLanes = Integer.MAX_VALUE;
+            }
+        }
+        INT_VECTOR_SEARCH = intSearch;
+        LONG_VECTOR_SEARCH = longSearch;
+        INT_LANES = intLanes;
+        LONG_LANES = longLanes;
+        VECTORIZED = intSearch != null;
+    }
+
+    private KeySearch() {
+    }
+
+    // index of the first of 'keys[0, keySize)' not less than 'value'
+    static int lowerBound(int[] keys, int keySize, int value) {
+        if (keySize >= INT_LANES) {
+            return vectorLowerBound(keys, keySize, value);
+        }
+        return scalarLowerBound(keys, keySize, value);
+    }
+
+    // index of the first of 'keys[0, keySize)' greater than 'value'
+    static int upperBound(int[] keys, int keySize, int value) {
+        // the first key not less than the next value, which no int key exceeds
+        if (value == Integer.MAX_VALUE) {
+            return keySize;
+        }
+        return lowerBound(keys, keySize, value + 1);
+    }
+
+    static int lowerBound(long[] keys, int keySize, long value) {
+        if (keySize >= LONG_LANES) {
+            return vectorLowerBound(keys, keySize, value);
+        }
+        return scalarLowerBound(keys, keySize, value);
+    }
+
+    static int upperBound(long[] keys, int keySize, long value) {
+        if (value == Long.MAX_VALUE) {
+            return keySize;
+        }
+        return lowerBound(keys, keySize, value + 1);
+    }
+
+    // VectorKeySearch.lowerBound, for VECTORIZED and at least INT_LANES keys
+    static int vectorLowerBound(int[] keys, int keySize, int value) {
+        try {
+            return (int) INT_VECTOR_SEARCH.invokeExact(keys, keySize, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // VectorKeySearch.lowerBound, for VECTORIZED and at least LONG_LANES keys
+    static int vectorLowerBound(long[] keys, int keySize, long value) {
+        try {
+            return (int) LONG_VECTOR_SEARCH.invokeExact(keys, keySize, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static int scalarLowerBound(int[] keys, int keySize, int value) {
+        int low = 0;
+        int high = keySize;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    static int scalarLowerBound(long[] keys, int keySize, long value) {
+        int low = 0;
+        int high = keySize;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
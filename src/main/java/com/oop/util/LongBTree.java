@@ -0,0 +1,410 @@
+package com.oop.util;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.LongConsumer;
+
+import static com.oop.util.KeySearch.lowerBound;
+import static com.oop.util.KeySearch.upperBound;
+
+/* B-Tree of long keys kept in primitive arrays per node, without boxing on the
+   long accessors; the Tree contract methods box at the boundary only */
+public class LongBTree extends AbstractCollection<Long> implements Tree<Long> {
+    // Defaulted to 2-3(order 3) B-Tree
+    private int maxChildrenSize = 3;
+    private int maxKeySize = maxChildrenSize - 1;
+
+    private Node root;
+    private int size = 0;
+
+    public LongBTree() {
+    }
+
+    public LongBTree(int order) {
+        if (order < 3) {
+            throw new IllegalArgumentException("Order of a BTree must be at least 3: " + order);
+        }
+        this.maxKeySize = order - 1;
+        this.maxChildrenSize = order;
+    }
+
+    @Override
+    public boolean add(Long value) {
+        return addLong(value);
+    }
+
+    public boolean addLong(long value) {
+        if (root == null) {
+            root = new Node(maxChildrenSize, true);
+        }
+        insert(root, value);
+        if (root.keySize > maxKeySize) {
+            // To create new root node above the split root
+            Node newRoot = new Node(maxChildrenSize, false);
+            newRoot.children[0] = root;
+            newRoot.count = root.count;
+            splitChild(newRoot, 0);
+            root = newRoot;
+        }
+        size++;
+        return true;
+    }
+
+    private void insert(Node node, long value) {
+        node.count++;
+        if (node.isLeaf()) {
+            node.insertKey(upperBound(node.keys, node.keySize, value), value);
+            return;
+        }
+        int childIndex = lowerBound(node.keys, node.keySize, value);
+        Node child = node.children[childIndex];
+        insert(child, value);
+        if (child.keySize > maxKeySize) {
+            splitChild(node, childIndex);
+        }
+    }
+
+    // To split the overflowing child at 'childIndex', moving its median key into 'parent'
+    private void splitChild(Node parent, int childIndex) {
+        Node left = parent.children[childIndex];
+        int medianIndex = left.keySize / 2;
+        long medianValue = left.keys[medianIndex];
+
+        Node right = new Node(maxChildrenSize, left.isLeaf());
+        right.keySize = left.keySize - medianIndex - 1;
+        System.arraycopy(left.keys, medianIndex + 1, right.keys, 0, right.keySize);
+        if (!left.isLeaf()) {
+            System.arraycopy(left.children, medianIndex + 1, right.children, 0, right.keySize + 1);
+            Arrays.fill(left.children, medianIndex + 1, left.keySize + 1, null);
+        }
+        left.keySize = medianIndex;
+        left.count = left.countKeys();
+        right.count = right.countKeys();
+
+        parent.insertKey(childIndex, medianValue);
+        System.arraycopy(parent.children, childIndex + 1, parent.children, childIndex + 2,
+                parent.keySize - childIndex - 1);
+        parent.children[childIndex + 1] = right;
+    }
+
+    @Override
+    public boolean remove(Object value) {
+        return value instanceof Long && removeLong((Long) value);
+    }
+
+    public boolean removeLong(long value) {
+        if (root == null || !delete(root, value)) {
+            return false;
+        }
+        if (root.keySize == 0) {
+            // To collapse the root once it has no keys left
+            root = root.isLeaf() ? null : root.children[0];
+        }
+        size--;
+        return true;
+    }
+
+    private boolean delete(Node node, long value) {
+        int keyIndex = lowerBound(node.keys, node.keySize, value);
+        boolean found = keyIndex < node.keySize && node.keys[keyIndex] == value;
+        if (node.isLeaf()) {
+            if (!found) {
+                return false;
+            }
+            node.removeKey(keyIndex);
+        } else if (found) {
+            /* key of an internal node is replaced by its predecessor, the rightmost key
+            of the left subtree, which is then removed from that subtree */
+            Node predecessor = node.children[keyIndex];
+            while (!predecessor.isLeaf()) {
+                predecessor = predecessor.children[predecessor.keySize];
+            }
+            long predecessorValue = predecessor.keys[predecessor.keySize - 1];
+            node.keys[keyIndex] = predecessorValue;
+            delete(node.children[keyIndex], predecessorValue);
+            rebalanceChild(node, keyIndex);
+        } else {
+            if (!delete(node.children[keyIndex], value)) {
+                return false;
+            }
+            rebalanceChild(node, keyIndex);
+        }
+        node.count--;
+        return true;
+    }
+
+    /* restores the minimum key count of the child at 'childIndex' by borrowing a key
+    from a sibling through the parent, or merging with a sibling */
+    private void rebalanceChild(Node parent, int childIndex) {
+        Node node = parent.children[childIndex];
+        int minKeySize = maxKeySize / 2;
+        if (node.keySize >= minKeySize) {
+            return;
+        }
+        Node left = childIndex > 0 ? parent.children[childIndex - 1] : null;
+        Node right = childIndex < parent.keySize ? parent.children[childIndex + 1] : null;
+        if (left != null && left.keySize > minKeySize) {
+            // To rotate the last key of the left sibling through the parent
+            node.insertKey(0, parent.keys[childIndex - 1]);
+            parent.keys[childIndex - 1] = left.keys[left.keySize - 1];
+            left.keySize--;
+            left.count--;
+            node.count++;
+            if (!left.isLeaf()) {
+                Node movedChild = left.children[left.keySize + 1];
+                left.children[left.keySize + 1] = null;
+                System.arraycopy(node.children, 0, node.children, 1, node.keySize);
+                node.children[0] = movedChild;
+                left.count -= movedChild.count;
+                node.count += movedChild.count;
+            }
+        } else if (right != null && right.keySize > minKeySize) {
+            // To rotate the first key of the right sibling through the parent
+            node.insertKey(node.keySize, parent.keys[childIndex]);
+            parent.keys[childIndex] = right.keys[0];
+            right.removeKey(0);
+            right.count--;
+            node.count++;
+            if (!right.isLeaf()) {
+                Node movedChild = right.children[0];
+                System.arraycopy(right.children, 1, right.children, 0, right.keySize + 1);
+                right.children[right.keySize + 1] = null;
+                node.children[node.keySize] = movedChild;
+                right.count -= movedChild.count;
+                node.count += movedChild.count;
+            }
+        } else if (left != null) {
+            merge(parent, childIndex - 1);
+        } else {
+            merge(parent, childIndex);
+        }
+    }
+
+    // To merge the children on both sides of the parent's key at 'keyIndex' into the left one
+    private static void merge(Node parent, int keyIndex) {
+        Node left = parent.children[keyIndex];
+        Node right = parent.children[keyIndex + 1];
+        left.keys[left.keySize] = parent.keys[keyIndex];
+        System.arraycopy(right.keys, 0, left.keys, left.keySize + 1, right.keySize);
+        if (!left.isLeaf()) {
+            System.arraycopy(right.children, 0, left.children, left.keySize + 1, right.keySize + 1);
+        }
+        left.keySize += right.keySize + 1;
+        left.count += right.count + 1;
+
+        parent.removeKey(keyIndex);
+        System.arraycopy(parent.children, keyIndex + 2, parent.children, keyIndex + 1,
+                parent.keySize - keyIndex);
+        parent.children[parent.keySize + 1] = null;
+    }
+
+    @Override
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    @Override
+    public boolean contains(Object value) {
+        return value instanceof Long && containsLong((Long) value);
+    }
+
+    public boolean containsLong(long value) {
+        Node node = root;
+        while (node != null) {
+            int keyIndex = lowerBound(node.keys, node.keySize, value);
+            if (keyIndex < node.keySize && node.keys[keyIndex] == value) {
+                return true;
+            }
+            node = node.isLeaf() ? null : node.children[keyIndex];
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public Long elementAt(int index) {
+        return longAt(index);
+    }
+
+    public long longAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        Node node = root;
+        while (true) {
+            if (node.isLeaf()) {
+                return node.keys[index];
+            }
+            // skip whole subtrees using their key counts until the index falls inside one
+            for (int childIndex = 0; childIndex <= node.keySize; childIndex++) {
+                Node child = node.children[childIndex];
+                if (index < child.count) {
+                    node = child;
+                    break;
+                }
+                index -= child.count;
+                if (index == 0) {
+                    return node.keys[childIndex];
+                }
+                index--;
+            }
+        }
+    }
+
+    /* @return number of keys in the tree strictly less than 'value' */
+    public int rank(long value) {
+        int rank = 0;
+        Node node = root;
+        while (node != null) {
+            int keyIndex = lowerBound(node.keys, node.keySize, value);
+            rank += keyIndex;
+            if (node.isLeaf()) {
+                break;
+            }
+            for (int childIndex = 0; childIndex < keyIndex; childIndex++) {
+                rank += node.children[childIndex].count;
+            }
+            node = node.children[keyIndex];
+        }
+        return rank;
+    }
+
+    @Override
+    public PrimitiveIterator.OfLong iterator() {
+        return new InorderIterator();
+    }
+
+    public void forEachLong(LongConsumer action) {
+        forEachLong(root, action);
+    }
+
+    private static void forEachLong(Node node, LongConsumer action) {
+        if (node == null) {
+            return;
+        }
+        for (int keyIndex = 0; keyIndex < node.keySize; keyIndex++) {
+            if (!node.isLeaf()) {
+                forEachLong(node.children[keyIndex], action);
+            }
+            action.accept(node.keys[keyIndex]);
+        }
+        if (!node.isLeaf()) {
+            forEachLong(node.children[node.keySize], action);
+        }
+    }
+
+    public long[] toLongArray() {
+        long[] array = new long[size];
+        int[] index = new int[1];
+        forEachLong(value -> array[index[0]++] = value);
+        return array;
+    }
+
+    // iterates with a path of nodes and key positions, one slot per tree level
+    private final class InorderIterator implements PrimitiveIterator.OfLong {
+        private final Node[] nodePath;
+        private final int[] keyIndexPath;
+        private int depth = -1;
+
+        private InorderIterator() {
+            int height = 0;
+            for (Node node = root; node != null; node = node.isLeaf() ? null : node.children[0]) {
+                height++;
+            }
+            nodePath = new Node[height];
+            keyIndexPath = new int[height];
+            if (root != null && root.keySize > 0) {
+                pushLeftPath(root);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return depth >= 0;
+        }
+
+        @Override
+        public long nextLong() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Node node = nodePath[depth];
+            int keyIndex = keyIndexPath[depth];
+            long resultKey = node.keys[keyIndex];
+            keyIndex++;
+
+            if (keyIndex < node.keySize) {
+                keyIndexPath[depth] = keyIndex;
+            } else {
+                depth--;
+            }
+            if (!node.isLeaf()) {
+                pushLeftPath(node.children[keyIndex]);
+            }
+            return resultKey;
+        }
+
+        private void pushLeftPath(Node node) {
+            while (true) {
+                depth++;
+                nodePath[depth] = node;
+                keyIndexPath[depth] = 0;
+                if (node.isLeaf()) {
+                    break;
+                }
+                node = node.children[0];
+            }
+        }
+    }
+
+    private static final class Node {
+        // sized for the transient overflow key/child that triggers a split
+        final long[] keys;
+        final Node[] children;
+        int keySize;
+        // number of keys stored in the subtree rooted at this node
+        int count;
+
+        private Node(int order, boolean leaf) {
+            this.keys = new long[order];
+            this.children = leaf ? null : new Node[order + 1];
+        }
+
+        private boolean isLeaf() {
+            return children == null;
+        }
+
+        private void insertKey(int keyIndex, long value) {
+            System.arraycopy(keys, keyIndex, keys, keyIndex + 1, keySize - keyIndex);
+            keys[keyIndex] = value;
+            keySize++;
+        }
+
+        private void removeKey(int keyIndex) {
+            System.arraycopy(keys, keyIndex + 1, keys, keyIndex, keySize - keyIndex - 1);
+            keySize--;
+        }
+
+        private int countKeys() {
+            int count = keySize;
+            if (!isLeaf()) {
+                for (int childIndex = 0; childIndex <= keySize; childIndex++) {
+                    count += children[childIndex].count;
+                }
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.oop.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.SortedSet;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/* Lazy query over a tree, planned when its results are requested:
+   - a range on the tree's own ordering is a seek into a sub-set view when the source
+     is a NavigableSet (a BTree or any of its views), and a filter otherwise
+   - an order that is the source's ordering or its reverse is read in place, anything
+     else is sorted, or with a limit kept in a heap of 'limit' elements
+   - without a sort the elements stream from the tree, so a limit stops the scan early
+   Example: redIds of the 3 lowest gpa students, from a tree ordered by name
+       Query.from(studentTree).where(s -> s.getGpa() < 2.85F)
+               .orderBy(studentGPAAscSort()).limit(3).select(Student::getRedId) */
+public final class Query<T> {
+    private final Collection<T> source;
+    // ordering of the source, null when it is not sorted
+    private final Comparator<? super T> sourceOrder;
+    private Predicate<? super T> predicate;
+    private T from;
+    private boolean fromInclusive;
+    private boolean hasFrom;
+    private T to;
+    private boolean toInclusive;
+    private boolean hasTo;
+    private Comparator<? super T> order;
+    private long limit = -1;
+
+    private Query(Collection<T> source) {
+        this.source = source;
+        this.sourceOrder = source instanceof SortedSet ? orderOf((SortedSet<T>) source) : null;
+    }
+
+    // query over a Tree, or over any sorted view of one
+    public static <T> Query<T> from(Collection<T> source) {
+        return new Query<>(source);
+    }
+
+    private static <T> Comparator<? super T> orderOf(SortedSet<T> set) {
+        Comparator<? super T> comparator = set.comparator();
+        return comparator != null ? comparator : (Comparator<? super T>) Comparator.naturalOrder();
+    }
+
+    // To keep only the elements matching 'predicate', in addition to earlier conditions
+    public Query<T> where(Predicate<? super T> predicate) {
+        if (this.predicate == null) {
+            this.predicate = predicate;
+        } else {
+            Predicate<? super T> previous = this.predicate;
+            this.predicate = value -> previous.test(value) && predicate.test(value);
+        }
+        return this;
+    }
+
+    /* To keep only the elements after 'from', compared in the ordering of the source
+      or, for a source that is not sorted, their natural ordering */
+    public Query<T> whereAbove(T from, boolean inclusive) {
+        int comparison = hasFrom ? compareBound(from, this.from) : 1;
+        if (comparison > 0 || (comparison == 0 && !inclusive)) {
+            this.from = from;
+            this.fromInclusive = inclusive;
+            hasFrom = true;
+        }
+        return this;
+    }
+
+    // To keep only the elements before 'to', compared as in whereAbove
+    public Query<T> whereBelow(T to, boolean inclusive) {
+        int comparison = hasTo ? compareBound(to, this.to) : -1;
+        if (comparison < 0 || (comparison == 0 && !inclusive)) {
+            this.to = to;
+            this.toInclusive = inclusive;
+            hasTo = true;
+        }
+        return this;
+    }
+
+    public Query<T> whereBetween(T from, boolean fromInclusive, T to, boolean toInclusive) {
+        return whereAbove(from, fromInclusive).whereBelow(to, toInclusive);
+    }
+
+    // To return the elements in the order of 'comparator' instead of the source's
+    public Query<T> orderBy(Comparator<? super T> comparator) {
+        this.order = comparator;
+        return this;
+    }
+
+    public Query<T> limit(long maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Limit must not be negative: " + maxSize);
+        }
+        this.limit = maxSize;
+        return this;
+    }
+
+    // results as a lazy stream; reading only part of it stops the scan of an unsorted plan
+    public Stream<T> stream() {
+        Collection<T> scan = source;
+        Predicate<? super T> filter = predicate;
+        if (hasFrom || hasTo) {
+            if (source instanceof NavigableSet) {
+                scan = seek((NavigableSet<T>) source);
+            } else {
+                filter = and(filter, this::inRange);
+            }
+        }
+
+        Stream<T> results;
+        if (order == null || order.equals(sourceOrder)) {
+            results = filtered(scan.stream(), filter);
+        } else if (sourceOrder != null && order.equals(sourceOrder.reversed()) && scan instanceof NavigableSet) {
+            results = filtered(((NavigableSet<T>) scan).descendingSet().stream(), filter);
+        } else if (limit >= 0) {
+            return topK(filtered(scan.stream(), filter)).stream();
+        } else {
+            return filtered(scan.stream(), filter).sorted(order);
+        }
+        return limit >= 0 ? results.limit(limit) : results;
+    }
+
+    public List<T> toList() {
+        return stream().collect(Collectors.toList());
+    }
+
+    /* @param dataMapper - function to show specific data from the returned objects */
+    public <R> List<R> select(Function<? super T, ? extends R> dataMapper) {
+        return stream().map(dataMapper).collect(Collectors.toList());
+    }
+
+    private NavigableSet<T> seek(NavigableSet<T> set) {
+        if (hasFrom && hasTo) {
+            // an empty range, which subSet would reject
+            if (compareBound(from, to) > 0) {
+                return Collections.emptyNavigableSet();
+            }
+            return set.subSet(from, fromInclusive, to, toInclusive);
+        }
+        return hasFrom ? set.tailSet(from, fromInclusive) : set.headSet(to, toInclusive);
+    }
+
+    private boolean inRange(T value) {
+        if (hasFrom) {
+            int comparison = compareBound(value, from);
+            if (comparison < 0 || (comparison == 0 && !fromInclusive)) {
+                return false;
+            }
+        }
+        if (hasTo) {
+            int comparison = compareBound(value, to);
+            return comparison < 0 || (comparison == 0 && toInclusive);
+        }
+        return true;
+    }
+
+    private int compareBound(T value1, T value2) {
+        return sourceOrder != null ? ((Comparator<T>) sourceOrder).compare(value1, value2)
+                : ((Comparable<T>) value1).compareTo(value2);
+    }
+
+    private static <T> Predicate<? super T> and(Predicate<? super T> first, Predicate<? super T> second) {
+        return first == null ? second : value -> first.test(value) && second.test(value);
+    }
+
+    private static <T> Stream<T> filtered(Stream<T> stream, Predicate<? super T> filter) {
+        return filter == null ? stream : stream.filter(filter);
+    }
+
+    /* To keep the first 'limit' elements of 'values' in the order of the query, in a heap
+    with the greatest kept element on top; equal elements keep the order they came in */
+    private List<T> topK(Stream<T> values) {
+        if (limit == 0) {
+            return Collections.emptyList();
+        }
+        Comparator<Ranked<T>> rankOrder = Comparator.<Ranked<T>, T>comparing(ranked -> ranked.value, order)
+                .thenComparingLong(ranked -> ranked.sequence);
+        PriorityQueue<Ranked<T>> heap = new PriorityQueue<>(rankOrder.reversed());
+        long[] sequence = new long[1];
+        values.forEachOrdered(value -> {
+            Ranked<T> ranked = new Ranked<>(value, sequence[0]++);
+            if (heap.size() < limit) {
+                heap.add(ranked);
+            } else if (rankOrder.compare(ranked, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(ranked);
+            }
+        });
+        List<Ranked<T>> kept = new ArrayList<>(heap);
+        kept.sort(rankOrder);
+        List<T> results = new ArrayList<>(kept.size());
+        kept.forEach(ranked -> results.add(ranked.value));
+        return results;
+    }
+
+    private static final class Ranked<T> {
+        private final T value;
+        private final long sequence;
+
+        private Ranked(T value, long sequence) {
+            this.value = value;
+            this.sequence = sequence;
+        }
+    }
+}
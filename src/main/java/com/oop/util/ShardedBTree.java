@@ -0,0 +1,439 @@
+package com.oop.util;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import static com.oop.util.BTree.compare;
+import static com.oop.util.BTree.upperBound;
+
+/* B-Tree range-partitioned across shards, each a BTree of its own with a single worker
+   thread that runs every operation on it. Operations on different shards so run in
+   parallel without any latching inside the trees, and addAll and containsAll route a
+   whole batch at once, with one task per shard it touches.
+
+   The shards hold consecutive key ranges, split at the first key of each shard after
+   the first; keys equal to each other stay in one shard. The tree starts with all keys
+   in the first shard and, whenever the key counts of two neighbouring shards differ by
+   more than half a shard's share, moves the keys at the edge between them from the
+   larger to the smaller along with the split point, which takes up the next shard once
+   the last one in use fills. Moving keys pauses the other operations on the tree, it
+   is done after the operation that skewed the shards.
+
+   Iteration walks point-in-time snapshots of the shards one after another, elementAt
+   counts keys shard by shard; both are weakly consistent under concurrent updates, as
+   in ConcurrentBTree. The worker threads are daemons, close() stops them. */
+public class ShardedBTree<T extends Comparable<T>> extends AbstractCollection<T> implements Tree<T>, AutoCloseable {
+    private static final int DEFAULT_ORDER = 16;
+    // difference in keys up to which neighbouring shards are left as they are
+    private static final int MIN_REBALANCE_DIFFERENCE = 1024;
+
+    private final int order;
+    private final Comparator<T> comparator;
+    private final List<Shard> shards;
+    /* first keys of the shards after the first that are in use, the shards past them are
+    empty; only changed under the write lock, which is taken once no task is in flight */
+    private Object[] splits = new Object[0];
+    // operations hold the read lock until their tasks are done, rebalancing the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ShardedBTree(int shardCount) {
+        this(shardCount, DEFAULT_ORDER, null);
+    }
+
+    public ShardedBTree(int shardCount, Comparator<T> comparator) {
+        this(shardCount, DEFAULT_ORDER, comparator);
+    }
+
+    /* @param shardCount - number of shards and worker threads, e.g. the number of cores
+      @param order      - maximum number of children per node of each shard */
+    public ShardedBTree(int shardCount, int order, Comparator<T> comparator) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be at least 1: " + shardCount);
+        }
+        if (order < 3) {
+            throw new IllegalArgumentException("Order of a BTree must be at least 3: " + order);
+        }
+        this.order = order;
+        this.comparator = comparator;
+        this.shards = new ArrayList<>(shardCount);
+        for (int shardIndex = 0; shardIndex < shardCount; shardIndex++) {
+            shards.add(new Shard(shardIndex));
+        }
+    }
+
+    @Override
+    public boolean add(T value) {
+        Objects.requireNonNull(value);
+        route(value, tree -> tree.add(value));
+        rebalanceIfSkewed();
+        return true;
+    }
+
+    // adds the values in one batch per shard, the shards taking theirs in parallel
+    @Override
+    public boolean addAll(Collection<? extends T> values) {
+        values.forEach(Objects::requireNonNull);
+        routeAll(values, (tree, batch) -> tree.addAll((List<T>) batch));
+        rebalanceIfSkewed();
+        return !values.isEmpty();
+    }
+
+    @Override
+    public boolean remove(Object value) {
+        if (value == null) {
+            return false;
+        }
+        boolean removed = route(value, tree -> tree.remove(value));
+        if (removed) {
+            rebalanceIfSkewed();
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean contains(Object value) {
+        return value != null && route(value, tree -> tree.contains(value));
+    }
+
+    // looks the values up in one batch per shard, the shards looking up theirs in parallel
+    @Override
+    public boolean containsAll(Collection<?> values) {
+        if (values.stream().anyMatch(Objects::isNull)) {
+            return false;
+        }
+        return !routeAll(values, (tree, batch) -> tree.containsAll(batch)).contains(false);
+    }
+
+    // To run 'operation' on the shard of 'value' and wait for its result
+    private <R> R route(Object value, Function<BTree<T>, R> operation) {
+        lock.readLock().lock();
+        try {
+            return await(shardOf(value).submit(operation));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /* To run 'operation' on each shard with the values in its range, all shards at once
+      @return the results of the shards that got any values */
+    private <R> List<R> routeAll(Collection<?> values, ShardOperation<T, R> operation) {
+        lock.readLock().lock();
+        try {
+            List<List<Object>> batches = new ArrayList<>(shards.size());
+            for (int shardIndex = 0; shardIndex < shards.size(); shardIndex++) {
+                batches.add(new ArrayList<>());
+            }
+            for (Object value : values) {
+                batches.get(shardIndexOf(value)).add(value);
+            }
+            List<Future<R>> futures = new ArrayList<>();
+            for (int shardIndex = 0; shardIndex < shards.size(); shardIndex++) {
+                List<Object> batch = batches.get(shardIndex);
+                if (!batch.isEmpty()) {
+                    futures.add(shards.get(shardIndex).submit(tree -> operation.apply(tree, batch)));
+                }
+            }
+            // every task is waited for before a failure is passed on
+            List<R> results = new ArrayList<>(futures.size());
+            RuntimeException failure = null;
+            for (Future<R> future : futures) {
+                try {
+                    results.add(await(future));
+                } catch (RuntimeException e) {
+                    failure = failure == null ? e : failure;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Shard shardOf(Object value) {
+        return shards.get(shardIndexOf(value));
+    }
+
+    // keys equal to a split point belong to the shard it starts
+    private int shardIndexOf(Object value) {
+        return upperBound(splits, splits.length, value, comparator);
+    }
+
+    /* waits for a task without giving in to interrupts, so that no task is left running
+    on a shard once the read lock is released; the interrupt is kept for the caller */
+    private static <R> R await(Future<R> future) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new IllegalStateException(cause);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /* To even out the pairs of neighbouring shards whose key counts differ the most until
+    no pair is skewed; each pass moves keys along by one shard */
+    private void rebalanceIfSkewed() {
+        if (skewedShard() < 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            // another thread may have rebalanced in the meantime
+            for (int shardIndex = skewedShard(); shardIndex >= 0; shardIndex = skewedShard()) {
+                rebalance(shardIndex);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /* @return index of the left one of the neighbouring shards with the largest difference
+    in keys, if that is more than half a shard's share of all keys, -1 for none */
+    private int skewedShard() {
+        int[] shardSizes = shardSizes();
+        int total = 0;
+        for (int shardSize : shardSizes) {
+            total += shardSize;
+        }
+        int skewedIndex = -1;
+        int largestDifference = Math.max(MIN_REBALANCE_DIFFERENCE, total / (2 * shardSizes.length));
+        for (int shardIndex = 0; shardIndex + 1 < shardSizes.length; shardIndex++) {
+            int difference = Math.abs(shardSizes[shardIndex] - shardSizes[shardIndex + 1]);
+            Shard larger = shards.get(shardSizes[shardIndex] >= shardSizes[shardIndex + 1] ? shardIndex : shardIndex + 1);
+            if (difference > largestDifference && larger.size >= larger.rebalanceSize) {
+                skewedIndex = shardIndex;
+                largestDifference = difference;
+            }
+        }
+        return skewedIndex;
+    }
+
+    /* To move half the difference in keys between the shard at 'shardIndex' and the one
+    after it from the larger to the smaller, taking the keys at the edge between the two
+    and moving the split point; both shards are bulk-loaded afresh from their keys in order.
+    Run with the workers idle under the write lock */
+    private void rebalance(int shardIndex) {
+        Shard left = shards.get(shardIndex);
+        Shard right = shards.get(shardIndex + 1);
+        Shard larger = left.size >= right.size ? left : right;
+        int difference = Math.abs(left.size - right.size);
+        // first key of the right shard afterwards, with every key equal to it on the right
+        T split = larger == left
+                ? left.tree.elementAt(left.size - difference / 2)
+                : right.tree.elementAt(difference / 2);
+        if (larger.tree.rank(split) == 0) {
+            split = larger.tree.higher(split);
+        }
+        int moved = split == null ? 0
+                : larger == left ? left.size - left.tree.rank(split) : right.tree.rank(split);
+        if (Math.abs(difference - 2 * moved) >= difference) {
+            // no split point brings the two closer, as most of the keys are equal to each other;
+            // tried again once the larger shard doubles
+            larger.rebalanceSize = 2 * larger.size;
+            return;
+        }
+        // cut by position rather than by key, as keys equal to each other may be distinct records
+        List<T> keys = new ArrayList<>(left.tree.size() + right.tree.size());
+        keys.addAll(left.tree);
+        keys.addAll(right.tree);
+        int cut = larger == left ? left.tree.size() - moved : left.tree.size() + moved;
+        left.tree = BTree.fromSorted(keys.subList(0, cut), order, comparator, BTree.DEFAULT_FILL_FACTOR);
+        right.tree = BTree.fromSorted(keys.subList(cut, keys.size()), order, comparator, BTree.DEFAULT_FILL_FACTOR);
+        left.resize();
+        right.resize();
+        if (shardIndex == splits.length) {
+            // the right shard was not in use so far
+            splits = Arrays.copyOf(splits, splits.length + 1);
+        }
+        splits[shardIndex] = split;
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            for (Shard shard : shards) {
+                shard.tree = new BTree<>(order, comparator);
+                shard.resize();
+            }
+            splits = new Object[0];
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // sum of the key counts of the shards, each as of its last completed update
+    @Override
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            size += shard.size;
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // number of keys per shard, in key order, e.g. to watch how evenly the keys are spread
+    public int[] shardSizes() {
+        int[] shardSizes = new int[shards.size()];
+        for (int shardIndex = 0; shardIndex < shards.size(); shardIndex++) {
+            shardSizes[shardIndex] = shards.get(shardIndex).size;
+        }
+        return shardSizes;
+    }
+
+    @Override
+    public T elementAt(int index) {
+        if (index >= 0) {
+            lock.readLock().lock();
+            try {
+                // each shard either holds the index or tells how many keys it holds
+                int[] shardSize = new int[1];
+                int remaining = index;
+                for (Shard shard : shards) {
+                    int position = remaining;
+                    T value = await(shard.submit(tree -> {
+                        shardSize[0] = tree.size();
+                        return position < tree.size() ? tree.elementAt(position) : null;
+                    }));
+                    if (value != null) {
+                        return value;
+                    }
+                    remaining -= shardSize[0];
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        List<BTree<T>> snapshots = new ArrayList<>(shards.size());
+        lock.readLock().lock();
+        try {
+            // all shards are snapshot at once, each on its worker
+            List<Future<BTree<T>>> futures = new ArrayList<>(shards.size());
+            for (Shard shard : shards) {
+                futures.add(shard.submit(BTree::snapshot));
+            }
+            for (Future<BTree<T>> future : futures) {
+                snapshots.add(await(future));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new ShardIterator(snapshots.iterator());
+    }
+
+    // To stop the worker threads once the tasks already routed to them are done
+    @Override
+    public void close() {
+        for (Shard shard : shards) {
+            shard.worker.shutdown();
+        }
+    }
+
+    // iterates the snapshots of the shards one after another, which keeps the keys in order
+    private final class ShardIterator implements Iterator<T> {
+        private final Iterator<BTree<T>> snapshots;
+        private Iterator<T> current = Collections.emptyIterator();
+
+        private ShardIterator(Iterator<BTree<T>> snapshots) {
+            this.snapshots = snapshots;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext() && snapshots.hasNext()) {
+                current = snapshots.next().iterator();
+            }
+            return current.hasNext();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ShardOperation<T extends Comparable<T>, R> {
+        R apply(BTree<T> tree, List<?> batch);
+    }
+
+    private final class Shard {
+        private final ExecutorService worker;
+        // only used by the worker, and by rebalancing while the worker is idle
+        private BTree<T> tree;
+        // key count of the tree as of the last task, readable from any thread
+        private volatile int size;
+        // keys the shard must hold before it is rebalanced again, after its keys could not be split
+        private int rebalanceSize;
+
+        private Shard(int shardIndex) {
+            this.worker = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "btree-shard-" + shardIndex);
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.tree = new BTree<>(order, comparator);
+        }
+
+        private <R> Future<R> submit(Function<BTree<T>, R> operation) {
+            return worker.submit(() -> {
+                R result = operation.apply(tree);
+                size = tree.size();
+                return result;
+            });
+        }
+
+        // To take up the key count of the tree after it was changed off the worker
+        private void resize() {
+            size = tree.size();
+            rebalanceSize = 0;
+        }
+    }
+}
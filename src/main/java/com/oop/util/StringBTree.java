@@ -0,0 +1,637 @@
+package com.oop.util;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/* B+-Tree of String keys in their natural order, with the keys of a node packed: the
+   prefix shared by all of them is stored once, and the rest of each key is stored back
+   to back in one char array with the end offsets alongside. A node is then a handful of
+   arrays however many keys it holds, instead of a reference and a String per key.
+   Searches compare the probe with the shared prefix once per node and then with the
+   packed suffixes in place, without materialising a String. Inner nodes route with the
+   shortest separator between the two leaves they divide instead of a copy of a key,
+   which keeps them small and their shared prefixes long. Duplicates are kept, as in
+   BPlusTree, and every node counts the keys below it for positional access. */
+public class StringBTree extends AbstractCollection<String> implements Tree<String> {
+    private static final int DEFAULT_ORDER = 64;
+    private static final char[] EMPTY = new char[0];
+
+    // keys per leaf and separators per inner node, which has one child more
+    private final int maxKeySize;
+
+    private Node root;
+    private int size = 0;
+
+    public StringBTree() {
+        this(DEFAULT_ORDER);
+    }
+
+    public StringBTree(int order) {
+        if (order < 3) {
+            throw new IllegalArgumentException("Order of a BTree must be at least 3: " + order);
+        }
+        this.maxKeySize = order - 1;
+        this.root = new Node(order, true);
+    }
+
+    @Override
+    public boolean add(String value) {
+        Objects.requireNonNull(value);
+        insert(root, value);
+        if (root.keySize > maxKeySize) {
+            // To create new root node above the split root
+            Node newRoot = new Node(maxKeySize + 1, false);
+            newRoot.children[0] = root;
+            newRoot.count = root.count;
+            splitChild(newRoot, 0);
+            root = newRoot;
+        }
+        size++;
+        return true;
+    }
+
+    private void insert(Node node, String value) {
+        node.count++;
+        if (node.isLeaf()) {
+            node.insertKey(node.upperBound(value), value);
+            return;
+        }
+        // child 'i' holds the keys from separator i - 1 up to separator i
+        int childIndex = node.upperBound(value);
+        Node child = node.children[childIndex];
+        insert(child, value);
+        if (child.keySize > maxKeySize) {
+            splitChild(node, childIndex);
+        }
+    }
+
+    /* To split the overflowing child at 'childIndex'; a leaf puts the shortest separator
+    between its halves into 'parent', an inner node moves its median separator there */
+    private void splitChild(Node parent, int childIndex) {
+        Node left = parent.children[childIndex];
+        Node right = new Node(maxKeySize + 1, left.isLeaf());
+        String[] keys = left.keys();
+        int medianIndex = keys.length / 2;
+        String separator;
+        if (left.isLeaf()) {
+            separator = shortestSeparator(keys[medianIndex - 1], keys[medianIndex]);
+            right.pack(keys, medianIndex, keys.length);
+        } else {
+            separator = keys[medianIndex];
+            right.pack(keys, medianIndex + 1, keys.length);
+            System.arraycopy(left.children, medianIndex + 1, right.children, 0, right.keySize + 1);
+            Arrays.fill(left.children, medianIndex + 1, keys.length + 1, null);
+        }
+        left.pack(keys, 0, medianIndex);
+        left.count = left.countKeys();
+        right.count = right.countKeys();
+
+        parent.insertKey(childIndex, separator);
+        System.arraycopy(parent.children, childIndex + 1, parent.children, childIndex + 2,
+                parent.keySize - childIndex - 1);
+        parent.children[childIndex + 1] = right;
+    }
+
+    /* @return shortest string greater than 'lower' and less than/equal to 'upper', for
+    'lower' <= 'upper': the prefix of 'upper' one char past where the two diverge */
+    static String shortestSeparator(String lower, String upper) {
+        int common = mismatch(lower, upper);
+        return common == upper.length() ? upper : upper.substring(0, common + 1);
+    }
+
+    @Override
+    public boolean remove(Object value) {
+        if (!(value instanceof String) || !delete(root, (String) value)) {
+            return false;
+        }
+        if (!root.isLeaf() && root.keySize == 0) {
+            // To collapse the root once it routes to a single child
+            root = root.children[0];
+        }
+        size--;
+        return true;
+    }
+
+    private boolean delete(Node node, String value) {
+        if (node.isLeaf()) {
+            int keyIndex = node.lowerBound(value);
+            if (keyIndex == node.keySize || node.compare(keyIndex, value) != 0) {
+                return false;
+            }
+            node.removeKey(keyIndex);
+            node.count--;
+            return true;
+        }
+        int childIndex = node.upperBound(value);
+        boolean deleted = delete(node.children[childIndex], value);
+        // a separator that is a key itself may have duplicates on its left side too
+        if (!deleted && childIndex > 0 && node.compare(childIndex - 1, value) == 0) {
+            childIndex--;
+            deleted = delete(node.children[childIndex], value);
+        }
+        if (!deleted) {
+            return false;
+        }
+        node.count--;
+        rebalanceChild(node, childIndex);
+        return true;
+    }
+
+    /* To remove the key at position 'index' in sorted order, which is that very key
+    among keys equal to it, unlike remove(Object)
+      @return the removed key */
+    public String removeAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        String removed = deleteAt(root, index);
+        if (!root.isLeaf() && root.keySize == 0) {
+            root = root.children[0];
+        }
+        size--;
+        return removed;
+    }
+
+    // To remove the key at position 'index' of the subtree of 'node', found by the subtree key counts
+    private String deleteAt(Node node, int index) {
+        node.count--;
+        if (node.isLeaf()) {
+            String removed = node.key(index);
+            node.removeKey(index);
+            return removed;
+        }
+        int childIndex = 0;
+        while (index >= node.children[childIndex].count) {
+            index -= node.children[childIndex].count;
+            childIndex++;
+        }
+        String removed = deleteAt(node.children[childIndex], index);
+        rebalanceChild(node, childIndex);
+        return removed;
+    }
+
+    /* restores the minimum key count of the child at 'childIndex' by borrowing from a
+    sibling, or merging with a sibling */
+    private void rebalanceChild(Node parent, int childIndex) {
+        Node node = parent.children[childIndex];
+        int minKeySize = maxKeySize / 2;
+        if (node.keySize >= minKeySize) {
+            return;
+        }
+        Node left = childIndex > 0 ? parent.children[childIndex - 1] : null;
+        Node right = childIndex < parent.keySize ? parent.children[childIndex + 1] : null;
+        if (left != null && left.keySize > minKeySize) {
+            if (node.isLeaf()) {
+                // To move the last key of the left leaf over and separate the leaves anew
+                node.insertKey(0, left.key(left.keySize - 1));
+                left.removeKey(left.keySize - 1);
+                left.count--;
+                node.count++;
+                parent.replaceKey(childIndex - 1,
+                        shortestSeparator(left.key(left.keySize - 1), node.key(0)));
+            } else {
+                // To rotate the last child of the left sibling through the parent's separator
+                node.insertKey(0, parent.key(childIndex - 1));
+                parent.replaceKey(childIndex - 1, left.key(left.keySize - 1));
+                Node movedChild = left.children[left.keySize];
+                left.children[left.keySize] = null;
+                left.removeKey(left.keySize - 1);
+                System.arraycopy(node.children, 0, node.children, 1, node.keySize);
+                node.children[0] = movedChild;
+                left.count -= movedChild.count;
+                node.count += movedChild.count;
+            }
+        } else if (right != null && right.keySize > minKeySize) {
+            if (node.isLeaf()) {
+                // To move the first key of the right leaf over and separate the leaves anew
+                node.insertKey(node.keySize, right.key(0));
+                right.removeKey(0);
+                right.count--;
+                node.count++;
+                parent.replaceKey(childIndex,
+                        shortestSeparator(node.key(node.keySize - 1), right.key(0)));
+            } else {
+                // To rotate the first child of the right sibling through the parent's separator
+                node.insertKey(node.keySize, parent.key(childIndex));
+                parent.replaceKey(childIndex, right.key(0));
+                Node movedChild = right.children[0];
+                System.arraycopy(right.children, 1, right.children, 0, right.keySize);
+                right.children[right.keySize] = null;
+                right.removeKey(0);
+                node.children[node.keySize] = movedChild;
+                right.count -= movedChild.count;
+                node.count += movedChild.count;
+            }
+        } else if (left != null) {
+            merge(parent, childIndex - 1);
+        } else {
+            merge(parent, childIndex);
+        }
+    }
+
+    /* To merge the children on both sides of the parent's separator at 'keyIndex' into
+    the left one; the separator is dropped between leaves and pulled down between inner nodes */
+    private static void merge(Node parent, int keyIndex) {
+        Node left = parent.children[keyIndex];
+        Node right = parent.children[keyIndex + 1];
+        String[] keys;
+        if (left.isLeaf()) {
+            keys = new String[left.keySize + right.keySize];
+            right.copyKeys(keys, left.keySize);
+        } else {
+            keys = new String[left.keySize + 1 + right.keySize];
+            keys[left.keySize] = parent.key(keyIndex);
+            right.copyKeys(keys, left.keySize + 1);
+            System.arraycopy(right.children, 0, left.children, left.keySize + 1, right.keySize + 1);
+        }
+        left.copyKeys(keys, 0);
+        left.pack(keys, 0, keys.length);
+        left.count += right.count;
+
+        parent.removeKey(keyIndex);
+        System.arraycopy(parent.children, keyIndex + 2, parent.children, keyIndex + 1,
+                parent.keySize - keyIndex);
+        parent.children[parent.keySize + 1] = null;
+    }
+
+    @Override
+    public void clear() {
+        root = new Node(maxKeySize + 1, true);
+        size = 0;
+    }
+
+    @Override
+    public boolean contains(Object value) {
+        return value instanceof String && find(root, (String) value);
+    }
+
+    private static boolean find(Node node, String value) {
+        if (node.isLeaf()) {
+            int keyIndex = node.lowerBound(value);
+            return keyIndex < node.keySize && node.compare(keyIndex, value) == 0;
+        }
+        int childIndex = node.upperBound(value);
+        return find(node.children[childIndex], value)
+                || (childIndex > 0 && node.compare(childIndex - 1, value) == 0
+                && find(node.children[childIndex - 1], value));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public String elementAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        Node node = root;
+        while (!node.isLeaf()) {
+            int childIndex = 0;
+            while (index >= node.children[childIndex].count) {
+                index -= node.children[childIndex].count;
+                childIndex++;
+            }
+            node = node.children[childIndex];
+        }
+        return node.key(index);
+    }
+
+    // To release the spare capacity the packed suffixes keep for cheap inserts
+    public void trimToSize() {
+        root.trimToSize();
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new LeafIterator();
+    }
+
+    // number of leading chars that 'first' and 'second' have in common
+    private static int mismatch(CharSequence first, CharSequence second) {
+        int length = Math.min(first.length(), second.length());
+        int index = 0;
+        while (index < length && first.charAt(index) == second.charAt(index)) {
+            index++;
+        }
+        return index;
+    }
+
+    private static int mismatch(char[] prefix, String value) {
+        int length = Math.min(prefix.length, value.length());
+        int index = 0;
+        while (index < length && prefix[index] == value.charAt(index)) {
+            index++;
+        }
+        return index;
+    }
+
+    /* iterates the leaves left to right with a path of inner nodes and child positions;
+    remove() deletes the last returned key by its position and rebuilds the path to the
+    next one, as the nodes on it may have been rebalanced */
+    private final class LeafIterator implements Iterator<String> {
+        private final Node[] nodePath;
+        private final int[] childIndexPath;
+        private int depth = -1;
+        private Node leaf;
+        private int keyIndex;
+        // positions of the next key and of the last returned one, -1 when there is none to remove
+        private int nextIndex;
+        private int lastIndex = -1;
+
+        private LeafIterator() {
+            int height = 0;
+            for (Node node = root; !node.isLeaf(); node = node.children[0]) {
+                height++;
+            }
+            nodePath = new Node[height];
+            childIndexPath = new int[height];
+            if (size > 0) {
+                pushLeftPath(root);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return leaf != null;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String resultKey = leaf.key(keyIndex);
+            lastIndex = nextIndex++;
+            if (++keyIndex == leaf.keySize) {
+                // To climb to the nearest inner node with a child right of the path
+                while (depth >= 0 && childIndexPath[depth] == nodePath[depth].keySize) {
+                    depth--;
+                }
+                leaf = null;
+                if (depth >= 0) {
+                    pushLeftPath(nodePath[depth].children[++childIndexPath[depth]]);
+                }
+            }
+            return resultKey;
+        }
+
+        @Override
+        public void remove() {
+            if (lastIndex < 0) {
+                throw new IllegalStateException();
+            }
+            removeAt(lastIndex);
+            nextIndex = lastIndex;
+            lastIndex = -1;
+            seekAt(nextIndex);
+        }
+
+        // To rebuild the path down to the key at position 'index', none past the last key
+        private void seekAt(int index) {
+            depth = -1;
+            leaf = null;
+            if (index >= size) {
+                return;
+            }
+            Node node = root;
+            while (!node.isLeaf()) {
+                int childIndex = 0;
+                while (index >= node.children[childIndex].count) {
+                    index -= node.children[childIndex].count;
+                    childIndex++;
+                }
+                depth++;
+                nodePath[depth] = node;
+                childIndexPath[depth] = childIndex;
+                node = node.children[childIndex];
+            }
+            leaf = node;
+            keyIndex = index;
+        }
+
+        private void pushLeftPath(Node node) {
+            while (!node.isLeaf()) {
+                depth++;
+                nodePath[depth] = node;
+                childIndexPath[depth] = 0;
+                node = node.children[0];
+            }
+            leaf = node;
+            keyIndex = 0;
+        }
+    }
+
+    private static final class Node {
+        // shared by every key of the node
+        private char[] prefix = EMPTY;
+        // suffix of key 'i' is [ends[i - 1], ends[i]), with spare capacity at the end
+        private char[] suffixes = EMPTY;
+        // one slot over the maximum for the key that overflows a node before its split
+        private final int[] ends;
+        // null for a leaf
+        private final Node[] children;
+        private int keySize;
+        // number of keys stored in the leaves below this node
+        private int count;
+
+        private Node(int order, boolean leaf) {
+            this.ends = new int[order];
+            this.children = leaf ? null : new Node[order + 1];
+        }
+
+        private boolean isLeaf() {
+            return children == null;
+        }
+
+        private int start(int keyIndex) {
+            return keyIndex == 0 ? 0 : ends[keyIndex - 1];
+        }
+
+        private String key(int keyIndex) {
+            int start = start(keyIndex);
+            char[] chars = Arrays.copyOf(prefix, prefix.length + ends[keyIndex] - start);
+            System.arraycopy(suffixes, start, chars, prefix.length, ends[keyIndex] - start);
+            return new String(chars);
+        }
+
+        private String[] keys() {
+            String[] keys = new String[keySize];
+            copyKeys(keys, 0);
+            return keys;
+        }
+
+        private void copyKeys(String[] keys, int offset) {
+            for (int keyIndex = 0; keyIndex < keySize; keyIndex++) {
+                keys[offset + keyIndex] = key(keyIndex);
+            }
+        }
+
+        // compares key 'keyIndex' with 'value', past the shared prefix that both start with
+        private int compareSuffix(int keyIndex, String value) {
+            int start = start(keyIndex);
+            int suffixLength = ends[keyIndex] - start;
+            int valueLength = value.length() - prefix.length;
+            int length = Math.min(suffixLength, valueLength);
+            for (int index = 0; index < length; index++) {
+                char keyChar = suffixes[start + index];
+                char valueChar = value.charAt(prefix.length + index);
+                if (keyChar != valueChar) {
+                    return keyChar - valueChar;
+                }
+            }
+            return suffixLength - valueLength;
+        }
+
+        private int compare(int keyIndex, String value) {
+            int common = mismatch(prefix, value);
+            if (common < prefix.length) {
+                return common == value.length() ? 1 : prefix[common] - value.charAt(common);
+            }
+            return compareSuffix(keyIndex, value);
+        }
+
+        // index of the first key greater than/equal to 'value'
+        private int lowerBound(String value) {
+            return search(value, false);
+        }
+
+        // index of the first key greater than 'value'
+        private int upperBound(String value) {
+            return search(value, true);
+        }
+
+        private int search(String value, boolean upper) {
+            int common = mismatch(prefix, value);
+            if (common < prefix.length) {
+                // 'value' leaves the shared prefix, so it orders before or after all keys at once
+                boolean before = common == value.length() || value.charAt(common) < prefix[common];
+                return before ? 0 : keySize;
+            }
+            int low = 0;
+            int high = keySize;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int comparison = compareSuffix(mid, value);
+                if (comparison < 0 || (upper && comparison == 0)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private void insertKey(int keyIndex, String value) {
+            if (keySize == 0) {
+                prefix = value.toCharArray();
+                ends[0] = 0;
+                keySize = 1;
+                return;
+            }
+            int common = mismatch(prefix, value);
+            if (common < prefix.length) {
+                shortenPrefix(common);
+            }
+            int suffixLength = value.length() - prefix.length;
+            int used = ends[keySize - 1];
+            if (used + suffixLength > suffixes.length) {
+                suffixes = Arrays.copyOf(suffixes, Math.max(used + suffixLength, suffixes.length * 3 / 2));
+            }
+            int start = start(keyIndex);
+            System.arraycopy(suffixes, start, suffixes, start + suffixLength, used - start);
+            value.getChars(prefix.length, value.length(), suffixes, start);
+            System.arraycopy(ends, keyIndex, ends, keyIndex + 1, keySize - keyIndex);
+            for (int index = keyIndex + 1; index <= keySize; index++) {
+                ends[index] += suffixLength;
+            }
+            ends[keyIndex] = start + suffixLength;
+            keySize++;
+        }
+
+        // To move the chars of the prefix past 'length' back into the front of every suffix
+        private void shortenPrefix(int length) {
+            int moved = prefix.length - length;
+            char[] shortened = new char[ends[keySize - 1] + moved * keySize];
+            int start = 0;
+            for (int keyIndex = 0; keyIndex < keySize; keyIndex++) {
+                int newStart = start + moved * keyIndex;
+                System.arraycopy(prefix, length, shortened, newStart, moved);
+                System.arraycopy(suffixes, start, shortened, newStart + moved, ends[keyIndex] - start);
+                start = ends[keyIndex];
+                ends[keyIndex] += moved * (keyIndex + 1);
+            }
+            suffixes = shortened;
+            prefix = Arrays.copyOf(prefix, length);
+        }
+
+        private void removeKey(int keyIndex) {
+            int start = start(keyIndex);
+            int suffixLength = ends[keyIndex] - start;
+            System.arraycopy(suffixes, ends[keyIndex], suffixes, start, ends[keySize - 1] - ends[keyIndex]);
+            System.arraycopy(ends, keyIndex + 1, ends, keyIndex, keySize - keyIndex - 1);
+            keySize--;
+            for (int index = keyIndex; index < keySize; index++) {
+                ends[index] -= suffixLength;
+            }
+        }
+
+        private void replaceKey(int keyIndex, String value) {
+            removeKey(keyIndex);
+            insertKey(keyIndex, value);
+        }
+
+        /* To replace the keys of the node with the sorted keys[from, to); the prefix they
+        share is the one shared by the first and the last */
+        private void pack(String[] keys, int from, int to) {
+            keySize = to - from;
+            if (keySize == 0) {
+                prefix = EMPTY;
+                return;
+            }
+            int prefixLength = mismatch(keys[from], keys[to - 1]);
+            prefix = keys[from].substring(0, prefixLength).toCharArray();
+            int used = 0;
+            for (int index = from; index < to; index++) {
+                used += keys[index].length() - prefixLength;
+            }
+            suffixes = new char[used];
+            int end = 0;
+            for (int keyIndex = 0; keyIndex < keySize; keyIndex++) {
+                String key = keys[from + keyIndex];
+                key.getChars(prefixLength, key.length(), suffixes, end);
+                end += key.length() - prefixLength;
+                ends[keyIndex] = end;
+            }
+        }
+
+        private void trimToSize() {
+            suffixes = Arrays.copyOf(suffixes, keySize == 0 ? 0 : ends[keySize - 1]);
+            if (!isLeaf()) {
+                for (int childIndex = 0; childIndex <= keySize; childIndex++) {
+                    children[childIndex].trimToSize();
+                }
+            }
+        }
+
+        private int countKeys() {
+            if (isLeaf()) {
+                return keySize;
+            }
+            int count = 0;
+            for (int childIndex = 0; childIndex <= keySize; childIndex++) {
+                count += children[childIndex].count;
+            }
+            return count;
+        }
+    }
+}
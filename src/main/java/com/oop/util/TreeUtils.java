@@ -27,9 +27,16 @@ public class TreeUtils {
       @param dataMapper - function to show specific data from returned list of objects */
     public static <T, R> List<?> toList(Tree<T> tree, Comparator<T> comparator,
                                         Predicate<T> predicate, Function<T, R> dataMapper) {
-        List<T> sortedList = toList(tree, comparator);
-        return sortedList.stream()
+        // a comparator that is the tree's own ordering reads the tree without sorting
+        return Query.from(tree).where(predicate).orderBy(comparator).select(dataMapper);
+    }
+
+    // as toList(tree, comparator, predicate, dataMapper), filtering and mapping on the common fork-join pool
+    public static <T, R> List<?> toListParallel(Tree<T> tree, Comparator<T> comparator,
+                                                Predicate<T> predicate, Function<T, R> dataMapper) {
+        return tree.parallelStream()
                 .filter(predicate)
+                .sorted(comparator)
                 .map(dataMapper)
                 .collect(Collectors.toList());
     }
@@ -0,0 +1,73 @@
+package com.oop.util;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/* Vectorised KeySearch: binary search narrows the keys down to a window of a few
+   vectors, which is then scanned a vector at a time with one compare per vector in
+   place of a hard to predict branch per key. As the keys are sorted, the keys less
+   than the value found by a compare are the leading lanes of its mask. Only compiled
+   with the 'vector' profile, and only loaded by KeySearch once the jdk.incubator.vector
+   module is known to be there. */
+final class VectorKeySearch {
+    private static final VectorSpecies<Integer> INT_SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONG_SPECIES = LongVector.SPECIES_PREFERRED;
+    static final int INT_LANES = INT_SPECIES.length();
+    static final int LONG_LANES = LONG_SPECIES.length();
+    // keys left to the vector scan, below which binary search stops
+    private static final int INT_WINDOW = 4 * INT_LANES;
+    private static final int LONG_WINDOW = 4 * LONG_LANES;
+
+    private VectorKeySearch() {
+    }
+
+    // for at least INT_LANES keys
+    static int lowerBound(int[] keys, int keySize, int value) {
+        int low = 0;
+        int high = keySize;
+        while (high - low > INT_WINDOW) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        // vectors of the window, the last one moved back to end at the last key
+        for (int index = Math.min(low, keySize - INT_LANES); index < high; index += INT_LANES) {
+            index = Math.min(index, keySize - INT_LANES);
+            VectorMask<Integer> less = IntVector.fromArray(INT_SPECIES, keys, index)
+                    .compare(VectorOperators.LT, value);
+            if (!less.allTrue()) {
+                return index + less.trueCount();
+            }
+        }
+        return high;
+    }
+
+    // for at least LONG_LANES keys
+    static int lowerBound(long[] keys, int keySize, long value) {
+        int low = 0;
+        int high = keySize;
+        while (high - low > LONG_WINDOW) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int index = Math.min(low, keySize - LONG_LANES); index < high; index += LONG_LANES) {
+            index = Math.min(index, keySize - LONG_LANES);
+            VectorMask<Long> less = LongVector.fromArray(LONG_SPECIES, keys, index)
+                    .compare(VectorOperators.LT, value);
+            if (!less.allTrue()) {
+                return index + less.trueCount();
+            }
+        }
+        return high;
+    }
+}
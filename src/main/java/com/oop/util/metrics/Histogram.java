@@ -0,0 +1,104 @@
+package com.oop.util.metrics;
+
+import java.util.Arrays;
+
+/* Histogram of non-negative long values in log-linear buckets, in the manner of
+   HdrHistogram: values below 128 get a bucket each, larger values share buckets that
+   span 1/64 of their power of two, so any recorded value is reported within 1.6% of
+   its true value. The bucket array has a fixed size, recording never allocates. Not
+   thread safe; a reader on another thread may see a count a few records behind. */
+public class Histogram {
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT >> 1;
+    // buckets up to the largest long, whose top bit is bit 62
+    private static final int BUCKET_COUNT = bucketIndex(Long.MAX_VALUE) + 1;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long totalCount;
+    private long total;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    /* index of the bucket of 'value': the value itself below SUB_BUCKET_COUNT, above
+    that 'shift' is the number of low bits dropped to leave the top SUB_BUCKET_BITS - 1 */
+    private static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        return SUB_BUCKET_HALF * shift + (int) (value >>> shift);
+    }
+
+    // largest value that falls in the bucket at 'index'
+    private static long highestValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_HALF - 1;
+        long subBucket = index - (long) SUB_BUCKET_HALF * shift;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    public void record(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value must not be negative: " + value);
+        }
+        counts[bucketIndex(value)]++;
+        totalCount++;
+        total += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    public long count() {
+        return totalCount;
+    }
+
+    public long min() {
+        return totalCount == 0 ? 0 : min;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    public double mean() {
+        return totalCount == 0 ? 0 : (double) total / totalCount;
+    }
+
+    /* @param percentile - in the range [0, 100]
+      @return value at or below which 'percentile' percent of the recorded values fall,
+      reported as the largest value of its bucket */
+    public long valueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be within [0, 100]: " + percentile);
+        }
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+        long seen = 0;
+        for (int index = 0; index < counts.length; index++) {
+            seen += counts[index];
+            if (seen >= rank) {
+                return Math.min(highestValue(index), max);
+            }
+        }
+        return max;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        total = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + totalCount + " min=" + min() + " mean=" + String.format("%.1f", mean())
+                + " p50=" + valueAtPercentile(50) + " p99=" + valueAtPercentile(99) + " max=" + max;
+    }
+}
@@ -0,0 +1,115 @@
+package com.oop.util.metrics;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/* Counters and histograms recorded by a tree once they are enabled on it, e.g. with
+   BTree.enableMetrics(). A tree without metrics only tests a null field per operation.
+   Like the tree it is recorded by, it is not thread safe. */
+public class TreeMetrics {
+
+    public enum Operation {
+        ADD, REMOVE, CONTAINS, ELEMENT_AT
+    }
+
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Histogram splitCascades = new Histogram();
+    private final Histogram comparisons = new Histogram();
+    private final List<TreeMetricsListener> listeners = new CopyOnWriteArrayList<>();
+    private long splitCount;
+    private long mergeCount;
+
+    public TreeMetrics() {
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new Histogram());
+        }
+    }
+
+    public void addListener(TreeMetricsListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(TreeMetricsListener listener) {
+        listeners.remove(listener);
+    }
+
+    public void recordOperation(Operation operation, long nanos) {
+        latencies.get(operation).record(nanos);
+        for (TreeMetricsListener listener : listeners) {
+            listener.onOperation(operation, nanos);
+        }
+    }
+
+    // To count a single node split, one level of a cascade
+    public void recordSplit() {
+        splitCount++;
+    }
+
+    // To record the number of nodes split by one add
+    public void recordSplitCascade(int depth) {
+        splitCascades.record(depth);
+        for (TreeMetricsListener listener : listeners) {
+            listener.onSplit(depth);
+        }
+    }
+
+    public void recordMerge() {
+        mergeCount++;
+        for (TreeMetricsListener listener : listeners) {
+            listener.onMerge();
+        }
+    }
+
+    // To record the key comparisons made by one lookup
+    public void recordComparisons(int count) {
+        comparisons.record(count);
+    }
+
+    public long operationCount(Operation operation) {
+        return latencies.get(operation).count();
+    }
+
+    // latencies of 'operation' in nanoseconds
+    public Histogram latency(Operation operation) {
+        return latencies.get(operation);
+    }
+
+    public long splitCount() {
+        return splitCount;
+    }
+
+    public long mergeCount() {
+        return mergeCount;
+    }
+
+    // nodes split per add that split at least one node
+    public Histogram splitCascades() {
+        return splitCascades;
+    }
+
+    // key comparisons per contains
+    public Histogram comparisons() {
+        return comparisons;
+    }
+
+    public void reset() {
+        latencies.values().forEach(Histogram::reset);
+        splitCascades.reset();
+        comparisons.reset();
+        splitCount = 0;
+        mergeCount = 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        latencies.forEach((operation, latency) ->
+                builder.append(operation).append(" ns: ").append(latency).append("\n"));
+        builder.append("splits: ").append(splitCount).append(", cascades: ").append(splitCascades).append("\n");
+        builder.append("merges: ").append(mergeCount).append("\n");
+        builder.append("comparisons per lookup: ").append(comparisons);
+        return builder.toString();
+    }
+}
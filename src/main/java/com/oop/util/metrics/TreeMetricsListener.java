@@ -0,0 +1,19 @@
+package com.oop.util.metrics;
+
+/* Receives the events of a tree with metrics enabled, on the thread modifying or
+   reading the tree, so implementations should return quickly. Every method defaults
+   to doing nothing. */
+public interface TreeMetricsListener {
+
+    // after an operation that took 'nanos' nanoseconds
+    default void onOperation(TreeMetrics.Operation operation, long nanos) {
+    }
+
+    // after an add that split 'depth' nodes, from a leaf up towards the root
+    default void onSplit(int depth) {
+    }
+
+    // after two nodes were merged by a removal
+    default void onMerge() {
+    }
+}
@@ -0,0 +1,41 @@
+package com.oop.util.metrics;
+
+// Metrics of a tree exposed through JMX, latencies in nanoseconds
+public interface TreeMetricsMXBean {
+
+    int getSize();
+
+    int getHeight();
+
+    int getNodeCount();
+
+    double getAverageFill();
+
+    long getAddCount();
+
+    long getRemoveCount();
+
+    long getContainsCount();
+
+    long getElementAtCount();
+
+    long getAddLatency50thPercentile();
+
+    long getAddLatency99thPercentile();
+
+    long getContainsLatency50thPercentile();
+
+    long getContainsLatency99thPercentile();
+
+    long getElementAtLatency99thPercentile();
+
+    long getSplitCount();
+
+    long getMaxSplitCascade();
+
+    long getMergeCount();
+
+    double getMeanComparisonsPerLookup();
+
+    void reset();
+}
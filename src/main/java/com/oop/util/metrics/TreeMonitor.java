@@ -0,0 +1,138 @@
+package com.oop.util.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+import static com.oop.util.metrics.TreeMetrics.Operation.ADD;
+import static com.oop.util.metrics.TreeMetrics.Operation.CONTAINS;
+import static com.oop.util.metrics.TreeMetrics.Operation.ELEMENT_AT;
+import static com.oop.util.metrics.TreeMetrics.Operation.REMOVE;
+
+/* MXBean over the metrics and structure of one tree. A structural attribute walks the
+   tree on every read, so it should be polled rather than read in a loop. Example:
+       TreeMonitor.register(tree.enableMetrics(), tree::stats, "com.oop.util:type=BTree,name=students") */
+public class TreeMonitor implements TreeMetricsMXBean {
+    private final TreeMetrics metrics;
+    private final Supplier<TreeStats> stats;
+
+    public TreeMonitor(TreeMetrics metrics, Supplier<TreeStats> stats) {
+        this.metrics = metrics;
+        this.stats = stats;
+    }
+
+    /* Registers a monitor of 'metrics' and 'stats' with the platform MBean server
+      @return name to unregister it with */
+    public static ObjectName register(TreeMetrics metrics, Supplier<TreeStats> stats, String name) {
+        try {
+            ObjectName objectName = new ObjectName(name);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new TreeMonitor(metrics, stats), objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalArgumentException("Cannot register tree monitor " + name, e);
+        }
+    }
+
+    public static void unregister(ObjectName name) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            throw new IllegalArgumentException("Cannot unregister tree monitor " + name, e);
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return stats.get().size();
+    }
+
+    @Override
+    public int getHeight() {
+        return stats.get().height();
+    }
+
+    @Override
+    public int getNodeCount() {
+        return stats.get().nodeCount();
+    }
+
+    @Override
+    public double getAverageFill() {
+        return stats.get().averageFill();
+    }
+
+    @Override
+    public long getAddCount() {
+        return metrics.operationCount(ADD);
+    }
+
+    @Override
+    public long getRemoveCount() {
+        return metrics.operationCount(REMOVE);
+    }
+
+    @Override
+    public long getContainsCount() {
+        return metrics.operationCount(CONTAINS);
+    }
+
+    @Override
+    public long getElementAtCount() {
+        return metrics.operationCount(ELEMENT_AT);
+    }
+
+    @Override
+    public long getAddLatency50thPercentile() {
+        return metrics.latency(ADD).valueAtPercentile(50);
+    }
+
+    @Override
+    public long getAddLatency99thPercentile() {
+        return metrics.latency(ADD).valueAtPercentile(99);
+    }
+
+    @Override
+    public long getContainsLatency50thPercentile() {
+        return metrics.latency(CONTAINS).valueAtPercentile(50);
+    }
+
+    @Override
+    public long getContainsLatency99thPercentile() {
+        return metrics.latency(CONTAINS).valueAtPercentile(99);
+    }
+
+    @Override
+    public long getElementAtLatency99thPercentile() {
+        return metrics.latency(ELEMENT_AT).valueAtPercentile(99);
+    }
+
+    @Override
+    public long getSplitCount() {
+        return metrics.splitCount();
+    }
+
+    @Override
+    public long getMaxSplitCascade() {
+        return metrics.splitCascades().max();
+    }
+
+    @Override
+    public long getMergeCount() {
+        return metrics.mergeCount();
+    }
+
+    @Override
+    public double getMeanComparisonsPerLookup() {
+        return metrics.comparisons().mean();
+    }
+
+    @Override
+    public void reset() {
+        metrics.reset();
+    }
+}
@@ -0,0 +1,66 @@
+package com.oop.util.metrics;
+
+import java.util.Arrays;
+
+/* Structural snapshot of a tree: its height and, per level from the root down, the
+   number of nodes and keys. The fill of a level is its share of the keys its nodes
+   could hold, 'order' - 1 each, which shows how well an order suits the data. */
+public final class TreeStats {
+    private final int order;
+    private final int size;
+    private final int[] nodesPerLevel;
+    private final int[] keysPerLevel;
+
+    public TreeStats(int order, int size, int[] nodesPerLevel, int[] keysPerLevel) {
+        this.order = order;
+        this.size = size;
+        this.nodesPerLevel = nodesPerLevel.clone();
+        this.keysPerLevel = keysPerLevel.clone();
+    }
+
+    public int order() {
+        return order;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int height() {
+        return nodesPerLevel.length;
+    }
+
+    public int nodeCount() {
+        return Arrays.stream(nodesPerLevel).sum();
+    }
+
+    // number of nodes at 'level', 0 being the root
+    public int nodeCount(int level) {
+        return nodesPerLevel[level];
+    }
+
+    public double averageFill() {
+        return fill(size, nodeCount());
+    }
+
+    public double averageFill(int level) {
+        return fill(keysPerLevel[level], nodesPerLevel[level]);
+    }
+
+    private double fill(int keys, int nodes) {
+        return nodes == 0 ? 0 : (double) keys / ((long) nodes * (order - 1));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("order=").append(order).append(" size=").append(size)
+                .append(" height=").append(height()).append(" nodes=").append(nodeCount())
+                .append(String.format(" fill=%.2f", averageFill()));
+        for (int level = 0; level < height(); level++) {
+            builder.append(String.format("%n  level %d: nodes=%d fill=%.2f",
+                    level, nodesPerLevel[level], averageFill(level)));
+        }
+        return builder.toString();
+    }
+}
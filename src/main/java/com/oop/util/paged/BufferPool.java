@@ -0,0 +1,180 @@
+package com.oop.util.paged;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/* Bounded cache of decoded pages between a tree and its PageStore. A page is pinned
+   while it is in use and cannot be evicted until every pin is released; unpinning a
+   modified page marks it dirty so it is stored when evicted or flushed. When every
+   cached page is pinned the pool goes over capacity rather than failing, and shrinks
+   back as pages are unpinned. A pool created without 'steal' never evicts dirty pages,
+   they stay cached until flush() stores them. */
+public class BufferPool<P> {
+
+    // Decodes pages from and encodes them to the underlying storage
+    public interface PageStore<P> {
+
+        P load(int pageId);
+
+        void store(int pageId, P page);
+    }
+
+    private final int capacity;
+    private final EvictionPolicy policy;
+    private final PageStore<P> store;
+    private final boolean steal;
+    private final Map<Integer, Frame<P>> frames = new HashMap<>();
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private int dirtyCount;
+
+    public BufferPool(int capacity, EvictionPolicy policy, PageStore<P> store) {
+        this(capacity, policy, store, true);
+    }
+
+    public BufferPool(int capacity, EvictionPolicy policy, PageStore<P> store, boolean steal) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.policy = policy;
+        this.store = store;
+        this.steal = steal;
+    }
+
+    // To get page 'pageId', loading it on a miss, and pin it
+    public P pin(int pageId) {
+        Frame<P> frame = frames.get(pageId);
+        if (frame != null) {
+            hitCount++;
+            policy.recordAccess(pageId);
+        } else {
+            missCount++;
+            evict(capacity - 1);
+            frame = new Frame<>(store.load(pageId));
+            frames.put(pageId, frame);
+            policy.recordInsert(pageId);
+        }
+        frame.pinCount++;
+        return frame.page;
+    }
+
+    // To cache a page just allocated by the caller, pinned and dirty
+    public void pinNew(int pageId, P page) {
+        if (frames.containsKey(pageId)) {
+            throw new IllegalStateException("Page " + pageId + " is already cached");
+        }
+        evict(capacity - 1);
+        Frame<P> frame = new Frame<>(page);
+        frame.pinCount = 1;
+        frame.dirty = true;
+        dirtyCount++;
+        frames.put(pageId, frame);
+        policy.recordInsert(pageId);
+    }
+
+    public void unpin(int pageId, boolean dirty) {
+        Frame<P> frame = frames.get(pageId);
+        if (frame == null || frame.pinCount == 0) {
+            throw new IllegalStateException("Page " + pageId + " is not pinned");
+        }
+        frame.pinCount--;
+        if (dirty && !frame.dirty) {
+            frame.dirty = true;
+            dirtyCount++;
+        }
+        if (frames.size() > capacity) {
+            evict(capacity);
+        }
+    }
+
+    // To drop page 'pageId' without storing it, once the caller has freed it
+    public void discard(int pageId) {
+        Frame<P> frame = frames.get(pageId);
+        if (frame == null) {
+            return;
+        }
+        if (frame.pinCount > 0) {
+            throw new IllegalStateException("Page " + pageId + " is pinned");
+        }
+        frames.remove(pageId);
+        policy.recordRemove(pageId);
+        if (frame.dirty) {
+            dirtyCount--;
+        }
+    }
+
+    // To store every dirty page, keeping them cached
+    public void flush() {
+        frames.forEach((pageId, frame) -> {
+            if (frame.dirty) {
+                store.store(pageId, frame.page);
+                frame.dirty = false;
+            }
+        });
+        dirtyCount = 0;
+    }
+
+    // To evict unpinned pages until at most 'size' pages are cached
+    private void evict(int size) {
+        while (frames.size() > size) {
+            int pageId = policy.victim(candidate -> isEvictable(frames.get(candidate)));
+            if (pageId == EvictionPolicy.NO_VICTIM) {
+                return;
+            }
+            Frame<P> frame = frames.remove(pageId);
+            if (frame.dirty) {
+                store.store(pageId, frame.page);
+                dirtyCount--;
+            }
+            evictionCount++;
+        }
+    }
+
+    private boolean isEvictable(Frame<P> frame) {
+        return frame.pinCount == 0 && (steal || !frame.dirty);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    // number of pages currently cached
+    public int size() {
+        return frames.size();
+    }
+
+    // number of cached pages modified since they were last stored
+    public int dirtyCount() {
+        return dirtyCount;
+    }
+
+    public long hitCount() {
+        return hitCount;
+    }
+
+    public long missCount() {
+        return missCount;
+    }
+
+    public long evictionCount() {
+        return evictionCount;
+    }
+
+    public void resetCounters() {
+        hitCount = 0;
+        missCount = 0;
+        evictionCount = 0;
+    }
+
+    private static final class Frame<P> {
+        final P page;
+        int pinCount;
+        boolean dirty;
+
+        private Frame(P page) {
+            this.page = page;
+        }
+    }
+}
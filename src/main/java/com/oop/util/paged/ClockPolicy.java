@@ -0,0 +1,74 @@
+package com.oop.util.paged;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+class ClockPolicy implements EvictionPolicy {
+    private static final int EMPTY = -1;
+
+    // circular frames swept by the hand, empty slots are reused before growing
+    private int[] frames = new int[16];
+    private boolean[] referenced = new boolean[16];
+    private int frameCount;
+    private int hand;
+    private final Map<Integer, Integer> slots = new HashMap<>();
+    private final Deque<Integer> emptySlots = new ArrayDeque<>();
+
+    @Override
+    public void recordAccess(int pageId) {
+        Integer slot = slots.get(pageId);
+        if (slot != null) {
+            referenced[slot] = true;
+        }
+    }
+
+    @Override
+    public void recordInsert(int pageId) {
+        int slot;
+        if (!emptySlots.isEmpty()) {
+            slot = emptySlots.pop();
+        } else {
+            if (frameCount == frames.length) {
+                frames = Arrays.copyOf(frames, frameCount * 2);
+                referenced = Arrays.copyOf(referenced, frameCount * 2);
+            }
+            slot = frameCount++;
+        }
+        frames[slot] = pageId;
+        referenced[slot] = false;
+        slots.put(pageId, slot);
+    }
+
+    @Override
+    public void recordRemove(int pageId) {
+        Integer slot = slots.remove(pageId);
+        if (slot != null) {
+            frames[slot] = EMPTY;
+            emptySlots.push(slot);
+        }
+    }
+
+    @Override
+    public int victim(IntPredicate evictable) {
+        // two sweeps clear every reference bit, a third finding nothing means all pages are pinned
+        for (int step = 0; step < 3 * frameCount; step++) {
+            int slot = hand;
+            hand = (hand + 1) % frameCount;
+            int pageId = frames[slot];
+            if (pageId == EMPTY || !evictable.test(pageId)) {
+                continue;
+            }
+            if (referenced[slot]) {
+                referenced[slot] = false;
+            } else {
+                recordRemove(pageId);
+                return pageId;
+            }
+        }
+        return NO_VICTIM;
+    }
+}
@@ -0,0 +1,39 @@
+package com.oop.util.paged;
+
+import java.util.function.IntPredicate;
+
+/* Decides which cached page a BufferPool gives up when it is full. The pool reports
+   every page it caches, hits and discards; victim() picks among the pages the pool
+   can evict (unpinned ones) and forgets the page it returns. */
+public interface EvictionPolicy {
+
+    int NO_VICTIM = -1;
+
+    // a cached page was requested again
+    void recordAccess(int pageId);
+
+    // a page was loaded into the pool
+    void recordInsert(int pageId);
+
+    // a page left the pool without being chosen as a victim
+    void recordRemove(int pageId);
+
+    // page to evict among those accepted by 'evictable', or NO_VICTIM when there is none
+    int victim(IntPredicate evictable);
+
+    // evicts the least recently used page
+    static EvictionPolicy lru() {
+        return new LruPolicy();
+    }
+
+    // second chance approximation of LRU, a hit only sets a reference bit
+    static EvictionPolicy clock() {
+        return new ClockPolicy();
+    }
+
+    /* keeps pages touched once in a FIFO queue and promotes pages seen again after
+       leaving it to an LRU queue, so a single scan cannot flush the hot pages */
+    static EvictionPolicy twoQueue(int capacity) {
+        return new TwoQueuePolicy(capacity);
+    }
+}
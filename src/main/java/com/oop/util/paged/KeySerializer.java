@@ -0,0 +1,96 @@
+package com.oop.util.paged;
+
+import com.oop.model.Student;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/* Writes keys into and reads them back from node pages and snapshot files; every key
+   must fit in maxLength() bytes, which sizes how many keys a page can hold */
+public interface KeySerializer<T> {
+
+    int maxLength();
+
+    void write(T key, ByteBuffer buffer);
+
+    T read(ByteBuffer buffer);
+
+    static KeySerializer<Integer> integerSerializer() {
+        return new KeySerializer<Integer>() {
+            public int maxLength() {
+                return Integer.BYTES;
+            }
+
+            public void write(Integer key, ByteBuffer buffer) {
+                buffer.putInt(key);
+            }
+
+            public Integer read(ByteBuffer buffer) {
+                return buffer.getInt();
+            }
+        };
+    }
+
+    static KeySerializer<Long> longSerializer() {
+        return new KeySerializer<Long>() {
+            public int maxLength() {
+                return Long.BYTES;
+            }
+
+            public void write(Long key, ByteBuffer buffer) {
+                buffer.putLong(key);
+            }
+
+            public Long read(ByteBuffer buffer) {
+                return buffer.getLong();
+            }
+        };
+    }
+
+    // UTF-8 strings of up to 'maxBytes' encoded bytes, stored with a length prefix
+    static KeySerializer<String> stringSerializer(int maxBytes) {
+        if (maxBytes <= 0 || maxBytes > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("maxBytes must be in the range [1, 32767]: " + maxBytes);
+        }
+        return new KeySerializer<String>() {
+            public int maxLength() {
+                return Short.BYTES + maxBytes;
+            }
+
+            public void write(String key, ByteBuffer buffer) {
+                byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+                if (bytes.length > maxBytes) {
+                    throw new IllegalArgumentException("Key longer than " + maxBytes + " bytes: " + key);
+                }
+                buffer.putShort((short) bytes.length).put(bytes);
+            }
+
+            public String read(ByteBuffer buffer) {
+                byte[] bytes = new byte[buffer.getShort()];
+                buffer.get(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+        };
+    }
+
+    // Students as red id, gpa and a UTF-8 name of up to 'maxNameBytes' encoded bytes
+    static KeySerializer<Student> studentSerializer(int maxNameBytes) {
+        KeySerializer<String> names = stringSerializer(maxNameBytes);
+        return new KeySerializer<Student>() {
+            public int maxLength() {
+                return Integer.BYTES + Float.BYTES + names.maxLength();
+            }
+
+            public void write(Student key, ByteBuffer buffer) {
+                buffer.putInt(key.getRedId()).putFloat(key.getGpa());
+                names.write(key.getName(), buffer);
+            }
+
+            public Student read(ByteBuffer buffer) {
+                int redId = buffer.getInt();
+                float gpa = buffer.getFloat();
+                return new Student(names.read(buffer), redId, gpa);
+            }
+        };
+    }
+}
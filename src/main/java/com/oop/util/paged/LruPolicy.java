@@ -0,0 +1,42 @@
+package com.oop.util.paged;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.function.IntPredicate;
+
+class LruPolicy implements EvictionPolicy {
+    // least recently used page first
+    private final LinkedHashSet<Integer> pages = new LinkedHashSet<>();
+
+    @Override
+    public void recordAccess(int pageId) {
+        pages.remove(pageId);
+        pages.add(pageId);
+    }
+
+    @Override
+    public void recordInsert(int pageId) {
+        pages.add(pageId);
+    }
+
+    @Override
+    public void recordRemove(int pageId) {
+        pages.remove(pageId);
+    }
+
+    @Override
+    public int victim(IntPredicate evictable) {
+        return removeFirst(pages, evictable);
+    }
+
+    static int removeFirst(Iterable<Integer> pages, IntPredicate evictable) {
+        for (Iterator<Integer> iterator = pages.iterator(); iterator.hasNext(); ) {
+            int pageId = iterator.next();
+            if (evictable.test(pageId)) {
+                iterator.remove();
+                return pageId;
+            }
+        }
+        return NO_VICTIM;
+    }
+}
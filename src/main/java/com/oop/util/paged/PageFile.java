@@ -0,0 +1,186 @@
+package com.oop.util.paged;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/* File of fixed-size pages accessed through memory mappings. Page 0 is the header
+   holding the file format and the tree metadata, pages are handed out by allocate()
+   and returned to a free list by free(), whose links live in the freed pages. The file
+   is mapped in segments so it can grow without remapping the pages already in use.
+   The header is worked on in memory and only written to page 0 by force(), so the
+   metadata on disk always describes pages that were forced along with it. */
+public class PageFile implements Closeable {
+    public static final int DEFAULT_PAGE_SIZE = 4096;
+    // page id used as "no page", the header can never be a node
+    public static final int NO_PAGE = 0;
+
+    private static final int MAGIC = 0x42545245;
+    private static final int FORMAT_VERSION = 1;
+    private static final int PAGES_PER_SEGMENT = 1024;
+
+    // header layout
+    private static final int MAGIC_OFFSET = 0;
+    private static final int FORMAT_VERSION_OFFSET = 4;
+    private static final int PAGE_SIZE_OFFSET = 8;
+    private static final int PAGE_COUNT_OFFSET = 12;
+    private static final int FREE_LIST_OFFSET = 16;
+    private static final int ROOT_PAGE_OFFSET = 20;
+    private static final int MAX_KEY_SIZE_OFFSET = 24;
+    private static final int ENTRY_COUNT_OFFSET = 28;
+    private static final int HEADER_SIZE = ENTRY_COUNT_OFFSET + Long.BYTES;
+
+    private final FileChannel channel;
+    private final int pageSize;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+    private PageFile(FileChannel channel, int pageSize) throws IOException {
+        this.channel = channel;
+        this.pageSize = pageSize;
+        long mappedPages = Math.max(channel.size() / pageSize, 1);
+        for (int pageId = 0; pageId < mappedPages; pageId += PAGES_PER_SEGMENT) {
+            mapSegment();
+        }
+        header.put(page(0).limit(HEADER_SIZE)).clear();
+    }
+
+    /* Opens the page file at 'path', creating it with 'pageSize' pages when it does not
+    exist; an existing file keeps the page size it was created with */
+    public static PageFile open(Path path, int pageSize) throws IOException {
+        if (pageSize < 64 || Integer.bitCount(pageSize) != 1) {
+            throw new IllegalArgumentException("Page size must be a power of two of at least 64: " + pageSize);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                PageFile file = new PageFile(channel, pageSize);
+                file.header.putInt(MAGIC_OFFSET, MAGIC)
+                        .putInt(FORMAT_VERSION_OFFSET, FORMAT_VERSION)
+                        .putInt(PAGE_SIZE_OFFSET, pageSize)
+                        .putInt(PAGE_COUNT_OFFSET, 1)
+                        .putInt(FREE_LIST_OFFSET, NO_PAGE)
+                        .putInt(ROOT_PAGE_OFFSET, NO_PAGE);
+                file.force();
+                return file;
+            }
+            ByteBuffer existingHeader = ByteBuffer.allocate(PAGE_SIZE_OFFSET + Integer.BYTES);
+            channel.read(existingHeader, 0);
+            if (existingHeader.getInt(MAGIC_OFFSET) != MAGIC) {
+                throw new IOException("Not a BTree page file: " + path);
+            }
+            if (existingHeader.getInt(FORMAT_VERSION_OFFSET) != FORMAT_VERSION) {
+                throw new IOException("Unsupported page file version " + existingHeader.getInt(FORMAT_VERSION_OFFSET));
+            }
+            return new PageFile(channel, existingHeader.getInt(PAGE_SIZE_OFFSET));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int pageSize() {
+        return pageSize;
+    }
+
+    // a buffer over exactly the bytes of page 'pageId', positioned at its start
+    public ByteBuffer page(int pageId) {
+        MappedByteBuffer segment = segments.get(pageId / PAGES_PER_SEGMENT);
+        return segment.slice((pageId % PAGES_PER_SEGMENT) * pageSize, pageSize);
+    }
+
+    public int allocate() throws IOException {
+        int pageId = header.getInt(FREE_LIST_OFFSET);
+        if (pageId != NO_PAGE) {
+            header.putInt(FREE_LIST_OFFSET, page(pageId).getInt(0));
+            return pageId;
+        }
+        pageId = header.getInt(PAGE_COUNT_OFFSET);
+        if (pageId == segments.size() * PAGES_PER_SEGMENT) {
+            mapSegment();
+        }
+        header.putInt(PAGE_COUNT_OFFSET, pageId + 1);
+        return pageId;
+    }
+
+    // To write the bytes of 'image' over page 'pageId'
+    public void writePage(int pageId, ByteBuffer image) {
+        page(pageId).put(image.duplicate());
+    }
+
+    public void free(int pageId) {
+        page(pageId).putInt(0, header.getInt(FREE_LIST_OFFSET));
+        header.putInt(FREE_LIST_OFFSET, pageId);
+    }
+
+    private void mapSegment() throws IOException {
+        long segmentBytes = (long) PAGES_PER_SEGMENT * pageSize;
+        segments.add(channel.map(FileChannel.MapMode.READ_WRITE, segments.size() * segmentBytes, segmentBytes));
+    }
+
+    public int pageCount() {
+        return header.getInt(PAGE_COUNT_OFFSET);
+    }
+
+    // To restore the page count recorded with a checkpoint, mapping the pages it covers
+    public void setPageCount(int pageCount) throws IOException {
+        while (segments.size() * PAGES_PER_SEGMENT < pageCount) {
+            mapSegment();
+        }
+        header.putInt(PAGE_COUNT_OFFSET, pageCount);
+    }
+
+    // first page of the free list, NO_PAGE when it is empty
+    public int freeListHead() {
+        return header.getInt(FREE_LIST_OFFSET);
+    }
+
+    public void setFreeListHead(int pageId) {
+        header.putInt(FREE_LIST_OFFSET, pageId);
+    }
+
+    public int rootPageId() {
+        return header.getInt(ROOT_PAGE_OFFSET);
+    }
+
+    public void setRootPageId(int pageId) {
+        header.putInt(ROOT_PAGE_OFFSET, pageId);
+    }
+
+    public int maxKeySize() {
+        return header.getInt(MAX_KEY_SIZE_OFFSET);
+    }
+
+    public void setMaxKeySize(int maxKeySize) {
+        header.putInt(MAX_KEY_SIZE_OFFSET, maxKeySize);
+    }
+
+    public long entryCount() {
+        return header.getLong(ENTRY_COUNT_OFFSET);
+    }
+
+    public void setEntryCount(long entryCount) {
+        header.putLong(ENTRY_COUNT_OFFSET, entryCount);
+    }
+
+    // To write the header and the mapped pages through to the storage device
+    public void force() {
+        page(0).put(header.duplicate());
+        segments.forEach(MappedByteBuffer::force);
+    }
+
+    /* To close the file without writing the header: what was not forced is left out, so
+    that closing after a failed checkpoint or replay keeps the metadata on disk in step
+    with the pages forced along with it */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
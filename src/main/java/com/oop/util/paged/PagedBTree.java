@@ -0,0 +1,781 @@
+package com.oop.util.paged;
+
+import com.oop.util.Tree;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.AbstractCollection;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/* B-Tree stored in a PageFile, one node per page. Child references are page ids and
+   every node keeps the key counts of its children's subtrees, so positional access
+   stays O(log n). The root page id and size live in the file header, reopening the
+   file maps it without reading any node.
+
+   Nodes are reached through a BufferPool of decoded nodes: a node is pinned while an
+   operation uses it, and modified nodes are encoded back into their pages when the
+   pool evicts them or the tree is flushed.
+
+   A tree opened with openDurable() records every add, remove and clear in a
+   WriteAheadLog and leaves the page file untouched between checkpoints: the buffer
+   pool keeps modified nodes until a checkpoint and freed pages are only returned to
+   the free list by it. A checkpoint logs the images of the modified pages with the
+   header, syncs the log, writes the pages and truncates the log, so after a crash the
+   file is either at the last checkpoint or the log holds the checkpoint to redo;
+   the operations logged after it are replayed on the next open, which re-derives the
+   splits and merges they caused.
+
+   Node page layout: leaf flag (1 byte), key count (2 bytes), for inner nodes the
+   (child page id, child subtree count) pairs (8 bytes each), then the serialized keys. */
+public class PagedBTree<T extends Comparable<T>> extends AbstractCollection<T> implements Tree<T>, Closeable {
+    private static final int NODE_HEADER_SIZE = 3;
+    private static final int CHILD_ENTRY_SIZE = 2 * Integer.BYTES;
+    private static final int DEFAULT_CACHE_SIZE = 1024;
+    private static final int DEFAULT_GROUP_COMMIT_BYTES = 64 * 1024;
+    private static final long DEFAULT_GROUP_COMMIT_MILLIS = 10;
+    // log size that triggers a checkpoint
+    private static final long CHECKPOINT_LOG_SIZE = 16 * 1024 * 1024;
+
+    // write-ahead log record types
+    private static final byte ADD_RECORD = 1;
+    private static final byte REMOVE_RECORD = 2;
+    private static final byte CLEAR_RECORD = 3;
+    private static final byte CHECKPOINT_RECORD = 4;
+
+    private final PageFile file;
+    private final KeySerializer<T> serializer;
+    private final Comparator<T> comparator;
+    private final int maxKeySize;
+    private final BufferPool<Node> bufferPool;
+    // scratch space to check a key fits before any page is changed, then to log it
+    private final ByteBuffer keyBuffer;
+    // null unless the tree was opened with openDurable()
+    private final WriteAheadLog log;
+    // pages freed since the last checkpoint, and the page images it collects
+    private final List<Integer> freedPages = new ArrayList<>();
+    private final Map<Integer, ByteBuffer> checkpointImages = new LinkedHashMap<>();
+    private boolean replaying;
+
+    private PagedBTree(PageFile file, KeySerializer<T> serializer, Comparator<T> comparator,
+                       int cacheSize, EvictionPolicy evictionPolicy, WriteAheadLog log) throws IOException {
+        this.file = file;
+        this.serializer = serializer;
+        this.comparator = comparator;
+        int capacity = (file.pageSize() - NODE_HEADER_SIZE - CHILD_ENTRY_SIZE)
+                / (serializer.maxLength() + CHILD_ENTRY_SIZE);
+        if (file.maxKeySize() == 0) {
+            if (capacity < 2) {
+                throw new IllegalArgumentException("Page size " + file.pageSize()
+                        + " fits fewer than 2 keys of " + serializer.maxLength() + " bytes");
+            }
+            file.setMaxKeySize(capacity);
+        } else if (file.maxKeySize() > capacity) {
+            throw new IOException("Keys of " + serializer.maxLength() + " bytes do not fit the "
+                    + file.maxKeySize() + " keys per page the file was created with");
+        }
+        this.maxKeySize = file.maxKeySize();
+        this.keyBuffer = ByteBuffer.allocate(serializer.maxLength());
+        this.log = log;
+        this.bufferPool = new BufferPool<>(cacheSize, evictionPolicy, new BufferPool.PageStore<Node>() {
+            public Node load(int pageId) {
+                return read(pageId);
+            }
+
+            public void store(int pageId, Node node) {
+                if (log == null) {
+                    write(node, file.page(pageId));
+                } else {
+                    checkpointImages.put(pageId, write(node, ByteBuffer.allocate(file.pageSize())).clear());
+                }
+            }
+        }, log == null);
+    }
+
+    public static <T extends Comparable<T>> PagedBTree<T> open(Path path, KeySerializer<T> serializer)
+            throws IOException {
+        return open(path, serializer, null, PageFile.DEFAULT_PAGE_SIZE);
+    }
+
+    public static <T extends Comparable<T>> PagedBTree<T> open(Path path, KeySerializer<T> serializer,
+                                                            Comparator<T> comparator, int pageSize)
+            throws IOException {
+        return open(path, serializer, comparator, pageSize, DEFAULT_CACHE_SIZE, EvictionPolicy.lru());
+    }
+
+    /* Opens the tree stored at 'path', creating an empty one when the file does not exist
+      @param comparator - ordering of the keys, null for their natural ordering; must be
+                          the same ordering every time the file is opened
+      @param pageSize   - size of a node page for a new file, ignored for an existing one
+      @param cacheSize  - number of decoded nodes the buffer pool keeps */
+    public static <T extends Comparable<T>> PagedBTree<T> open(Path path, KeySerializer<T> serializer,
+                                                            Comparator<T> comparator, int pageSize,
+                                                            int cacheSize, EvictionPolicy evictionPolicy)
+            throws IOException {
+        PageFile file = PageFile.open(path, pageSize);
+        try {
+            return new PagedBTree<>(file, serializer, comparator, cacheSize, evictionPolicy, null);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    public static <T extends Comparable<T>> PagedBTree<T> openDurable(Path path, KeySerializer<T> serializer)
+            throws IOException {
+        return openDurable(path, serializer, null, DEFAULT_GROUP_COMMIT_BYTES, DEFAULT_GROUP_COMMIT_MILLIS);
+    }
+
+    /* Opens the tree stored at 'path' with its write-ahead log at 'path'.wal, redoing the
+    logged checkpoint and operations a crash left behind. Operations become durable in
+    groups, once 'groupCommitBytes' of log records are pending or every
+    'groupCommitMillis', or when sync() is called. */
+    public static <T extends Comparable<T>> PagedBTree<T> openDurable(Path path, KeySerializer<T> serializer,
+                                                                   Comparator<T> comparator,
+                                                                   int groupCommitBytes, long groupCommitMillis)
+            throws IOException {
+        PageFile file = PageFile.open(path, PageFile.DEFAULT_PAGE_SIZE);
+        WriteAheadLog log = null;
+        try {
+            log = WriteAheadLog.open(path.resolveSibling(path.getFileName() + ".wal"),
+                    groupCommitBytes, groupCommitMillis);
+            PagedBTree<T> tree = new PagedBTree<>(file, serializer, comparator, DEFAULT_CACHE_SIZE,
+                    EvictionPolicy.lru(), log);
+            tree.recover();
+            return tree;
+        } catch (IOException | RuntimeException e) {
+            if (log != null) {
+                log.close();
+            }
+            file.close();
+            throw e;
+        }
+    }
+
+    // To redo the last logged checkpoint and replay the operations logged after it
+    private void recover() throws IOException {
+        List<WriteAheadLog.Record> records = log.read();
+        int replayFrom = 0;
+        for (int recordIndex = records.size() - 1; recordIndex >= 0; recordIndex--) {
+            if (records.get(recordIndex).type() == CHECKPOINT_RECORD) {
+                applyCheckpoint(records.get(recordIndex).payload());
+                replayFrom = recordIndex + 1;
+                break;
+            }
+        }
+        replaying = true;
+        try {
+            for (WriteAheadLog.Record record : records.subList(replayFrom, records.size())) {
+                if (record.type() == ADD_RECORD) {
+                    add(serializer.read(record.payload()));
+                } else if (record.type() == REMOVE_RECORD) {
+                    remove(serializer.read(record.payload()));
+                } else if (record.type() == CLEAR_RECORD) {
+                    clear();
+                }
+            }
+        } finally {
+            replaying = false;
+        }
+        if (log.size() > 0) {
+            checkpoint();
+        }
+    }
+
+    @Override
+    public boolean add(T value) {
+        Objects.requireNonNull(value);
+        serializer.write(value, keyBuffer.clear());
+        if (file.rootPageId() == PageFile.NO_PAGE) {
+            Node root = newNode(true);
+            root.keys.add(value);
+            unpin(root, true);
+            file.setRootPageId(root.pageId);
+        } else {
+            Node root = pin(file.rootPageId());
+            Split split = insert(root, value);
+            unpin(root, true);
+            if (split != null) {
+                // To create new root node above the split root
+                Node newRoot = newNode(false);
+                newRoot.keys.add(split.separator);
+                newRoot.children[0] = root.pageId;
+                newRoot.childCounts[0] = split.leftCount;
+                newRoot.children[1] = split.rightPageId;
+                newRoot.childCounts[1] = split.rightCount;
+                unpin(newRoot, true);
+                file.setRootPageId(newRoot.pageId);
+            }
+        }
+        file.setEntryCount(file.entryCount() + 1);
+        logged(ADD_RECORD, value);
+        return true;
+    }
+
+    // To insert below the pinned 'node', returning how it was split when it overflowed
+    private Split insert(Node node, T value) {
+        if (node.leaf) {
+            node.keys.add(upperBound(node.keys, value), value);
+        } else {
+            int childIndex = lowerBound(node.keys, value);
+            Node child = pin(node.children[childIndex]);
+            Split split = insert(child, value);
+            unpin(child, true);
+            node.childCounts[childIndex]++;
+            if (split != null) {
+                node.keys.add(childIndex, split.separator);
+                node.insertChild(childIndex + 1, split.rightPageId, split.rightCount);
+                node.childCounts[childIndex] = split.leftCount;
+            }
+        }
+        return node.keys.size() > maxKeySize ? split(node) : null;
+    }
+
+    // To move the keys and children after the median into a new right node
+    private Split split(Node node) {
+        int numberOfKeys = node.keys.size();
+        int medianIndex = numberOfKeys / 2;
+        Node right = newNode(node.leaf);
+        List<T> rightKeys = node.keys.subList(medianIndex + 1, numberOfKeys);
+        right.keys.addAll(rightKeys);
+        rightKeys.clear();
+        T separator = node.keys.remove(medianIndex);
+        if (!node.leaf) {
+            int rightChildren = numberOfKeys - medianIndex;
+            System.arraycopy(node.children, medianIndex + 1, right.children, 0, rightChildren);
+            System.arraycopy(node.childCounts, medianIndex + 1, right.childCounts, 0, rightChildren);
+        }
+        unpin(right, true);
+        return new Split(separator, right.pageId, node.count(), right.count());
+    }
+
+    @Override
+    public boolean remove(Object value) {
+        if (value == null || file.rootPageId() == PageFile.NO_PAGE) {
+            return false;
+        }
+        Node root = pin(file.rootPageId());
+        if (!delete(root, (T) value)) {
+            unpin(root, false);
+            return false;
+        }
+        if (root.keys.isEmpty()) {
+            // To collapse the root once it has no keys left
+            file.setRootPageId(root.leaf ? PageFile.NO_PAGE : root.children[0]);
+            release(root);
+        } else {
+            unpin(root, true);
+        }
+        file.setEntryCount(file.entryCount() - 1);
+        logged(REMOVE_RECORD, (T) value);
+        return true;
+    }
+
+    // To delete from below the pinned 'node', which the caller unpins
+    private boolean delete(Node node, T value) {
+        int keyIndex = lowerBound(node.keys, value);
+        boolean found = keyIndex < node.keys.size() && compare(node.keys.get(keyIndex), value) == 0;
+        if (node.leaf) {
+            if (!found) {
+                return false;
+            }
+            node.keys.remove(keyIndex);
+        } else {
+            Node child = pin(node.children[keyIndex]);
+            if (found) {
+                /* key of an inner node is replaced by its predecessor, the rightmost key
+                of the left subtree, which is then removed from that subtree */
+                T predecessorValue = lastKey(child);
+                node.keys.set(keyIndex, predecessorValue);
+                delete(child, predecessorValue);
+            } else if (!delete(child, value)) {
+                unpin(child, false);
+                return false;
+            }
+            node.childCounts[keyIndex]--;
+            rebalanceChild(node, keyIndex, child);
+        }
+        return true;
+    }
+
+    // greatest key of the subtree rooted at the pinned 'node'
+    private T lastKey(Node node) {
+        Node last = node;
+        while (!last.leaf) {
+            Node child = pin(last.children[last.keys.size()]);
+            if (last != node) {
+                unpin(last, false);
+            }
+            last = child;
+        }
+        T lastKey = last.keys.get(last.keys.size() - 1);
+        if (last != node) {
+            unpin(last, false);
+        }
+        return lastKey;
+    }
+
+    /* restores the minimum key count of the pinned 'child' by borrowing a key from a
+    sibling through the parent, or merging it with a sibling, and unpins it */
+    private void rebalanceChild(Node parent, int childIndex, Node child) {
+        int minKeySize = maxKeySize / 2;
+        if (child.keys.size() >= minKeySize) {
+            unpin(child, true);
+            return;
+        }
+        Node left = childIndex > 0 ? pin(parent.children[childIndex - 1]) : null;
+        if (left != null && left.keys.size() > minKeySize) {
+            // To rotate the last key of the left sibling through the parent
+            child.keys.add(0, parent.keys.get(childIndex - 1));
+            parent.keys.set(childIndex - 1, left.keys.remove(left.keys.size() - 1));
+            if (!child.leaf) {
+                int last = left.keys.size() + 1;
+                child.insertChild(0, left.children[last], left.childCounts[last]);
+            }
+            parent.childCounts[childIndex - 1] = left.count();
+            parent.childCounts[childIndex] = child.count();
+            unpin(left, true);
+            unpin(child, true);
+            return;
+        }
+        Node right = childIndex < parent.keys.size() ? pin(parent.children[childIndex + 1]) : null;
+        if (right != null && right.keys.size() > minKeySize) {
+            // To rotate the first key of the right sibling through the parent
+            child.keys.add(parent.keys.get(childIndex));
+            parent.keys.set(childIndex, right.keys.remove(0));
+            if (!child.leaf) {
+                child.children[child.keys.size()] = right.children[0];
+                child.childCounts[child.keys.size()] = right.childCounts[0];
+                right.removeChild(0);
+            }
+            parent.childCounts[childIndex] = child.count();
+            parent.childCounts[childIndex + 1] = right.count();
+            unpin(right, true);
+            unpin(child, true);
+            if (left != null) {
+                unpin(left, false);
+            }
+        } else if (left != null) {
+            if (right != null) {
+                unpin(right, false);
+            }
+            merge(parent, childIndex - 1, left, child);
+        } else {
+            merge(parent, childIndex, child, right);
+        }
+    }
+
+    // To merge the pinned 'right' and the parent's key at 'keyIndex' into the pinned 'left', freeing the right page
+    private void merge(Node parent, int keyIndex, Node left, Node right) {
+        int leftChildren = left.keys.size() + 1;
+        left.keys.add(parent.keys.remove(keyIndex));
+        left.keys.addAll(right.keys);
+        if (!left.leaf) {
+            System.arraycopy(right.children, 0, left.children, leftChildren, right.keys.size() + 1);
+            System.arraycopy(right.childCounts, 0, left.childCounts, leftChildren, right.keys.size() + 1);
+        }
+        parent.removeChild(keyIndex + 1);
+        parent.childCounts[keyIndex] = left.count();
+        unpin(left, true);
+        release(right);
+    }
+
+    @Override
+    public void clear() {
+        if (file.rootPageId() != PageFile.NO_PAGE) {
+            free(pin(file.rootPageId()));
+        }
+        file.setRootPageId(PageFile.NO_PAGE);
+        file.setEntryCount(0);
+        logged(CLEAR_RECORD, null);
+    }
+
+    private void free(Node node) {
+        if (!node.leaf) {
+            for (int childIndex = 0; childIndex <= node.keys.size(); childIndex++) {
+                free(pin(node.children[childIndex]));
+            }
+        }
+        release(node);
+    }
+
+    @Override
+    public boolean contains(Object value) {
+        if (value == null) {
+            return false;
+        }
+        int pageId = file.rootPageId();
+        while (pageId != PageFile.NO_PAGE) {
+            Node node = pin(pageId);
+            unpin(node, false);
+            int keyIndex = lowerBound(node.keys, value);
+            if (keyIndex < node.keys.size() && compare(node.keys.get(keyIndex), value) == 0) {
+                return true;
+            }
+            pageId = node.leaf ? PageFile.NO_PAGE : node.children[keyIndex];
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return (int) file.entryCount();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return file.entryCount() == 0;
+    }
+
+    @Override
+    public T elementAt(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        int pageId = file.rootPageId();
+        while (true) {
+            Node node = pin(pageId);
+            unpin(node, false);
+            if (node.leaf) {
+                return node.keys.get(index);
+            }
+            // skip whole subtrees using their key counts until the index falls inside one
+            for (int childIndex = 0; childIndex <= node.keys.size(); childIndex++) {
+                int childCount = node.childCounts[childIndex];
+                if (index < childCount) {
+                    pageId = node.children[childIndex];
+                    break;
+                }
+                index -= childCount;
+                if (index == 0) {
+                    return node.keys.get(childIndex);
+                }
+                index--;
+            }
+        }
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new InorderIterator();
+    }
+
+    // buffer pool caching the decoded nodes, for its size and counters
+    public BufferPool<?> bufferPool() {
+        return bufferPool;
+    }
+
+    /* To write the modified nodes into their pages and the pages through to the storage
+    device, through a checkpoint for a durable tree */
+    public void flush() {
+        if (log != null) {
+            checkpoint();
+            return;
+        }
+        bufferPool.flush();
+        file.force();
+    }
+
+    // To make the operations logged so far durable without waiting for their group commit
+    public void sync() {
+        if (log != null) {
+            try {
+                log.sync();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            if (log != null) {
+                log.close();
+            }
+            file.close();
+        }
+    }
+
+    // To log a completed operation, checkpointing once the log or the modified nodes grew too large
+    private void logged(byte type, T value) {
+        if (log == null || replaying) {
+            return;
+        }
+        keyBuffer.clear();
+        if (value != null) {
+            serializer.write(value, keyBuffer);
+        }
+        try {
+            log.append(type, keyBuffer.flip());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (bufferPool.dirtyCount() >= bufferPool.capacity() || log.size() >= CHECKPOINT_LOG_SIZE) {
+            checkpoint();
+        }
+    }
+
+    /* To log the modified pages and the header as one checkpoint record, sync it, then
+    write them to the page file and truncate the log */
+    private void checkpoint() {
+        if (bufferPool.dirtyCount() == 0 && freedPages.isEmpty() && log.size() == 0) {
+            return;
+        }
+        bufferPool.flush();
+        ByteBuffer payload = ByteBuffer.allocate(3 * Integer.BYTES + Long.BYTES + Integer.BYTES
+                + checkpointImages.size() * (Integer.BYTES + file.pageSize())
+                + Integer.BYTES + freedPages.size() * Integer.BYTES);
+        payload.putInt(file.rootPageId()).putLong(file.entryCount())
+                .putInt(file.pageCount()).putInt(file.freeListHead());
+        payload.putInt(checkpointImages.size());
+        checkpointImages.forEach((pageId, image) -> payload.putInt(pageId).put(image));
+        payload.putInt(freedPages.size());
+        freedPages.forEach(payload::putInt);
+        payload.flip();
+        checkpointImages.clear();
+        freedPages.clear();
+        try {
+            log.append(CHECKPOINT_RECORD, payload.duplicate());
+            log.sync();
+            applyCheckpoint(payload);
+            log.truncate();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // To write a checkpoint to the page file, giving the same file however often it is applied
+    private void applyCheckpoint(ByteBuffer payload) throws IOException {
+        file.setRootPageId(payload.getInt());
+        file.setEntryCount(payload.getLong());
+        file.setPageCount(payload.getInt());
+        file.setFreeListHead(payload.getInt());
+        byte[] image = new byte[file.pageSize()];
+        for (int imageCount = payload.getInt(); imageCount > 0; imageCount--) {
+            int pageId = payload.getInt();
+            payload.get(image);
+            file.writePage(pageId, ByteBuffer.wrap(image));
+        }
+        for (int freeCount = payload.getInt(); freeCount > 0; freeCount--) {
+            file.free(payload.getInt());
+        }
+        file.force();
+    }
+
+    private int compare(Object k1, Object k2) {
+        return comparator == null ? ((Comparable) k1).compareTo(k2) : comparator.compare((T) k1, (T) k2);
+    }
+
+    // index of the first key greater than/equal to 'value'
+    private int lowerBound(List<T> keys, Object value) {
+        int low = 0;
+        int high = keys.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(keys.get(mid), value) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // index of the first key greater than 'value'
+    private int upperBound(List<T> keys, Object value) {
+        int low = 0;
+        int high = keys.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(keys.get(mid), value) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // new node in a newly allocated page, pinned
+    private Node newNode(boolean leaf) {
+        try {
+            Node node = new Node(file.allocate(), leaf);
+            bufferPool.pinNew(node.pageId, node);
+            return node;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Node pin(int pageId) {
+        return bufferPool.pin(pageId);
+    }
+
+    private void unpin(Node node, boolean dirty) {
+        bufferPool.unpin(node.pageId, dirty);
+    }
+
+    /* To free the page of the pinned 'node', which must no longer be referenced; a
+    durable tree keeps the page until the next checkpoint */
+    private void release(Node node) {
+        unpin(node, false);
+        bufferPool.discard(node.pageId);
+        if (log == null) {
+            file.free(node.pageId);
+        } else {
+            freedPages.add(node.pageId);
+        }
+    }
+
+    private Node read(int pageId) {
+        ByteBuffer page = file.page(pageId);
+        Node node = new Node(pageId, page.get() == 1);
+        int numberOfKeys = page.getShort() & 0xFFFF;
+        if (!node.leaf) {
+            for (int childIndex = 0; childIndex <= numberOfKeys; childIndex++) {
+                node.children[childIndex] = page.getInt();
+                node.childCounts[childIndex] = page.getInt();
+            }
+        }
+        for (int keyIndex = 0; keyIndex < numberOfKeys; keyIndex++) {
+            node.keys.add(serializer.read(page));
+        }
+        return node;
+    }
+
+    private ByteBuffer write(Node node, ByteBuffer page) {
+        page.put((byte) (node.leaf ? 1 : 0)).putShort((short) node.keys.size());
+        if (!node.leaf) {
+            for (int childIndex = 0; childIndex <= node.keys.size(); childIndex++) {
+                page.putInt(node.children[childIndex]).putInt(node.childCounts[childIndex]);
+            }
+        }
+        for (T key : node.keys) {
+            serializer.write(key, page);
+        }
+        return page;
+    }
+
+    // Node decoded from its page, changes are kept once the buffer pool writes it back
+    private final class Node {
+        final int pageId;
+        final boolean leaf;
+        final List<T> keys;
+        // sized for the transient overflow key/child that triggers a split
+        final int[] children;
+        final int[] childCounts;
+
+        private Node(int pageId, boolean leaf) {
+            this.pageId = pageId;
+            this.leaf = leaf;
+            this.keys = new ArrayList<>(maxKeySize + 1);
+            this.children = leaf ? null : new int[maxKeySize + 2];
+            this.childCounts = leaf ? null : new int[maxKeySize + 2];
+        }
+
+        // number of keys stored in the subtree rooted at this node
+        private int count() {
+            int count = keys.size();
+            if (!leaf) {
+                for (int childIndex = 0; childIndex <= keys.size(); childIndex++) {
+                    count += childCounts[childIndex];
+                }
+            }
+            return count;
+        }
+
+        // called after the key count grew, 'childIndex' is at most the new key count
+        private void insertChild(int childIndex, int pageId, int count) {
+            int moved = keys.size() - childIndex;
+            System.arraycopy(children, childIndex, children, childIndex + 1, moved);
+            System.arraycopy(childCounts, childIndex, childCounts, childIndex + 1, moved);
+            children[childIndex] = pageId;
+            childCounts[childIndex] = count;
+        }
+
+        // called after the key count shrank
+        private void removeChild(int childIndex) {
+            int moved = keys.size() + 1 - childIndex;
+            System.arraycopy(children, childIndex + 1, children, childIndex, moved);
+            System.arraycopy(childCounts, childIndex + 1, childCounts, childIndex, moved);
+        }
+    }
+
+    // Outcome of splitting an overflowing node, whose lower half stays in place
+    private final class Split {
+        final T separator;
+        final int rightPageId;
+        final int leftCount;
+        final int rightCount;
+
+        private Split(T separator, int rightPageId, int leftCount, int rightCount) {
+            this.separator = separator;
+            this.rightPageId = rightPageId;
+            this.leftCount = leftCount;
+            this.rightCount = rightCount;
+        }
+    }
+
+    /* Ascending iterator holding the decoded nodes on the path to the next key; they are
+       not kept pinned, so the tree must not be modified while iterating */
+    private final class InorderIterator implements Iterator<T> {
+        private final Deque<Node> nodePath = new ArrayDeque<>();
+        private final Deque<int[]> keyIndexPath = new ArrayDeque<>();
+
+        private InorderIterator() {
+            if (file.rootPageId() != PageFile.NO_PAGE) {
+                pushLeftPath(file.rootPageId());
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !nodePath.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Node node = nodePath.peek();
+            int[] keyIndex = keyIndexPath.peek();
+            T resultKey = node.keys.get(keyIndex[0]++);
+            if (keyIndex[0] == node.keys.size()) {
+                nodePath.pop();
+                keyIndexPath.pop();
+            }
+            if (!node.leaf) {
+                pushLeftPath(node.children[keyIndex[0]]);
+            }
+            return resultKey;
+        }
+
+        private void pushLeftPath(int pageId) {
+            while (true) {
+                Node node = pin(pageId);
+                unpin(node, false);
+                nodePath.push(node);
+                keyIndexPath.push(new int[1]);
+                if (node.leaf) {
+                    break;
+                }
+                pageId = node.children[0];
+            }
+        }
+    }
+}
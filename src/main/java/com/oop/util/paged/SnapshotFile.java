@@ -0,0 +1,215 @@
+package com.oop.util.paged;
+
+import com.oop.util.BTree;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/* Binary snapshot of a BTree: its keys in sorted order, encoded by a KeySerializer, from
+   which the tree is rebuilt bottom-up by BTree.fromSorted in O(n) instead of replaying
+   every add with its splits. Saving and loading stream the keys through a FileChannel
+   a block at a time, the keys are never held in between.
+
+   File layout: magic (4 bytes), format version (4), order of the tree (4), number of
+   keys (8), CRC32 of the preceding header fields (4); then blocks of key count (4),
+   payload length (4), CRC32 of the payload (4) and the payload, the encoded keys one
+   after the other. A block is checked as a whole before any of its keys is used. */
+public final class SnapshotFile {
+    private static final int MAGIC = 0x4254534E;
+    private static final int FORMAT_VERSION = 1;
+
+    // header layout
+    private static final int MAGIC_OFFSET = 0;
+    private static final int FORMAT_VERSION_OFFSET = 4;
+    private static final int ORDER_OFFSET = 8;
+    private static final int KEY_COUNT_OFFSET = 12;
+    private static final int CHECKSUM_OFFSET = KEY_COUNT_OFFSET + Long.BYTES;
+    private static final int HEADER_SIZE = CHECKSUM_OFFSET + Integer.BYTES;
+
+    private static final int BLOCK_HEADER_SIZE = 3 * Integer.BYTES;
+    private static final int BLOCK_SIZE = 1 << 20;
+
+    // private constructor to prevent instantiation
+    private SnapshotFile() {
+    }
+
+    /* Writes the keys of 'tree' to 'path'; the file is replaced only once the new
+    snapshot is complete and forced to the storage device. To save a tree that goes on
+    being written, save a tree.snapshot() of it */
+    public static <T extends Comparable<T>> void save(BTree<T> tree, Path path, KeySerializer<T> serializer)
+            throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC_OFFSET, MAGIC)
+                    .putInt(FORMAT_VERSION_OFFSET, FORMAT_VERSION)
+                    .putInt(ORDER_OFFSET, tree.order())
+                    .putLong(KEY_COUNT_OFFSET, tree.size());
+            header.putInt(CHECKSUM_OFFSET, checksum(header.slice(0, CHECKSUM_OFFSET)));
+            writeFully(channel, header);
+
+            ByteBuffer block = ByteBuffer.allocateDirect(Math.max(BLOCK_SIZE, BLOCK_HEADER_SIZE + serializer.maxLength()));
+            block.position(BLOCK_HEADER_SIZE);
+            int keyCount = 0;
+            for (T key : tree) {
+                if (block.remaining() < serializer.maxLength()) {
+                    writeBlock(channel, block, keyCount);
+                    keyCount = 0;
+                }
+                serializer.write(key, block);
+                keyCount++;
+            }
+            if (keyCount > 0) {
+                writeBlock(channel, block, keyCount);
+            }
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, path, REPLACE_EXISTING, ATOMIC_MOVE);
+    }
+
+    /* Rebuilds the tree saved at 'path', with the order it was saved with
+      @param comparator - ordering the keys were saved in, null for their natural ordering
+      @throws IOException when the file is not a snapshot of this format or is corrupt */
+    public static <T extends Comparable<T>> BTree<T> load(Path path, KeySerializer<T> serializer,
+                                                        Comparator<T> comparator) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, header);
+            if (header.getInt(MAGIC_OFFSET) != MAGIC) {
+                throw new IOException("Not a BTree snapshot: " + path);
+            }
+            if (header.getInt(FORMAT_VERSION_OFFSET) != FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot version " + header.getInt(FORMAT_VERSION_OFFSET));
+            }
+            long keyCount = header.getLong(KEY_COUNT_OFFSET);
+            if (header.getInt(CHECKSUM_OFFSET) != checksum(header.slice(0, CHECKSUM_OFFSET))
+                    || keyCount < 0 || keyCount > Integer.MAX_VALUE) {
+                throw new IOException("Corrupt snapshot header: " + path);
+            }
+            BlockReader<T> keys = new BlockReader<>(channel, serializer, (int) keyCount);
+            BTree<T> tree;
+            try {
+                tree = BTree.fromSorted(keys, (int) keyCount, header.getInt(ORDER_OFFSET), comparator,
+                        BTree.DEFAULT_FILL_FACTOR);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (keys.block.hasRemaining() || channel.position() != channel.size()) {
+                throw new IOException("Data after the last key of snapshot: " + path);
+            }
+            return tree;
+        }
+    }
+
+    // To complete the block at the start of 'block' with its header and write it out
+    private static void writeBlock(FileChannel channel, ByteBuffer block, int keyCount) throws IOException {
+        int payloadLength = block.position() - BLOCK_HEADER_SIZE;
+        block.putInt(0, keyCount)
+                .putInt(Integer.BYTES, payloadLength)
+                .putInt(2 * Integer.BYTES, checksum(block.slice(BLOCK_HEADER_SIZE, payloadLength)));
+        block.flip();
+        writeFully(channel, block);
+        block.clear().position(BLOCK_HEADER_SIZE);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    // To fill 'buffer' from the channel and flip it for reading
+    private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Snapshot ends within a block");
+            }
+        }
+        buffer.flip();
+    }
+
+    private static int checksum(ByteBuffer bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    // Keys of the blocks that follow the header, each block read and checked as a whole
+    private static final class BlockReader<T> implements Iterator<T> {
+        private final FileChannel channel;
+        private final KeySerializer<T> serializer;
+        private final ByteBuffer blockHeader = ByteBuffer.allocate(BLOCK_HEADER_SIZE);
+        private ByteBuffer block = ByteBuffer.allocateDirect(BLOCK_SIZE).limit(0);
+        private int remainingKeys;
+        private int remainingBlockKeys;
+
+        private BlockReader(FileChannel channel, KeySerializer<T> serializer, int keyCount) {
+            this.channel = channel;
+            this.serializer = serializer;
+            this.remainingKeys = keyCount;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remainingKeys > 0;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            try {
+                if (remainingBlockKeys == 0) {
+                    readBlock();
+                }
+                remainingKeys--;
+                remainingBlockKeys--;
+                return serializer.read(block);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void readBlock() throws IOException {
+            if (block.hasRemaining()) {
+                throw new IOException("Block holds more than its key count");
+            }
+            blockHeader.clear();
+            readFully(channel, blockHeader);
+            int keyCount = blockHeader.getInt(0);
+            int payloadLength = blockHeader.getInt(Integer.BYTES);
+            if (keyCount <= 0 || keyCount > remainingKeys || payloadLength < 0) {
+                throw new IOException("Corrupt block header at " + (channel.position() - BLOCK_HEADER_SIZE));
+            }
+            if (payloadLength > block.capacity()) {
+                block = ByteBuffer.allocateDirect(payloadLength);
+            }
+            block.clear().limit(payloadLength);
+            readFully(channel, block);
+            if (checksum(block.duplicate()) != blockHeader.getInt(2 * Integer.BYTES)) {
+                throw new IOException("Corrupt block at " + (channel.position() - payloadLength));
+            }
+            remainingBlockKeys = keyCount;
+        }
+    }
+}
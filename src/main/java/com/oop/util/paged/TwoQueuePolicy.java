@@ -0,0 +1,70 @@
+package com.oop.util.paged;
+
+import java.util.LinkedHashSet;
+import java.util.function.IntPredicate;
+
+/* Full 2Q as described by Johnson and Shasha: 'recent' holds pages referenced once in
+   FIFO order, 'evicted' remembers the ids of pages recently evicted from it, and a page
+   loaded again while remembered there goes to the 'frequent' LRU queue. */
+class TwoQueuePolicy implements EvictionPolicy {
+    private final int recentCapacity;
+    private final int evictedCapacity;
+    private final LinkedHashSet<Integer> recent = new LinkedHashSet<>();
+    private final LinkedHashSet<Integer> evicted = new LinkedHashSet<>();
+    private final LinkedHashSet<Integer> frequent = new LinkedHashSet<>();
+
+    TwoQueuePolicy(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.recentCapacity = Math.max(1, capacity / 4);
+        this.evictedCapacity = Math.max(1, capacity / 2);
+    }
+
+    @Override
+    public void recordAccess(int pageId) {
+        // hits in 'recent' are left alone, they are usually correlated references
+        if (frequent.remove(pageId)) {
+            frequent.add(pageId);
+        }
+    }
+
+    @Override
+    public void recordInsert(int pageId) {
+        if (evicted.remove(pageId)) {
+            frequent.add(pageId);
+        } else {
+            recent.add(pageId);
+        }
+    }
+
+    @Override
+    public void recordRemove(int pageId) {
+        if (!recent.remove(pageId)) {
+            frequent.remove(pageId);
+        }
+    }
+
+    @Override
+    public int victim(IntPredicate evictable) {
+        if (recent.size() > recentCapacity || frequent.isEmpty()) {
+            int pageId = evictRecent(evictable);
+            if (pageId != NO_VICTIM) {
+                return pageId;
+            }
+        }
+        int pageId = LruPolicy.removeFirst(frequent, evictable);
+        return pageId != NO_VICTIM ? pageId : evictRecent(evictable);
+    }
+
+    private int evictRecent(IntPredicate evictable) {
+        int pageId = LruPolicy.removeFirst(recent, evictable);
+        if (pageId != NO_VICTIM) {
+            evicted.add(pageId);
+            if (evicted.size() > evictedCapacity) {
+                evicted.remove(evicted.iterator().next());
+            }
+        }
+        return pageId;
+    }
+}
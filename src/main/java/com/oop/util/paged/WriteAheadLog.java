@@ -0,0 +1,198 @@
+package com.oop.util.paged;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/* Append-only log of typed records with group commit. Appended records are buffered
+   and written with a single fsync once 'groupCommitBytes' are pending, every
+   'groupCommitMillis' from a background thread, or when sync() is called, so a crash
+   loses at most the records of the last unsynced group. A group stays pending until its
+   fsync succeeds; a failed background sync is reported by every later append, sync and
+   close, as the records it held may not be on the device.
+
+   Record layout: payload length (4 bytes), CRC32 of type and payload (4 bytes), type
+   (1 byte), payload. Reading stops at the first torn or corrupt record. */
+public class WriteAheadLog implements Closeable {
+    private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES + 1;
+
+    private final FileChannel channel;
+    private final int groupCommitBytes;
+    private final ScheduledExecutorService syncTimer;
+    private ByteBuffer pending = ByteBuffer.allocate(8192);
+    private long size;
+    private final CRC32 crc = new CRC32();
+    // first failure of the background sync
+    private volatile IOException syncFailure;
+
+    WriteAheadLog(FileChannel channel, int groupCommitBytes, long groupCommitMillis) throws IOException {
+        this.channel = channel;
+        this.groupCommitBytes = groupCommitBytes;
+        this.size = channel.size();
+        if (groupCommitMillis > 0) {
+            syncTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "wal-group-commit");
+                thread.setDaemon(true);
+                return thread;
+            });
+            syncTimer.scheduleWithFixedDelay(this::syncQuietly, groupCommitMillis, groupCommitMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            syncTimer = null;
+        }
+    }
+
+    /* Opens the log at 'path', creating it when it does not exist
+      @param groupCommitBytes  - pending bytes that trigger a sync, 0 to sync every record
+      @param groupCommitMillis - interval of the background sync, 0 for none */
+    public static WriteAheadLog open(Path path, int groupCommitBytes, long groupCommitMillis) throws IOException {
+        if (groupCommitBytes < 0 || groupCommitMillis < 0) {
+            throw new IllegalArgumentException("Group commit bytes and interval must not be negative");
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new WriteAheadLog(channel, groupCommitBytes, groupCommitMillis);
+    }
+
+    // To buffer a record, syncing the pending group when it reached 'groupCommitBytes'
+    public synchronized void append(byte type, ByteBuffer payload) throws IOException {
+        checkSyncFailure();
+        int length = payload.remaining();
+        ensurePending(RECORD_HEADER_SIZE + length);
+        crc.reset();
+        crc.update(type);
+        crc.update(payload.duplicate());
+        pending.putInt(length).putInt((int) crc.getValue()).put(type).put(payload);
+        if (pending.position() >= groupCommitBytes) {
+            sync();
+        }
+    }
+
+    // To write the pending records and force them to the storage device
+    public synchronized void sync() throws IOException {
+        checkSyncFailure();
+        if (pending.position() == 0) {
+            return;
+        }
+        pending.flip();
+        long written = size;
+        try {
+            while (pending.hasRemaining()) {
+                written += channel.write(pending, written);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            // the group stays pending, to be written again over whatever part reached the file
+            pending.position(pending.limit()).limit(pending.capacity());
+            throw e;
+        }
+        size = written;
+        pending.clear();
+    }
+
+    private synchronized void syncQuietly() {
+        try {
+            sync();
+        } catch (IOException e) {
+            if (syncFailure == null) {
+                syncFailure = e;
+            }
+        }
+    }
+
+    private void checkSyncFailure() throws IOException {
+        if (syncFailure != null) {
+            throw new IOException("Background sync of the log failed", syncFailure);
+        }
+    }
+
+    // every complete record in the log, in order
+    public synchronized List<Record> read() throws IOException {
+        List<Record> records = new ArrayList<>();
+        ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        long position = 0;
+        while (position + RECORD_HEADER_SIZE <= size) {
+            recordHeader.clear();
+            channel.read(recordHeader, position);
+            int length = recordHeader.getInt(0);
+            if (length < 0 || position + RECORD_HEADER_SIZE + length > size) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            channel.read(payload, position + RECORD_HEADER_SIZE);
+            payload.flip();
+            byte type = recordHeader.get(2 * Integer.BYTES);
+            crc.reset();
+            crc.update(type);
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != recordHeader.getInt(Integer.BYTES)) {
+                break;
+            }
+            records.add(new Record(type, payload));
+            position += RECORD_HEADER_SIZE + length;
+        }
+        return records;
+    }
+
+    // To drop every record, pending or written
+    public synchronized void truncate() throws IOException {
+        pending.clear();
+        channel.truncate(0);
+        channel.force(false);
+        size = 0;
+    }
+
+    // bytes written and pending
+    public synchronized long size() {
+        return size + pending.position();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (syncTimer != null) {
+            syncTimer.shutdownNow();
+        }
+        synchronized (this) {
+            try {
+                sync();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    private void ensurePending(int length) {
+        if (pending.remaining() < length) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + length));
+            pending.flip();
+            pending = grown.put(pending);
+        }
+    }
+
+    public static final class Record {
+        private final byte type;
+        private final ByteBuffer payload;
+
+        private Record(byte type, ByteBuffer payload) {
+            this.type = type;
+            this.payload = payload;
+        }
+
+        public byte type() {
+            return type;
+        }
+
+        public ByteBuffer payload() {
+            return payload.duplicate();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.oop.util.student;
+
+import com.oop.model.Student;
+import com.oop.util.BTree;
+import com.oop.util.BTreeMap;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/* Students keyed by redId, with a secondary BTree per registered sort strategy that is
+   kept up to date on every add, update and remove. A query in the order of an index
+   reads that index instead of copying and sorting every student, so a range of 'm'
+   students costs O(log n + m). Secondary indexes break ties by redId, which keeps each
+   student a distinct element that can be removed without touching its equals. */
+public class IndexedStudents implements Iterable<Student> {
+    private final int order;
+    private final BTreeMap<Integer, Student> students;
+    private final Map<String, BTree<Student>> indexes = new HashMap<>();
+
+    public IndexedStudents() {
+        this(3);
+    }
+
+    public IndexedStudents(int order) {
+        this.order = order;
+        this.students = new BTreeMap<>(order);
+    }
+
+    /* Registers an index named 'name' ordered by 'strategy', e.g.
+      StudentSortStrategy.studentGPADescSort(), built from the students already present */
+    public void addIndex(String name, Comparator<Student> strategy) {
+        if (indexes.containsKey(name)) {
+            throw new IllegalArgumentException("Index already exists: " + name);
+        }
+        Comparator<Student> comparator = strategy.thenComparingInt(Student::getRedId);
+        List<Student> sorted = students.values().stream().sorted(comparator).collect(Collectors.toList());
+        indexes.put(name, BTree.fromSorted(sorted, order, comparator, BTree.DEFAULT_FILL_FACTOR));
+    }
+
+    public void removeIndex(String name) {
+        index(name);
+        indexes.remove(name);
+    }
+
+    /* @return false when a student with the same redId is already present */
+    public boolean add(Student student) {
+        if (students.putIfAbsent(student.getRedId(), student) != null) {
+            return false;
+        }
+        indexes.values().forEach(index -> index.add(student));
+        return true;
+    }
+
+    public Student get(int redId) {
+        return students.get(redId);
+    }
+
+    public boolean contains(int redId) {
+        return students.containsKey(redId);
+    }
+
+    /* @return the removed student, or null if there is no student with 'redId' */
+    public Student remove(int redId) {
+        Student student = students.remove(redId);
+        if (student != null) {
+            indexes.values().forEach(index -> index.remove(student));
+        }
+        return student;
+    }
+
+    /* To apply 'change' to the student with 'redId' and re-index it; indexed fields
+      must only be changed through here. The redId is the primary key and stays fixed.
+      @return false if there is no student with 'redId' */
+    public boolean update(int redId, Consumer<Student> change) {
+        Student student = students.get(redId);
+        if (student == null) {
+            return false;
+        }
+        indexes.values().forEach(index -> index.remove(student));
+        boolean rekeyed;
+        try {
+            change.accept(student);
+        } finally {
+            rekeyed = student.getRedId() != redId;
+            student.setRedId(redId);
+            indexes.values().forEach(index -> index.add(student));
+        }
+        if (rekeyed) {
+            throw new IllegalStateException("redId of a student cannot be updated: " + redId);
+        }
+        return true;
+    }
+
+    public int size() {
+        return students.size();
+    }
+
+    public boolean isEmpty() {
+        return students.isEmpty();
+    }
+
+    public void clear() {
+        students.clear();
+        indexes.values().forEach(BTree::clear);
+    }
+
+    // students in ascending redId order
+    @Override
+    public Iterator<Student> iterator() {
+        return Collections.unmodifiableCollection(students.values()).iterator();
+    }
+
+    /* Read-only view of every student in the order of index 'name'; as with BTree,
+      its iterator is ascending while forEach visits the students in descending order */
+    public NavigableSet<Student> sorted(String name) {
+        return Collections.unmodifiableNavigableSet(index(name));
+    }
+
+    /* Read-only view of the students between 'from' and 'to' in the order of index
+      'name'. Only the fields the index compares are read from the bounds, students
+      comparing equal to a bound are all in or all out of the range regardless of redId. */
+    public NavigableSet<Student> range(String name, Student from, boolean fromInclusive,
+                                       Student to, boolean toInclusive) {
+        NavigableSet<Student> range = index(name).subSet(
+                bound(from, fromInclusive ? Integer.MIN_VALUE : Integer.MAX_VALUE), fromInclusive,
+                bound(to, toInclusive ? Integer.MAX_VALUE : Integer.MIN_VALUE), toInclusive);
+        return Collections.unmodifiableNavigableSet(range);
+    }
+
+    /* Indexed counterpart of TreeUtils.toList(tree, comparator, predicate, dataMapper):
+      the students come in the order of index 'name' and are filtered as they are read */
+    public <R> List<R> toList(String name, Predicate<Student> predicate, Function<Student, R> dataMapper) {
+        return index(name).stream()
+                .filter(predicate)
+                .map(dataMapper)
+                .collect(Collectors.toList());
+    }
+
+    // student placed before or after every student with the same indexed fields
+    private static Student bound(Student student, int redId) {
+        return new Student(student.getName(), redId, student.getGpa());
+    }
+
+    private BTree<Student> index(String name) {
+        BTree<Student> index = indexes.get(name);
+        if (index == null) {
+            throw new IllegalArgumentException("No such index: " + name);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,18 @@
+package com.oop.util.student;
+
+import com.oop.model.Student;
+
+import java.util.Comparator;
+
+/* Shared instances behind StudentSortStrategy, so that the comparator of a tree can be
+   recognised as the same ordering by equals, e.g. by a Query ordered by the same strategy */
+final class StudentOrderings {
+    static final Comparator<Student> NAME_ASC = Comparator.comparing(Student::getName);
+    static final Comparator<Student> NAME_DESC = NAME_ASC.reversed();
+    static final Comparator<Student> GPA_ASC = Comparator.comparing(Student::getGpa);
+    static final Comparator<Student> GPA_DESC = GPA_ASC.reversed();
+
+    // private constructor to prevent instantiation
+    private StudentOrderings() {
+    }
+}
@@ -7,18 +7,18 @@ import java.util.Comparator;
 public interface StudentSortStrategy extends Comparator<Student> {
 
     static Comparator<Student> studentNameAscSort(){
-        return Comparator.comparing(Student::getName);
+        return StudentOrderings.NAME_ASC;
     }
 
     static Comparator<Student> studentNameDescSort(){
-        return Comparator.comparing(Student::getName).reversed();
+        return StudentOrderings.NAME_DESC;
     }
 
     static Comparator<Student> studentGPAAscSort(){
-        return Comparator.comparing(Student::getGpa);
+        return StudentOrderings.GPA_ASC;
     }
 
     static Comparator<Student> studentGPADescSort(){
-        return Comparator.comparing(Student::getGpa).reversed();
+        return StudentOrderings.GPA_DESC;
     }
 }
@@ -0,0 +1,181 @@
+package com.oop.util;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+public class BPlusTreeTest {
+
+    BPlusTree<Integer> bPlusTree;
+
+    @Before
+    public void setUp() {
+        bPlusTree = new BPlusTree<>(3);
+        bPlusTree.addAll(Arrays.asList(101, 120, 111, 152, 125, 80, 75, 99, 82, 83));
+    }
+
+    @Test
+    @DisplayName("Test toArray and positional access of BPlusTree")
+    public void testToArrayAndElementAt() {
+        Object[] expectedArray = {75, 80, 82, 83, 99, 101, 111, 120, 125, 152};
+        Assert.assertArrayEquals(expectedArray, bPlusTree.toArray());
+        for (int index = 0; index < expectedArray.length; index++) {
+            Assert.assertEquals(expectedArray[index], bPlusTree.elementAt(index));
+        }
+        Assert.assertEquals(Integer.valueOf(75), bPlusTree.first());
+        Assert.assertEquals(Integer.valueOf(152), bPlusTree.last());
+        Assert.assertTrue(bPlusTree.contains(99));
+        Assert.assertFalse(bPlusTree.contains(100));
+    }
+
+    @Test
+    @DisplayName("Descending and range scans of BPlusTree along the leaf links")
+    public void testScans() {
+        List<Integer> descending = new ArrayList<>();
+        bPlusTree.descendingIterator().forEachRemaining(descending::add);
+        Assert.assertEquals(Arrays.asList(152, 125, 120, 111, 101, 99, 83, 82, 80, 75), descending);
+
+        List<Integer> range = new ArrayList<>();
+        bPlusTree.range(82, true, 111, false).forEach(range::add);
+        Assert.assertEquals(Arrays.asList(82, 83, 99, 101), range);
+        range.clear();
+        bPlusTree.range(82, false, 111, true).forEach(range::add);
+        Assert.assertEquals(Arrays.asList(83, 99, 101, 111), range);
+        Assert.assertFalse(bPlusTree.range(153, true, 200, true).iterator().hasNext());
+
+        Cursor<Integer> cursor = bPlusTree.cursor();
+        Assert.assertTrue(cursor.seek(100));
+        Assert.assertEquals(Integer.valueOf(101), cursor.key());
+        Assert.assertTrue(cursor.prev());
+        Assert.assertEquals(Integer.valueOf(99), cursor.key());
+        Assert.assertFalse(cursor.seek(153));
+    }
+
+    @Test
+    @DisplayName("Random adds and removes with duplicates on BPlusTree match a sorted list")
+    public void testAddAndRemoveAcrossOrders() {
+        Random random = new Random(9);
+        for (int order : new int[]{3, 4, 5, 8, 64}) {
+            BPlusTree<Integer> tree = new BPlusTree<>(order, Comparator.<Integer>reverseOrder());
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < 20000; i++) {
+                Integer value = random.nextInt(400);
+                if (random.nextInt(3) > 0) {
+                    expected.add(value);
+                    tree.add(value);
+                } else {
+                    Assert.assertEquals(expected.remove(value), tree.remove(value));
+                }
+            }
+            expected.sort(Comparator.reverseOrder());
+            Assert.assertEquals(expected.size(), tree.size());
+            Assert.assertEquals(expected, new ArrayList<>(tree));
+            List<Integer> descending = new ArrayList<>();
+            tree.descendingIterator().forEachRemaining(descending::add);
+            Collections.reverse(descending);
+            Assert.assertEquals(expected, descending);
+            for (int index = 0; index < expected.size(); index += 53) {
+                Assert.assertEquals(expected.get(index), tree.elementAt(index));
+            }
+
+            for (Integer value : new ArrayList<>(expected)) {
+                Assert.assertTrue(tree.remove(value));
+            }
+            Assert.assertTrue(tree.isEmpty());
+            Iterator<Integer> iterator = tree.iterator();
+            Assert.assertFalse(iterator.hasNext());
+            Assert.assertFalse(tree.cursor().seekLast());
+        }
+    }
+
+    @Test
+    @DisplayName("A comparator failing during add leaves BPlusTree unchanged")
+    public void testThrowingComparator() {
+        boolean[] failing = {false};
+        // fails against the smallest key only, which sits in the leftmost leaf
+        Comparator<Integer> comparator = (v1, v2) -> {
+            if (failing[0] && (v1 == 0 || v2 == 0)) {
+                throw new IllegalStateException("Comparator failed");
+            }
+            return Integer.compare(v1, v2);
+        };
+        BPlusTree<Integer> tree = new BPlusTree<>(3, comparator);
+        List<Integer> expected = new ArrayList<>();
+        for (int value = 0; value < 60; value += 2) {
+            tree.add(value);
+            expected.add(value);
+        }
+        failing[0] = true;
+        Assert.assertThrows(IllegalStateException.class, () -> tree.add(-1));
+        failing[0] = false;
+        Assert.assertTrue(tree.add(59));
+        expected.add(59);
+        Collections.sort(expected);
+
+        Assert.assertEquals(expected.size(), tree.size());
+        for (int index = 0; index < expected.size(); index++) {
+            Assert.assertEquals(expected.get(index), tree.elementAt(index));
+            Cursor<Integer> cursor = tree.cursor();
+            Assert.assertTrue(cursor.seekAt(index));
+            Assert.assertEquals(expected.get(index), cursor.key());
+        }
+    }
+
+    @Test
+    @DisplayName("Removal through the iterators of BPlusTree")
+    public void testIteratorRemove() {
+        Assert.assertTrue(bPlusTree.removeAll(Arrays.asList(82, 83)));
+        Assert.assertTrue(bPlusTree.retainAll(Arrays.asList(75, 99, 101, 111, 125)));
+        Assert.assertEquals(Arrays.asList(75, 99, 101, 111, 125), new ArrayList<>(bPlusTree));
+
+        Random random = new Random(5);
+        for (int order : new int[]{3, 4, 16}) {
+            BPlusTree<Integer> tree = new BPlusTree<>(order);
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < 5000; i++) {
+                Integer value = random.nextInt(300);
+                expected.add(value);
+                tree.add(value);
+            }
+            Collections.sort(expected);
+            Assert.assertTrue(tree.removeIf(value -> value % 7 == 0));
+            expected.removeIf(value -> value % 7 == 0);
+
+            Iterator<Integer> descending = tree.descendingIterator();
+            while (descending.hasNext()) {
+                if (descending.next() % 5 == 0) {
+                    descending.remove();
+                }
+            }
+            expected.removeIf(value -> value % 5 == 0);
+            Iterator<Integer> range = tree.range(100, true, 200, false).iterator();
+            while (range.hasNext()) {
+                if (range.next() % 2 == 0) {
+                    range.remove();
+                }
+            }
+            expected.removeIf(value -> value >= 100 && value < 200 && value % 2 == 0);
+
+            Assert.assertEquals(expected.size(), tree.size());
+            Assert.assertEquals(expected, new ArrayList<>(tree));
+            for (int index = 0; index < expected.size(); index += 37) {
+                Assert.assertEquals(expected.get(index), tree.elementAt(index));
+            }
+        }
+        Iterator<Integer> iterator = bPlusTree.iterator();
+        Assert.assertThrows(IllegalStateException.class, iterator::remove);
+        iterator.next();
+        iterator.remove();
+        Assert.assertThrows(IllegalStateException.class, iterator::remove);
+        Assert.assertEquals(Integer.valueOf(99), iterator.next());
+    }
+}
@@ -0,0 +1,178 @@
+package com.oop.util;
+
+import com.oop.model.Student;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+
+public class BTreeMapTest {
+
+    BTreeMap<Integer, String> bTreeMap;
+
+    @Before
+    public void setUp() {
+        bTreeMap = new BTreeMap<>(3);
+        for (int key : Arrays.asList(101, 120, 111, 152, 125, 80, 75, 99, 82, 83)) {
+            bTreeMap.put(key, "v" + key);
+        }
+    }
+
+    @Test
+    @DisplayName("Test put replaces the value of an existing key in place")
+    public void testPutAndGet() {
+        Assert.assertEquals(10, bTreeMap.size());
+        Assert.assertEquals("v99", bTreeMap.get(99));
+        Assert.assertNull(bTreeMap.get(100));
+        Assert.assertEquals("v99", bTreeMap.put(99, "w99"));
+        Assert.assertEquals("w99", bTreeMap.get(99));
+        Assert.assertEquals(10, bTreeMap.size());
+        Assert.assertEquals("v80", bTreeMap.remove(80));
+        Assert.assertNull(bTreeMap.remove(80));
+        Assert.assertFalse(bTreeMap.containsKey(80));
+        Assert.assertEquals(Arrays.asList(75, 82, 83, 99, 101, 111, 120, 125, 152),
+                new ArrayList<>(bTreeMap.keySet()));
+    }
+
+    @Test
+    @DisplayName("Test computeIfAbsent, computeIfPresent, compute and merge")
+    public void testComputeAndMerge() {
+        Assert.assertEquals("v75", bTreeMap.computeIfAbsent(75, key -> "x"));
+        Assert.assertEquals("x", bTreeMap.computeIfAbsent(76, key -> "x"));
+        Assert.assertEquals("x!", bTreeMap.computeIfPresent(76, (key, value) -> value + "!"));
+        Assert.assertNull(bTreeMap.computeIfPresent(77, (key, value) -> "y"));
+        Assert.assertFalse(bTreeMap.containsKey(77));
+        Assert.assertEquals("v75v75", bTreeMap.merge(75, "v75", String::concat));
+        Assert.assertEquals("m", bTreeMap.merge(77, "m", String::concat));
+        Assert.assertEquals("c", bTreeMap.compute(78, (key, value) -> value == null ? "c" : value));
+        Assert.assertNull(bTreeMap.compute(78, (key, value) -> null));
+        Assert.assertNull(bTreeMap.computeIfPresent(76, (key, value) -> null));
+        Assert.assertFalse(bTreeMap.containsKey(76));
+        Assert.assertEquals(11, bTreeMap.size());
+    }
+
+    @Test
+    @DisplayName("Test navigation methods of BTreeMap")
+    public void testNavigation() {
+        Assert.assertEquals(Integer.valueOf(99), bTreeMap.lowerKey(100));
+        Assert.assertEquals(Integer.valueOf(83), bTreeMap.lowerKey(99));
+        Assert.assertEquals(Integer.valueOf(99), bTreeMap.floorKey(99));
+        Assert.assertEquals(Integer.valueOf(101), bTreeMap.ceilingKey(100));
+        Assert.assertEquals(Integer.valueOf(111), bTreeMap.higherKey(101));
+        Assert.assertNull(bTreeMap.higherKey(152));
+        Assert.assertEquals("v101", bTreeMap.ceilingEntry(100).getValue());
+        Assert.assertEquals(Integer.valueOf(75), bTreeMap.firstKey());
+        Assert.assertEquals(Integer.valueOf(152), bTreeMap.lastEntry().getKey());
+        Map.Entry<Integer, String> first = bTreeMap.pollFirstEntry();
+        Assert.assertEquals(Integer.valueOf(75), first.getKey());
+        Assert.assertEquals("v75", first.getValue());
+        Assert.assertEquals(Integer.valueOf(80), bTreeMap.firstKey());
+    }
+
+    @Test
+    @DisplayName("Test range and descending views of BTreeMap")
+    public void testViews() {
+        NavigableMap<Integer, String> subMap = bTreeMap.subMap(82, true, 111, false);
+        Assert.assertEquals(Arrays.asList(82, 83, 99, 101), new ArrayList<>(subMap.keySet()));
+        Assert.assertEquals(Arrays.asList(75, 80), new ArrayList<>(bTreeMap.headMap(82).keySet()));
+        Assert.assertEquals(Arrays.asList(125, 152), new ArrayList<>(bTreeMap.tailMap(120, false).keySet()));
+        Assert.assertEquals(Arrays.asList(152, 125, 120, 111, 101, 99, 83, 82, 80, 75),
+                new ArrayList<>(bTreeMap.descendingMap().keySet()));
+        Assert.assertEquals(Arrays.asList(101, 99, 83),
+                new ArrayList<>(bTreeMap.descendingMap().subMap(110, 82).keySet()));
+
+        // entries of a view write a new value through to the map
+        subMap.entrySet().forEach(entry -> entry.setValue(entry.getValue().toUpperCase()));
+        Assert.assertEquals("V99", bTreeMap.get(99));
+        Assert.assertEquals("v111", bTreeMap.get(111));
+        subMap.put(100, "v100");
+        Assert.assertEquals("v100", bTreeMap.get(100));
+        Assert.assertEquals(Integer.valueOf(101), bTreeMap.navigableKeySet().higher(100));
+    }
+
+    @Test
+    @DisplayName("Test removal through the iterators of the views of BTreeMap")
+    public void testViewIteratorRemove() {
+        Assert.assertTrue(bTreeMap.entrySet().removeIf(entry -> entry.getKey() % 2 == 0));
+        Assert.assertEquals(Arrays.asList(75, 83, 99, 101, 111, 125), new ArrayList<>(bTreeMap.keySet()));
+        Assert.assertTrue(bTreeMap.keySet().removeIf(key -> key > 110));
+        Assert.assertTrue(bTreeMap.values().remove("v83"));
+        Assert.assertFalse(bTreeMap.values().remove("v83"));
+        Assert.assertEquals(Arrays.asList(75, 99, 101), new ArrayList<>(bTreeMap.keySet()));
+
+        // through range and descending views, and past the first removal of an iterator
+        for (int key = 0; key < 200; key++) {
+            bTreeMap.put(key, "v" + key);
+        }
+        bTreeMap.subMap(50, 150).keySet().removeIf(key -> key % 3 == 0);
+        bTreeMap.descendingMap().values().removeIf(value -> value.endsWith("7"));
+        Iterator<Integer> keys = bTreeMap.descendingKeySet().iterator();
+        Assert.assertEquals(Integer.valueOf(199), keys.next());
+        keys.remove();
+        Assert.assertThrows(IllegalStateException.class, keys::remove);
+
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        for (int key = 0; key < 199; key++) {
+            if (!(key >= 50 && key < 150 && key % 3 == 0) && key % 10 != 7) {
+                expected.put(key, "v" + key);
+            }
+        }
+        Assert.assertEquals(expected, bTreeMap);
+        Assert.assertEquals(expected.size(), bTreeMap.size());
+    }
+
+    @Test
+    @DisplayName("Retrieve and update a student by redId without probing with a dummy student")
+    public void testStudentsByRedId() {
+        BTreeMap<Integer, Student> students = new BTreeMap<>();
+        List<Student> list = Arrays.asList(new Student("Megan", 1, 2.85F),
+                new Student("Karolina", 2, 2.7F), new Student("Alex", 3, 4.0F),
+                new Student("Jorge", 4, 2.5F));
+        list.forEach(student -> students.put(student.getRedId(), student));
+
+        Assert.assertEquals("Alex", students.get(3).getName());
+        students.computeIfPresent(4, (redId, student) -> {
+            student.setGpa(3.1F);
+            return student;
+        });
+        Assert.assertEquals(3.1F, students.get(4).getGpa(), 0F);
+        Assert.assertEquals(4, students.size());
+    }
+
+    @Test
+    @DisplayName("Test BTreeMap against TreeMap for random operations")
+    public void testAgainstTreeMap() {
+        BTreeMap<Integer, Integer> map = new BTreeMap<>(4, Comparator.reverseOrder());
+        TreeMap<Integer, Integer> expected = new TreeMap<>(Comparator.reverseOrder());
+        Random random = new Random(15);
+        for (int operation = 0; operation < 5000; operation++) {
+            int key = random.nextInt(500);
+            switch (random.nextInt(4)) {
+                case 0:
+                    Assert.assertEquals(expected.put(key, operation), map.put(key, operation));
+                    break;
+                case 1:
+                    Assert.assertEquals(expected.remove(key), map.remove(key));
+                    break;
+                case 2:
+                    Assert.assertEquals(expected.merge(key, 1, Integer::sum), map.merge(key, 1, Integer::sum));
+                    break;
+                default:
+                    Assert.assertEquals(expected.ceilingKey(key), map.ceilingKey(key));
+                    Assert.assertEquals(expected.lowerEntry(key), map.lowerEntry(key));
+            }
+        }
+        Assert.assertEquals(expected, map);
+        Assert.assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(map.entrySet()));
+    }
+}
@@ -7,8 +7,18 @@ import org.junit.jupiter.api.DisplayName;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class BTreeTest {
 
@@ -38,7 +48,7 @@ public class BTreeTest {
     }
 
     @Test
-    @DisplayName("toString for empty tree - to test NullNode")
+    @DisplayName("toString for empty tree, which has no root node")
     public void testToStringForEmptyTree(){
         Tree<Integer> emptyBTree = new BTree<>();
         String expectedOutput = "└── keys:() parent:() keySize=0 children=0\n";
@@ -70,4 +80,438 @@ public class BTreeTest {
         integerBTree.forEach(reverseIteratedList::add);
         Assert.assertEquals(expectedDescendingList, reverseIteratedList);
     }
+
+    @Test
+    @DisplayName("elementAt matches sorted order for every index")
+    public void testElementAtForEveryIndex() {
+        Object[] sortedArray = integerBTree.toArray();
+        for (int index = 0; index < sortedArray.length; index++) {
+            Assert.assertEquals(sortedArray[index], integerBTree.elementAt(index));
+        }
+    }
+
+    @Test
+    @DisplayName("rank and indexOf of keys in Btree")
+    public void testRankAndIndexOf() {
+        BTree<Integer> bTree = (BTree<Integer>) integerBTree;
+        Assert.assertEquals(0, bTree.rank(10));
+        Assert.assertEquals(4, bTree.rank(99));
+        Assert.assertEquals(5, bTree.rank(100));
+        Assert.assertEquals(10, bTree.rank(200));
+        Assert.assertEquals(6, bTree.indexOf(111));
+        Assert.assertEquals(-1, bTree.indexOf(112));
+    }
+
+    @Test
+    @DisplayName("elementAt on a larger Btree with higher order")
+    public void testElementAtOnLargerTree() {
+        BTree<Integer> bTree = new BTree<>(5);
+        List<Integer> values = new ArrayList<>();
+        for (int value = 0; value < 1000; value++) {
+            values.add(value);
+        }
+        Collections.shuffle(values, new Random(7));
+        bTree.addAll(values);
+        for (int index = 0; index < 1000; index++) {
+            Assert.assertEquals(Integer.valueOf(index), bTree.elementAt(index));
+            Assert.assertEquals(index, bTree.indexOf(index));
+        }
+    }
+
+    @Test
+    @DisplayName("Inserts with duplicates keep sorted order across orders")
+    public void testInsertWithDuplicatesAcrossOrders() {
+        Random random = new Random(11);
+        for (int order : new int[]{3, 4, 16, 64}) {
+            BTree<Integer> bTree = new BTree<>(order);
+            List<Integer> expected = new ArrayList<>();
+            for (int count = 0; count < 2000; count++) {
+                int value = random.nextInt(500);
+                bTree.add(value);
+                expected.add(value);
+            }
+            Collections.sort(expected);
+            Assert.assertEquals(expected, new ArrayList<>(bTree));
+            Assert.assertTrue(bTree.contains(expected.get(1000)));
+            Assert.assertFalse(bTree.contains(-1));
+        }
+    }
+
+    @Test
+    @DisplayName("Remove keys from leaf and internal nodes of Btree")
+    public void testRemove() {
+        Assert.assertTrue(integerBTree.remove(101));
+        Assert.assertTrue(integerBTree.remove(75));
+        Assert.assertFalse(integerBTree.remove(76));
+        Object[] expectedArray = {80,82,83,99,111,120,125,152};
+        Assert.assertArrayEquals(expectedArray, integerBTree.toArray());
+        Assert.assertEquals(8, integerBTree.size());
+        Assert.assertEquals(Integer.valueOf(111), integerBTree.elementAt(4));
+    }
+
+    @Test
+    @DisplayName("Removing every key collapses Btree to an empty tree")
+    public void testRemoveAllKeys() {
+        Assert.assertTrue(integerBTree.removeAll(Arrays.asList(75,80,82,83,99,101,111,120,125,152)));
+        Assert.assertTrue(integerBTree.isEmpty());
+        Assert.assertFalse(integerBTree.iterator().hasNext());
+        Assert.assertEquals("└── keys:() parent:() keySize=0 children=0\n", integerBTree.toString());
+
+        integerBTree.add(42);
+        Assert.assertEquals(Collections.singletonList(42), new ArrayList<>(integerBTree));
+    }
+
+    @Test
+    @DisplayName("Interleaved inserts and removes with duplicates across orders")
+    public void testInterleavedAddAndRemove() {
+        Random random = new Random(3);
+        for (int order : new int[]{3, 4, 5, 32}) {
+            BTree<Integer> bTree = new BTree<>(order);
+            List<Integer> expected = new ArrayList<>();
+            for (int count = 0; count < 5000; count++) {
+                Integer value = random.nextInt(200);
+                if (random.nextBoolean()) {
+                    bTree.add(value);
+                    expected.add(value);
+                } else {
+                    Assert.assertEquals(expected.remove(value), bTree.remove(value));
+                }
+            }
+            Collections.sort(expected);
+            Assert.assertEquals(expected, new ArrayList<>(bTree));
+            for (int index = 0; index < expected.size(); index++) {
+                Assert.assertEquals(expected.get(index), bTree.elementAt(index));
+            }
+            bTree.trimToSize();
+            Assert.assertEquals(expected.size(), bTree.size());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    @DisplayName("throws exception when order of Btree is less than 3")
+    public void testInvalidOrder() {
+        new BTree<Integer>(2);
+    }
+
+    @Test
+    @DisplayName("Bulk load sorted values into Btree across orders and fill factors")
+    public void testFromSorted() {
+        List<Integer> sortedValues = new ArrayList<>();
+        for (int value = 0; value < 1000; value++) {
+            sortedValues.add(value / 3);
+        }
+        for (int order : new int[]{3, 4, 16}) {
+            for (double fillFactor : new double[]{0.5, BTree.DEFAULT_FILL_FACTOR}) {
+                BTree<Integer> bTree = BTree.fromSorted(sortedValues, order, null, fillFactor);
+                Assert.assertEquals(sortedValues, new ArrayList<>(bTree));
+                Assert.assertEquals(Integer.valueOf(100), bTree.elementAt(300));
+                bTree.add(-1);
+                Assert.assertTrue(bTree.remove(0));
+                Assert.assertEquals(Integer.valueOf(-1), bTree.elementAt(0));
+                Assert.assertEquals(1000, bTree.size());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("addAll of a sorted set into an empty Btree")
+    public void testAddAllSortedSet() {
+        BTree<Integer> bTree = new BTree<>(4);
+        bTree.addAll(new TreeSet<>(integerBTree));
+        Assert.assertArrayEquals(integerBTree.toArray(), bTree.toArray());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    @DisplayName("throws exception when bulk loaded values are not sorted")
+    public void testFromSortedWithUnsortedValues() {
+        BTree.fromSorted(Arrays.asList(1, 3, 2));
+    }
+
+    @Test
+    @DisplayName("floor, ceiling, higher and lower of Btree")
+    public void testNavigation() {
+        BTree<Integer> bTree = (BTree<Integer>) integerBTree;
+        Assert.assertEquals(Integer.valueOf(99), bTree.floor(100));
+        Assert.assertEquals(Integer.valueOf(101), bTree.ceiling(100));
+        Assert.assertEquals(Integer.valueOf(101), bTree.ceiling(101));
+        Assert.assertEquals(Integer.valueOf(111), bTree.higher(101));
+        Assert.assertEquals(Integer.valueOf(99), bTree.lower(101));
+        Assert.assertNull(bTree.lower(75));
+        Assert.assertNull(bTree.higher(152));
+        Assert.assertEquals(Integer.valueOf(75), bTree.first());
+        Assert.assertEquals(Integer.valueOf(152), bTree.last());
+    }
+
+    @Test
+    @DisplayName("Range views of Btree follow later inserts")
+    public void testRangeViews() {
+        BTree<Integer> bTree = (BTree<Integer>) integerBTree;
+        NavigableSet<Integer> range = bTree.subSet(80, false, 120, true);
+        Assert.assertEquals(Arrays.asList(82, 83, 99, 101, 111, 120), new ArrayList<>(range));
+        Assert.assertEquals(Arrays.asList(125, 152), new ArrayList<>(bTree.tailSet(120, false)));
+        Assert.assertEquals(Arrays.asList(80, 75), new ArrayList<>(bTree.headSet(82, false).descendingSet()));
+
+        bTree.add(100);
+        bTree.add(121);
+        Assert.assertEquals(7, range.size());
+        Assert.assertEquals(Integer.valueOf(100), range.higher(99));
+        Assert.assertEquals(Integer.valueOf(120), range.last());
+        Assert.assertEquals(Arrays.asList(120, 111, 101, 100), new ArrayList<>(range.tailSet(100, true).descendingSet()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    @DisplayName("throws exception when adding outside of a range view")
+    public void testRangeViewAddOutOfRange() {
+        ((BTree<Integer>) integerBTree).headSet(100).add(101);
+    }
+
+    @Test
+    @DisplayName("Spliterator of BTree splits into sorted subtree ranges of exact size")
+    public void testSpliterator() {
+        BTree<Integer> bTree = new BTree<>(4);
+        List<Integer> expected = new ArrayList<>();
+        for (int value = 0; value < 10000; value++) {
+            bTree.add(value % 5000);
+            expected.add(value % 5000);
+        }
+        Collections.sort(expected);
+
+        Spliterator<Integer> suffix = bTree.spliterator();
+        Assert.assertTrue(suffix.hasCharacteristics(Spliterator.SORTED | Spliterator.SIZED | Spliterator.SUBSIZED));
+        Assert.assertFalse(suffix.hasCharacteristics(Spliterator.DISTINCT));
+        Assert.assertNull(suffix.getComparator());
+        Spliterator<Integer> prefix = suffix.trySplit();
+        Spliterator<Integer> middle = suffix.trySplit();
+        Assert.assertNotNull(middle);
+        Assert.assertEquals(10000, prefix.estimateSize() + middle.estimateSize() + suffix.estimateSize());
+        List<Integer> elements = new ArrayList<>();
+        prefix.forEachRemaining(elements::add);
+        middle.forEachRemaining(elements::add);
+        suffix.forEachRemaining(elements::add);
+        Assert.assertEquals(expected, elements);
+
+        Assert.assertEquals(expected, bTree.parallelStream().collect(Collectors.toList()));
+        Assert.assertEquals(expected.stream().filter(value -> value % 7 == 0).count(),
+                bTree.parallelStream().filter(value -> value % 7 == 0).count());
+        Assert.assertEquals(Arrays.asList(2000, 2000, 2001, 2001),
+                bTree.subSet(2000, true, 2001, true).parallelStream().collect(Collectors.toList()));
+        Assert.assertEquals(Arrays.asList("14", "14", "7", "7", "0", "0"),
+                TreeUtils.toListParallel(bTree, Comparator.reverseOrder(),
+                        value -> value < 15 && value % 7 == 0, String::valueOf));
+    }
+
+    @Test
+    @DisplayName("Cursor of BTree seeks and moves both ways across orders")
+    public void testCursor() {
+        Random random = new Random(5);
+        for (int order : new int[]{3, 4, 7, 32}) {
+            BTree<Integer> bTree = new BTree<>(order);
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                int value = random.nextInt(700) * 2;
+                bTree.add(value);
+                expected.add(value);
+            }
+            Collections.sort(expected);
+
+            Cursor<Integer> cursor = bTree.cursor();
+            List<Integer> ascending = new ArrayList<>();
+            for (boolean valid = cursor.seekFirst(); valid; valid = cursor.next()) {
+                ascending.add(cursor.key());
+            }
+            Assert.assertEquals(expected, ascending);
+            Assert.assertFalse(cursor.isValid());
+
+            List<Integer> descending = new ArrayList<>();
+            for (boolean valid = cursor.seekLast(); valid; valid = cursor.prev()) {
+                descending.add(cursor.key());
+            }
+            Collections.reverse(descending);
+            Assert.assertEquals(expected, descending);
+
+            for (int probe = -1; probe < 1402; probe += 3) {
+                int index = Collections.binarySearch(expected, probe);
+                while (index > 0 && expected.get(index - 1) == probe) {
+                    index--;
+                }
+                index = index < 0 ? -index - 1 : index;
+                Assert.assertEquals(index < expected.size(), cursor.seek(probe));
+                if (index < expected.size()) {
+                    Assert.assertEquals(expected.get(index), cursor.key());
+                    Assert.assertEquals(index > 0, cursor.prev());
+                    if (index > 0) {
+                        Assert.assertEquals(expected.get(index - 1), cursor.key());
+                    }
+                }
+            }
+            for (int index = 0; index < expected.size(); index += 101) {
+                Assert.assertTrue(cursor.seekAt(index));
+                Assert.assertEquals(expected.get(index), cursor.key());
+                Assert.assertEquals(index + 1 < expected.size(), cursor.next());
+            }
+            cursor.reset();
+            Assert.assertThrows(NoSuchElementException.class, cursor::key);
+        }
+        Assert.assertFalse(new BTree<Integer>().cursor().seekFirst());
+    }
+
+    @Test
+    @DisplayName("Snapshots keep the keys of their point in time while the Btree is written")
+    public void testSnapshot() {
+        BTree<Integer> bTree = new BTree<>(4);
+        for (int value = 0; value < 1000; value++) {
+            bTree.add(value);
+        }
+        BTree<Integer> snapshot = bTree.snapshot();
+        Iterator<Integer> snapshotIterator = snapshot.iterator();
+        List<Integer> iteratedList = new ArrayList<>();
+        for (int value = 0; value < 1000; value++) {
+            // interleaving writes with the iteration of the snapshot
+            iteratedList.add(snapshotIterator.next());
+            bTree.remove(value);
+            bTree.add(value + 1000);
+            bTree.add(value + 1000);
+        }
+        Assert.assertFalse(snapshotIterator.hasNext());
+        Assert.assertEquals(IntStream.range(0, 1000).boxed().collect(Collectors.toList()), iteratedList);
+        Assert.assertEquals(1000, snapshot.size());
+        Assert.assertEquals(Integer.valueOf(500), snapshot.elementAt(500));
+        Assert.assertEquals(2000, bTree.size());
+        Assert.assertEquals(Integer.valueOf(1000), bTree.first());
+
+        BTree<Integer> laterSnapshot = bTree.snapshot();
+        bTree.clear();
+        Assert.assertEquals(2000, laterSnapshot.size());
+        Assert.assertTrue(laterSnapshot.contains(1999));
+        Assert.assertFalse(snapshot.contains(1999));
+    }
+
+    @Test
+    @DisplayName("throws exception when a snapshot of Btree is written")
+    public void testSnapshotIsReadOnly() {
+        BTree<Integer> snapshot = ((BTree<Integer>) integerBTree).snapshot();
+        Assert.assertThrows(UnsupportedOperationException.class, () -> snapshot.add(1));
+        Assert.assertThrows(UnsupportedOperationException.class, () -> snapshot.remove(101));
+        Assert.assertThrows(UnsupportedOperationException.class, snapshot::pollFirst);
+        Assert.assertThrows(UnsupportedOperationException.class, snapshot::clear);
+        Assert.assertSame(snapshot, snapshot.snapshot());
+        Assert.assertEquals(10, snapshot.size());
+        Assert.assertTrue(integerBTree.add(1));
+    }
+
+    @Test
+    @DisplayName("Positional removal of elements that compare equal but are distinct")
+    public void testRemoveByPositionWithEqualKeys() {
+        // strings ordered by their length only
+        Comparator<String> byLength = Comparator.comparingInt(String::length);
+        Random random = new Random(42);
+        for (int order : new int[]{3, 4, 7}) {
+            BTree<String> bTree = new BTree<>(order, byLength);
+            for (int index = 0; index < 2000; index++) {
+                bTree.add("abcde".substring(0, 1 + random.nextInt(5)) + "#" + index);
+            }
+            List<String> expected = new ArrayList<>(bTree);
+            Assert.assertSame(expected.remove(0), bTree.pollFirst());
+            Assert.assertSame(expected.remove(expected.size() - 1), bTree.pollLast());
+            Assert.assertSame(expected.remove(700), bTree.removeAt(700));
+            NavigableSet<String> descending = bTree.descendingSet();
+            Assert.assertSame(expected.remove(expected.size() - 1), descending.pollFirst());
+
+            Assert.assertTrue(bTree.removeIf(value -> value.endsWith("7")));
+            expected.removeIf(value -> value.endsWith("7"));
+            Iterator<String> iterator = descending.iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().endsWith("3")) {
+                    iterator.remove();
+                }
+            }
+            expected.removeIf(value -> value.endsWith("3"));
+            Assert.assertEquals(expected, new ArrayList<>(bTree));
+            Assert.assertEquals(expected.size(), bTree.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Btree compares as a sorted multiset among BTrees")
+    public void testMultisetEquality() {
+        BTree<Integer> bTree = new BTree<>(4);
+        bTree.addAll(Arrays.asList(1, 1, 2));
+        BTree<Integer> otherBTree = new BTree<>();
+        otherBTree.addAll(Arrays.asList(1, 2, 2));
+        Assert.assertNotEquals(bTree, otherBTree);
+        Assert.assertTrue(otherBTree.remove(2));
+        Assert.assertTrue(otherBTree.add(1));
+        Assert.assertEquals(bTree, otherBTree);
+        Assert.assertEquals(bTree.hashCode(), otherBTree.hashCode());
+        Assert.assertNotEquals(bTree, new TreeSet<>(Arrays.asList(1, 2)));
+        Assert.assertNotEquals(new TreeSet<>(Arrays.asList(1, 2)), bTree);
+        Assert.assertEquals(bTree.headSet(2), otherBTree.headSet(2, false));
+        Assert.assertNotEquals(bTree, Arrays.asList(1, 1, 2));
+
+        Assert.assertFalse(bTree.descendingSet().spliterator().hasCharacteristics(Spliterator.DISTINCT));
+        Assert.assertFalse(bTree.spliterator().hasCharacteristics(Spliterator.DISTINCT));
+        Assert.assertTrue(bTree.retainAll(Collections.singleton(1)));
+        Assert.assertEquals(Arrays.asList(1, 1), new ArrayList<>(bTree));
+    }
+
+    @Test
+    @DisplayName("A comparator failing during add leaves BTree unchanged")
+    public void testThrowingComparator() {
+        boolean[] failing = {false};
+        // fails against the smallest key only, which sits in the leftmost leaf
+        Comparator<Integer> comparator = (v1, v2) -> {
+            if (failing[0] && (v1 == 0 || v2 == 0)) {
+                throw new IllegalStateException("Comparator failed");
+            }
+            return Integer.compare(v1, v2);
+        };
+        BTree<Integer> bTree = new BTree<>(3, comparator);
+        List<Integer> expected = new ArrayList<>();
+        for (int value = 0; value < 60; value += 2) {
+            bTree.add(value);
+            expected.add(value);
+        }
+        failing[0] = true;
+        Assert.assertThrows(IllegalStateException.class, () -> bTree.add(-1));
+        failing[0] = false;
+        Assert.assertTrue(bTree.add(59));
+        expected.add(59);
+        Collections.sort(expected);
+
+        Assert.assertEquals(expected.size(), bTree.size());
+        for (int index = 0; index < expected.size(); index++) {
+            Assert.assertEquals(expected.get(index), bTree.elementAt(index));
+        }
+        Assert.assertEquals(expected.indexOf(59), bTree.rank(59));
+        Assert.assertEquals(expected.indexOf(59), bTree.indexOf(59));
+        Assert.assertEquals(expected.stream().mapToInt(Integer::intValue).sum(),
+                bTree.parallelStream().mapToInt(Integer::intValue).sum());
+    }
+
+    @Test
+    @DisplayName("BTree and other Sets compare equal both ways")
+    public void testSetEqualitySymmetry() {
+        BTree<Integer> bTree = new BTree<>(4);
+        bTree.addAll(Arrays.asList(3, 1, 2));
+        TreeSet<Integer> treeSet = new TreeSet<>(Arrays.asList(1, 2, 3));
+        NavigableSet<Integer> unmodifiable = Collections.unmodifiableNavigableSet(bTree);
+        Assert.assertEquals(treeSet, bTree);
+        Assert.assertEquals(bTree, treeSet);
+        Assert.assertEquals(unmodifiable, treeSet);
+        Assert.assertEquals(treeSet, unmodifiable);
+        Assert.assertEquals(bTree, unmodifiable);
+        Assert.assertEquals(treeSet.hashCode(), bTree.hashCode());
+        Assert.assertEquals(new HashSet<>(Arrays.asList(2, 3)), bTree.tailSet(2, true));
+        Assert.assertEquals(bTree.tailSet(2, true), new HashSet<>(Arrays.asList(2, 3)));
+        Assert.assertEquals(bTree.descendingSet(), treeSet);
+
+        // a duplicate makes the tree larger than the Set of its distinct elements
+        bTree.add(2);
+        Assert.assertNotEquals(treeSet, bTree);
+        Assert.assertNotEquals(bTree, treeSet);
+        // nor does it contain all of a Set as large as itself
+        treeSet.add(4);
+        Assert.assertNotEquals(bTree, treeSet);
+        Assert.assertNotEquals(bTree, new TreeSet<>(Arrays.asList("a", "b", "c", "d")));
+    }
 }
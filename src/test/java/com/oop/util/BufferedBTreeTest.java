@@ -0,0 +1,123 @@
+package com.oop.util;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+public class BufferedBTreeTest {
+
+    Tree<Integer> bufferedBTree;
+
+    @Before
+    public void setUp() {
+        // a buffer of two messages makes nearly every update flush
+        bufferedBTree = new BufferedBTree<>(3, 2, null);
+        bufferedBTree.addAll(Arrays.asList(101, 120, 111, 152, 125, 80, 75, 99, 82, 83));
+    }
+
+    @Test
+    @DisplayName("Operations of BufferedBTree with messages pending")
+    public void testOperations() {
+        Assert.assertArrayEquals(new Object[]{75, 80, 82, 83, 99, 101, 111, 120, 125, 152},
+                bufferedBTree.toArray());
+        Assert.assertTrue(bufferedBTree.add(99));
+        Assert.assertEquals(Integer.valueOf(99), bufferedBTree.elementAt(5));
+        Assert.assertTrue(bufferedBTree.remove(99));
+        Assert.assertTrue(bufferedBTree.contains(99));
+        Assert.assertTrue(bufferedBTree.remove(99));
+        Assert.assertFalse(bufferedBTree.contains(99));
+        Assert.assertFalse(bufferedBTree.remove(99));
+        Assert.assertEquals(Integer.valueOf(101), bufferedBTree.elementAt(4));
+        Assert.assertEquals(9, bufferedBTree.size());
+    }
+
+    @Test
+    @DisplayName("Flushing BufferedBTree keeps its keys")
+    public void testFlush() {
+        BufferedBTree<Integer> tree = new BufferedBTree<>(4, 64, null);
+        for (int value = 0; value < 1000; value++) {
+            tree.add((value * 7919) % 1000);
+        }
+        Object[] pending = tree.toArray();
+        tree.flush();
+        Assert.assertArrayEquals(pending, tree.toArray());
+        for (int value = 0; value < 1000; value++) {
+            Assert.assertEquals(Integer.valueOf(value), tree.elementAt(value));
+        }
+    }
+
+    @Test
+    @DisplayName("Random adds and removes on BufferedBTree against a sorted list")
+    public void testRandomUpdates() {
+        Random random = new Random(42);
+        for (int[] parameters : new int[][]{{3, 1}, {4, 8}, {16, 256}}) {
+            BufferedBTree<Integer> tree = new BufferedBTree<>(parameters[0], parameters[1], null);
+            List<Integer> expected = new ArrayList<>();
+            for (int operation = 0; operation < 20000; operation++) {
+                Integer value = random.nextInt(500);
+                if (random.nextInt(3) < 2) {
+                    tree.add(value);
+                    int index = Collections.binarySearch(expected, value);
+                    expected.add(index < 0 ? -index - 1 : index, value);
+                } else {
+                    Assert.assertEquals(expected.remove(value), tree.remove(value));
+                }
+                Assert.assertEquals(expected.contains(value), tree.contains(value));
+            }
+            Assert.assertEquals(expected, new ArrayList<>(tree));
+            for (int index = 0; index < expected.size(); index += 7) {
+                Assert.assertEquals(expected.get(index), tree.elementAt(index));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    @DisplayName("BufferedBTree rejects an empty buffer")
+    public void testEmptyBuffer() {
+        new BufferedBTree<Integer>(3, 0, null);
+    }
+
+    @Test
+    @DisplayName("Removal through the iterator of BufferedBTree")
+    public void testIteratorRemove() {
+        Assert.assertTrue(bufferedBTree.removeAll(Arrays.asList(82, 83)));
+        Assert.assertTrue(bufferedBTree.retainAll(Arrays.asList(75, 99, 101, 111, 125)));
+        Assert.assertEquals(Arrays.asList(75, 99, 101, 111, 125), new ArrayList<>(bufferedBTree));
+        Iterator<Integer> iterator = bufferedBTree.iterator();
+        Assert.assertThrows(IllegalStateException.class, iterator::remove);
+        iterator.next();
+        iterator.remove();
+        Assert.assertThrows(IllegalStateException.class, iterator::remove);
+        Assert.assertEquals(Integer.valueOf(99), iterator.next());
+
+        Random random = new Random(13);
+        for (int bufferSize : new int[]{1, 8, 64}) {
+            BufferedBTree<Integer> tree = new BufferedBTree<>(4, bufferSize, null);
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < 5000; i++) {
+                Integer value = random.nextInt(300);
+                tree.add(value);
+                expected.add(value);
+            }
+            Collections.sort(expected);
+            // every removal leaves a message behind, some of them flushed while iterating
+            Assert.assertTrue(tree.removeIf(value -> value % 3 == 0));
+            expected.removeIf(value -> value % 3 == 0);
+            Assert.assertEquals(expected.size(), tree.size());
+            Assert.assertEquals(expected, new ArrayList<>(tree));
+            for (int index = 0; index < expected.size(); index += 37) {
+                Assert.assertEquals(expected.get(index), tree.elementAt(index));
+            }
+            tree.flush();
+            Assert.assertEquals(expected, new ArrayList<>(tree));
+        }
+    }
+}
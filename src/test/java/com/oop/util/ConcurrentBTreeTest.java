@@ -0,0 +1,115 @@
+package com.oop.util;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ConcurrentBTreeTest {
+
+    Tree<Integer> concurrentBTree;
+
+    @Before
+    public void setUp() {
+        concurrentBTree = new ConcurrentBTree<>(3);
+        concurrentBTree.addAll(Arrays.asList(101, 120, 111, 152, 125, 80, 75, 99, 82, 83));
+    }
+
+    @Test
+    @DisplayName("Single threaded operations of ConcurrentBTree")
+    public void testSingleThreadedOperations() {
+        Assert.assertArrayEquals(new Object[]{75, 80, 82, 83, 99, 101, 111, 120, 125, 152},
+                concurrentBTree.toArray());
+        Assert.assertFalse(concurrentBTree.add(99));
+        Assert.assertTrue(concurrentBTree.remove(99));
+        Assert.assertFalse(concurrentBTree.contains(99));
+        Assert.assertEquals(Integer.valueOf(101), concurrentBTree.elementAt(4));
+        Assert.assertEquals(9, concurrentBTree.size());
+    }
+
+    @Test
+    @DisplayName("Parallel writers and readers on ConcurrentBTree")
+    public void testParallelWritersAndReaders() throws Exception {
+        Tree<Integer> tree = new ConcurrentBTree<>(4);
+        int writers = 4;
+        int valuesPerWriter = 5000;
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int writer = 0; writer < writers; writer++) {
+                int offset = writer;
+                futures.add(executor.submit(() -> {
+                    for (int value = offset; value < writers * valuesPerWriter; value += writers) {
+                        Assert.assertTrue(tree.add(value));
+                        Assert.assertTrue(tree.contains(value));
+                    }
+                }));
+            }
+            futures.add(executor.submit(() -> {
+                // readers only ever see keys in ascending order
+                for (int scan = 0; scan < 20; scan++) {
+                    int previous = -1;
+                    for (int value : tree) {
+                        Assert.assertTrue(value > previous);
+                        previous = value;
+                    }
+                }
+            }));
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(writers * valuesPerWriter, tree.size());
+        int expected = 0;
+        for (int value : tree) {
+            Assert.assertEquals(expected++, value);
+        }
+    }
+
+    @Test
+    @DisplayName("clear() while writers are adding to ConcurrentBTree")
+    public void testClearWhileAdding() throws Exception {
+        ConcurrentBTree<Integer> tree = new ConcurrentBTree<>(4);
+        int writers = 3;
+        int valuesPerWriter = 100000;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int writer = 0; writer < writers; writer++) {
+                int offset = writer;
+                futures.add(executor.submit(() -> {
+                    for (int value = offset; value < writers * valuesPerWriter; value += writers) {
+                        tree.add(value);
+                    }
+                }));
+            }
+            while (!futures.stream().allMatch(Future::isDone)) {
+                tree.clear();
+                Thread.yield();
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        // the count and the keys are of the same generation, however the clears fell
+        List<Integer> values = new ArrayList<>(tree);
+        Assert.assertEquals(values.size(), tree.size());
+        Assert.assertEquals(values.isEmpty(), tree.isEmpty());
+        for (int index = 1; index < values.size(); index++) {
+            Assert.assertTrue(values.get(index - 1) < values.get(index));
+        }
+        tree.add(-1);
+        Assert.assertEquals(values.size() + 1, tree.size());
+    }
+}
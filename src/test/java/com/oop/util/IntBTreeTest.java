@@ -0,0 +1,71 @@
+package com.oop.util;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PrimitiveIterator;
+
+public class IntBTreeTest {
+
+    IntBTree intBTree;
+
+    @Before
+    public void setUp() {
+        intBTree = new IntBTree();
+        for (int value : new int[]{101, 120, 111, 152, 125, 80, 75, 99, 82, 83}) {
+            intBTree.addInt(value);
+        }
+    }
+
+    @Test
+    @DisplayName("Test toIntArray method of IntBTree")
+    public void testToIntArray() {
+        int[] expectedArray = {75, 80, 82, 83, 99, 101, 111, 120, 125, 152};
+        Assert.assertArrayEquals(expectedArray, intBTree.toIntArray());
+        Assert.assertArrayEquals(Arrays.stream(expectedArray).boxed().toArray(), intBTree.toArray());
+    }
+
+    @Test
+    @DisplayName("Primitive lookups and positional access of IntBTree")
+    public void testContainsAndIntAt() {
+        Assert.assertTrue(intBTree.containsInt(99));
+        Assert.assertFalse(intBTree.containsInt(100));
+        Assert.assertTrue(intBTree.contains(99));
+        Assert.assertFalse(intBTree.contains(99L));
+        Assert.assertEquals(82, intBTree.intAt(2));
+        Assert.assertEquals(Integer.valueOf(152), intBTree.elementAt(9));
+        Assert.assertEquals(4, intBTree.rank(99));
+    }
+
+    @Test
+    @DisplayName("External iteration of IntBTree without boxing")
+    public void testIterator() {
+        List<Integer> iteratedList = new ArrayList<>();
+        PrimitiveIterator.OfInt iterator = intBTree.iterator();
+        while (iterator.hasNext()) {
+            iteratedList.add(iterator.nextInt());
+        }
+        Assert.assertEquals(Arrays.asList(75, 80, 82, 83, 99, 101, 111, 120, 125, 152), iteratedList);
+    }
+
+    @Test
+    @DisplayName("Remove keys from IntBTree")
+    public void testRemove() {
+        Assert.assertTrue(intBTree.removeInt(101));
+        Assert.assertTrue(intBTree.remove(Integer.valueOf(75)));
+        Assert.assertFalse(intBTree.removeInt(76));
+        Assert.assertArrayEquals(new int[]{80, 82, 83, 99, 111, 120, 125, 152}, intBTree.toIntArray());
+        Assert.assertEquals(8, intBTree.size());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    @DisplayName("throws exception when 'k' is out of range")
+    public void testIntAtIndexOutOfBoundsException() {
+        intBTree.intAt(10);
+    }
+}
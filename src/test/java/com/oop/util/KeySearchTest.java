@@ -0,0 +1,60 @@
+package com.oop.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class KeySearchTest {
+
+    @Test
+    @DisplayName("Node search of int keys against binary search")
+    public void testIntKeys() {
+        Random random = new Random(42);
+        for (int keySize = 0; keySize <= 300; keySize++) {
+            // spare capacity past keySize holds keys that must not be looked at
+            int[] keys = new int[keySize + 8];
+            Arrays.fill(keys, Integer.MIN_VALUE);
+            for (int index = 0; index < keySize; index++) {
+                keys[index] = random.nextInt(2 * keySize + 1) - keySize;
+            }
+            Arrays.sort(keys, 0, keySize);
+            for (int value : new int[]{Integer.MIN_VALUE, Integer.MAX_VALUE, -keySize - 1, 0, keySize + 1,
+                    random.nextInt(2 * keySize + 1) - keySize}) {
+                int expected = KeySearch.scalarLowerBound(keys, keySize, value);
+                Assert.assertEquals(expected, KeySearch.lowerBound(keys, keySize, value));
+                int upper = value == Integer.MAX_VALUE ? keySize : KeySearch.scalarLowerBound(keys, keySize, value + 1);
+                Assert.assertEquals(upper, KeySearch.upperBound(keys, keySize, value));
+                if (KeySearch.VECTORIZED && keySize >= KeySearch.INT_LANES) {
+                    Assert.assertEquals(expected, KeySearch.vectorLowerBound(keys, keySize, value));
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Node search of long keys against binary search")
+    public void testLongKeys() {
+        Random random = new Random(42);
+        for (int keySize = 0; keySize <= 300; keySize++) {
+            long[] keys = new long[keySize + 8];
+            Arrays.fill(keys, Long.MIN_VALUE);
+            for (int index = 0; index < keySize; index++) {
+                keys[index] = (random.nextInt(2 * keySize + 1) - keySize) * (1L << 33);
+            }
+            Arrays.sort(keys, 0, keySize);
+            for (long value : new long[]{Long.MIN_VALUE, Long.MAX_VALUE, 0, 1L << 33,
+                    (random.nextInt(2 * keySize + 1) - keySize) * (1L << 33)}) {
+                int expected = KeySearch.scalarLowerBound(keys, keySize, value);
+                Assert.assertEquals(expected, KeySearch.lowerBound(keys, keySize, value));
+                int upper = value == Long.MAX_VALUE ? keySize : KeySearch.scalarLowerBound(keys, keySize, value + 1);
+                Assert.assertEquals(upper, KeySearch.upperBound(keys, keySize, value));
+                if (KeySearch.VECTORIZED && keySize >= KeySearch.LONG_LANES) {
+                    Assert.assertEquals(expected, KeySearch.vectorLowerBound(keys, keySize, value));
+                }
+            }
+        }
+    }
+}
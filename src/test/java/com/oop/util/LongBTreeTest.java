@@ -0,0 +1,40 @@
+package com.oop.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.Random;
+import java.util.TreeMap;
+
+public class LongBTreeTest {
+
+    @Test
+    @DisplayName("LongBTree matches a sorted multiset under inserts and removes")
+    public void testAddAndRemoveAgainstSortedMultiset() {
+        Random random = new Random(17);
+        for (int order : new int[]{3, 16}) {
+            LongBTree longBTree = new LongBTree(order);
+            TreeMap<Long, Integer> expected = new TreeMap<>();
+            for (int count = 0; count < 5000; count++) {
+                long value = (random.nextInt(300) - 150) * 10_000_000_000L;
+                if (random.nextInt(3) > 0) {
+                    longBTree.addLong(value);
+                    expected.merge(value, 1, Integer::sum);
+                } else {
+                    boolean present = expected.containsKey(value);
+                    Assert.assertEquals(present, longBTree.removeLong(value));
+                    expected.computeIfPresent(value, (key, occurrences) -> occurrences > 1 ? occurrences - 1 : null);
+                }
+            }
+            int index = 0;
+            for (long value : expected.keySet()) {
+                for (int occurrence = 0; occurrence < expected.get(value); occurrence++) {
+                    Assert.assertEquals(value, longBTree.longAt(index++));
+                }
+                Assert.assertTrue(longBTree.containsLong(value));
+            }
+            Assert.assertEquals(index, longBTree.size());
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.oop.util;
+
+import com.oop.model.Student;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static com.oop.util.student.StudentSortStrategy.studentGPAAscSort;
+import static com.oop.util.student.StudentSortStrategy.studentNameAscSort;
+import static com.oop.util.student.StudentSortStrategy.studentNameDescSort;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class QueryTest {
+
+    BTree<Integer> bTree;
+    AtomicInteger visited;
+
+    @Before
+    public void setUp() {
+        bTree = new BTree<>();
+        for (int value = 1; value <= 1000; value++) {
+            bTree.add(value);
+        }
+        visited = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("Test a limit stops the scan when the order is the tree's own")
+    public void testEarlyTermination() {
+        List<Integer> evens = Query.from(bTree)
+                .where(value -> visited.incrementAndGet() > 0 && value % 2 == 0)
+                .limit(3)
+                .toList();
+        assertThat(evens, is(Arrays.asList(2, 4, 6)));
+        Assert.assertEquals(6, visited.get());
+
+        visited.set(0);
+        List<Integer> largest = Query.from(bTree)
+                .where(value -> visited.incrementAndGet() > 0)
+                .orderBy(Comparator.reverseOrder())
+                .limit(2)
+                .toList();
+        assertThat(largest, is(Arrays.asList(1000, 999)));
+        Assert.assertEquals(2, visited.get());
+    }
+
+    @Test
+    @DisplayName("Test range conditions are pushed down into a seek of the tree")
+    public void testRangePushdown() {
+        List<String> selected = Query.from(bTree)
+                .whereBetween(100, true, 110, false)
+                .whereAbove(104, false)
+                .where(value -> visited.incrementAndGet() > 0)
+                .select(value -> "#" + value);
+        assertThat(selected, is(Arrays.asList("#105", "#106", "#107", "#108", "#109")));
+        Assert.assertEquals(5, visited.get());
+
+        Assert.assertTrue(Query.from(bTree).whereBetween(10, true, 5, true).toList().isEmpty());
+        assertThat(Query.from(bTree).whereBelow(3, true).toList(), is(Arrays.asList(1, 2, 3)));
+        // a source that is not sorted filters by the natural ordering instead
+        BPlusTree<Integer> bPlusTree = new BPlusTree<>();
+        bPlusTree.addAll(Arrays.asList(5, 1, 9, 3, 7));
+        assertThat(Query.from(bPlusTree).whereAbove(4, true).toList(), is(Arrays.asList(5, 7, 9)));
+    }
+
+    @Test
+    @DisplayName("Test top-k and full sorts in an order that is not the tree's")
+    public void testTopK() {
+        Comparator<Integer> byLastDigit = Comparator.comparing(value -> value % 10);
+        List<Integer> topK = Query.from(bTree).whereBelow(50, true).orderBy(byLastDigit).limit(6).toList();
+        assertThat(topK, is(Arrays.asList(10, 20, 30, 40, 50, 1)));
+        List<Integer> sorted = Query.from(bTree).whereBelow(25, false).orderBy(byLastDigit).toList();
+        assertThat(sorted.subList(0, 4), is(Arrays.asList(10, 20, 1, 11)));
+        Assert.assertEquals(24, sorted.size());
+        Assert.assertTrue(Query.from(bTree).orderBy(byLastDigit).limit(0).toList().isEmpty());
+
+        Random random = new Random(17);
+        List<Integer> values = new ArrayList<>();
+        for (int value = 0; value < 500; value++) {
+            values.add(random.nextInt(200));
+        }
+        BTree<Integer> randomTree = new BTree<>(5);
+        randomTree.addAll(values);
+        for (int limit : Arrays.asList(1, 7, 100, 600)) {
+            List<Integer> expected = values.stream().sorted().sorted(byLastDigit).limit(limit)
+                    .collect(Collectors.toList());
+            Assert.assertEquals(expected, Query.from(randomTree).orderBy(byLastDigit).limit(limit).toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Retrieve students in the order of the tree's strategy without sorting")
+    public void testStudentReports() {
+        BTree<Student> studentBTree = new BTree<>(studentNameAscSort());
+        studentBTree.add(new Student("Megan", 1, 2.85F));
+        studentBTree.add(new Student("Karolina", 2, 2.7F));
+        studentBTree.add(new Student("Alex", 3, 4.0F));
+        studentBTree.add(new Student("Jorge", 4, 2.5F));
+        studentBTree.add(new Student("Sachin", 8, 2.2F));
+
+        List<Integer> onProbation = Query.from(studentBTree)
+                .where(student -> student.getGpa() < 2.85F)
+                .orderBy(studentNameDescSort())
+                .select(Student::getRedId);
+        assertThat(onProbation, is(Arrays.asList(8, 2, 4)));
+
+        List<String> lowestGpa = Query.from(studentBTree)
+                .orderBy(studentGPAAscSort())
+                .limit(2)
+                .select(Student::getName);
+        assertThat(lowestGpa, is(Arrays.asList("Sachin", "Jorge")));
+
+        List<String> firstNames = Query.from(studentBTree)
+                .whereAbove(new Student("B", 0, 0F), true)
+                .orderBy(studentNameAscSort())
+                .limit(2)
+                .select(Student::getName);
+        assertThat(firstNames, is(Arrays.asList("Jorge", "Karolina")));
+    }
+}
@@ -0,0 +1,130 @@
+package com.oop.util;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class ShardedBTreeTest {
+
+    ShardedBTree<Integer> shardedBTree;
+
+    @Before
+    public void setUp() {
+        shardedBTree = new ShardedBTree<>(4, 3, null);
+        shardedBTree.addAll(Arrays.asList(101, 120, 111, 152, 125, 80, 75, 99, 82, 83));
+    }
+
+    @After
+    public void tearDown() {
+        shardedBTree.close();
+    }
+
+    @Test
+    @DisplayName("Operations of ShardedBTree")
+    public void testOperations() {
+        Assert.assertArrayEquals(new Object[]{75, 80, 82, 83, 99, 101, 111, 120, 125, 152},
+                shardedBTree.toArray());
+        Assert.assertTrue(shardedBTree.add(99));
+        Assert.assertTrue(shardedBTree.remove(99));
+        Assert.assertTrue(shardedBTree.contains(99));
+        Assert.assertTrue(shardedBTree.containsAll(Arrays.asList(75, 99, 152)));
+        Assert.assertFalse(shardedBTree.containsAll(Arrays.asList(75, 100)));
+        Assert.assertEquals(Integer.valueOf(101), shardedBTree.elementAt(5));
+        Assert.assertEquals(10, shardedBTree.size());
+        shardedBTree.clear();
+        Assert.assertTrue(shardedBTree.isEmpty());
+        Assert.assertFalse(shardedBTree.contains(99));
+    }
+
+    @Test
+    @DisplayName("Sorted ingest spreads over the shards of ShardedBTree")
+    public void testRebalance() {
+        shardedBTree.clear();
+        List<Integer> values = IntStream.range(0, 50000).boxed().collect(Collectors.toList());
+        for (int from = 0; from < values.size(); from += 500) {
+            shardedBTree.addAll(values.subList(from, from + 500));
+        }
+        // every shard is in use and none holds more than twice the keys of a neighbour
+        int[] shardSizes = shardedBTree.shardSizes();
+        for (int shardIndex = 0; shardIndex + 1 < shardSizes.length; shardIndex++) {
+            int larger = Math.max(shardSizes[shardIndex], shardSizes[shardIndex + 1]);
+            int smaller = Math.min(shardSizes[shardIndex], shardSizes[shardIndex + 1]);
+            Assert.assertTrue(Arrays.toString(shardSizes), smaller > 0 && larger <= 2 * smaller);
+        }
+        Assert.assertEquals(values, new ArrayList<>(shardedBTree));
+        Assert.assertEquals(Integer.valueOf(31415), shardedBTree.elementAt(31415));
+        Assert.assertTrue(shardedBTree.containsAll(values));
+    }
+
+    @Test
+    @DisplayName("Parallel writers on ShardedBTree")
+    public void testParallelWriters() throws Exception {
+        shardedBTree.clear();
+        List<Integer> values = IntStream.range(0, 40000).boxed().collect(Collectors.toList());
+        Collections.shuffle(values, new Random(42));
+        int writers = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int writer = 0; writer < writers; writer++) {
+                List<Integer> share = values.subList(writer * 10000, (writer + 1) * 10000);
+                futures.add(executor.submit(() -> {
+                    for (int from = 0; from < share.size(); from += 100) {
+                        shardedBTree.addAll(share.subList(from, from + 100));
+                    }
+                    for (int value : share.subList(0, 100)) {
+                        Assert.assertTrue(shardedBTree.remove(value));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        List<Integer> expected = new ArrayList<>(values);
+        for (int writer = 0; writer < writers; writer++) {
+            expected.removeAll(values.subList(writer * 10000, writer * 10000 + 100));
+        }
+        Collections.sort(expected);
+        Assert.assertEquals(expected.size(), shardedBTree.size());
+        Assert.assertEquals(expected, new ArrayList<>(shardedBTree));
+    }
+
+    @Test
+    @DisplayName("Rebalancing ShardedBTree keeps distinct keys that compare equal")
+    public void testRebalanceWithEqualKeys() {
+        // records compared by their name only, 40 of each name
+        Comparator<String> byName = Comparator.comparing(record -> record.substring(0, record.indexOf('#')));
+        List<String> records = IntStream.range(0, 20000)
+                .mapToObj(index -> String.format("%04d#%d", index / 40, index))
+                .collect(Collectors.toList());
+        try (ShardedBTree<String> byNameTree = new ShardedBTree<>(4, 16, byName)) {
+            for (int from = 0; from < records.size(); from += 500) {
+                byNameTree.addAll(records.subList(from, from + 500));
+            }
+            Assert.assertTrue(Arrays.toString(byNameTree.shardSizes()),
+                    Arrays.stream(byNameTree.shardSizes()).allMatch(shardSize -> shardSize > 0));
+            List<String> stored = new ArrayList<>(byNameTree);
+            Assert.assertEquals(records.size(), byNameTree.size());
+            Assert.assertEquals(records.size(), stored.size());
+            Assert.assertEquals(new HashSet<>(records), new HashSet<>(stored));
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.oop.util;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class StringBTreeTest {
+
+    StringBTree stringBTree;
+
+    @Before
+    public void setUp() {
+        stringBTree = new StringBTree(4);
+        stringBTree.addAll(Arrays.asList("Megan", "Karolina", "Alex", "Jorge", "Sachin",
+                "Karl", "Karolin", "Alexandra", "Jorge", ""));
+    }
+
+    @Test
+    @DisplayName("Test keys of StringBTree come out in their natural order")
+    public void testIterator() {
+        List<String> iteratedList = new ArrayList<>(stringBTree);
+        assertThat(iteratedList, is(Arrays.asList("", "Alex", "Alexandra", "Jorge", "Jorge",
+                "Karl", "Karolin", "Karolina", "Megan", "Sachin")));
+        Assert.assertEquals("Karolin", stringBTree.elementAt(6));
+    }
+
+    @Test
+    @DisplayName("Lookups for keys that share or leave the prefix of a node")
+    public void testContains() {
+        Assert.assertTrue(stringBTree.contains("Karolin"));
+        Assert.assertTrue(stringBTree.contains(""));
+        Assert.assertFalse(stringBTree.contains("Karo"));
+        Assert.assertFalse(stringBTree.contains("Karolinas"));
+        Assert.assertFalse(stringBTree.contains("Al"));
+        Assert.assertFalse(stringBTree.contains("Zed"));
+        Assert.assertFalse(stringBTree.contains(1));
+    }
+
+    @Test
+    @DisplayName("Remove keys and duplicates from StringBTree")
+    public void testRemove() {
+        Assert.assertTrue(stringBTree.remove("Jorge"));
+        Assert.assertTrue(stringBTree.contains("Jorge"));
+        Assert.assertTrue(stringBTree.remove("Jorge"));
+        Assert.assertFalse(stringBTree.remove("Jorge"));
+        Assert.assertTrue(stringBTree.remove("Karolin"));
+        assertThat(new ArrayList<>(stringBTree), is(Arrays.asList("", "Alex", "Alexandra",
+                "Karl", "Karolina", "Megan", "Sachin")));
+        Assert.assertEquals(7, stringBTree.size());
+    }
+
+    @Test
+    @DisplayName("Test separators are the shortest strings that divide two leaves")
+    public void testShortestSeparator() {
+        Assert.assertEquals("Karo", StringBTree.shortestSeparator("Karl", "Karolina"));
+        Assert.assertEquals("Karoli", StringBTree.shortestSeparator("Karol", "Karolina"));
+        Assert.assertEquals("Jorge", StringBTree.shortestSeparator("Jorge", "Jorge"));
+        Assert.assertEquals("A", StringBTree.shortestSeparator("", "Alex"));
+    }
+
+    @Test
+    @DisplayName("Test many names with a long shared prefix are added and removed in any order")
+    public void testSharedPrefixes() {
+        List<String> names = new ArrayList<>();
+        for (int id = 0; id < 5000; id++) {
+            names.add("Student" + id);
+        }
+        Collections.shuffle(names, new Random(42));
+        StringBTree names64 = new StringBTree();
+        names64.addAll(names);
+        names64.trimToSize();
+        List<String> sortedNames = new ArrayList<>(names);
+        Collections.sort(sortedNames);
+        Assert.assertEquals(sortedNames, new ArrayList<>(names64));
+        Assert.assertEquals(sortedNames.get(4321), names64.elementAt(4321));
+
+        for (String name : names.subList(0, 4000)) {
+            Assert.assertTrue(names64.remove(name));
+        }
+        sortedNames.removeAll(names.subList(0, 4000));
+        Assert.assertEquals(sortedNames, new ArrayList<>(names64));
+    }
+
+    @Test
+    @DisplayName("Removal through the iterator of StringBTree")
+    public void testIteratorRemove() {
+        Assert.assertTrue(stringBTree.removeAll(Arrays.asList("Jorge", "Alex")));
+        Assert.assertTrue(stringBTree.retainAll(Arrays.asList("", "Karl", "Karolina", "Megan")));
+        Assert.assertEquals(Arrays.asList("", "Karl", "Karolina", "Megan"), new ArrayList<>(stringBTree));
+        Iterator<String> iterator = stringBTree.iterator();
+        Assert.assertThrows(IllegalStateException.class, iterator::remove);
+        iterator.next();
+        iterator.remove();
+        Assert.assertThrows(IllegalStateException.class, iterator::remove);
+        Assert.assertEquals("Karl", iterator.next());
+
+        Random random = new Random(11);
+        for (int order : new int[]{3, 4, 16}) {
+            StringBTree names = new StringBTree(order);
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < 5000; i++) {
+                String name = "name" + random.nextInt(300);
+                names.add(name);
+                expected.add(name);
+            }
+            Collections.sort(expected);
+            Assert.assertTrue(names.removeIf(name -> name.endsWith("7") || name.startsWith("name2")));
+            expected.removeIf(name -> name.endsWith("7") || name.startsWith("name2"));
+            Assert.assertEquals(expected.size(), names.size());
+            Assert.assertEquals(expected, new ArrayList<>(names));
+            Assert.assertTrue(names.containsAll(expected));
+            Assert.assertFalse(names.contains("name17"));
+            for (int index = 0; index < expected.size(); index += 37) {
+                Assert.assertEquals(expected.get(index), names.elementAt(index));
+            }
+        }
+    }
+}
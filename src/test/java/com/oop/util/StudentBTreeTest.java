@@ -10,6 +10,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.NavigableSet;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
@@ -105,4 +106,15 @@ public class StudentBTreeTest {
         Assert.assertEquals(expectedStudentList, studentDescOrderedByGpa);
     }
 
+    @Test
+    @DisplayName("Retrieve students with redId in a range from a redId ordered b-tree")
+    public void testRedIdRange() {
+        BTree<Student> redIdBTree = new BTree<>();
+        studentBTree.forEach(redIdBTree::add);
+        NavigableSet<Student> range = redIdBTree.subSet(
+                new Student("", 3, 0F), true, new Student("", 6, 0F), false);
+        List<String> names = new ArrayList<>();
+        range.forEach(student -> names.add(student.getName()));
+        assertThat(names, is(Arrays.asList("Alex", "Jorge", "Andrea")));
+    }
 }
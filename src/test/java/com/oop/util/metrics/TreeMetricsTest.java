@@ -0,0 +1,150 @@
+package com.oop.util.metrics;
+
+import com.oop.util.BTree;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.oop.util.metrics.TreeMetrics.Operation.ADD;
+import static com.oop.util.metrics.TreeMetrics.Operation.CONTAINS;
+import static com.oop.util.metrics.TreeMetrics.Operation.ELEMENT_AT;
+import static com.oop.util.metrics.TreeMetrics.Operation.REMOVE;
+
+public class TreeMetricsTest {
+
+    BTree<Integer> bTree;
+    TreeMetrics metrics;
+
+    @Before
+    public void setUp() {
+        bTree = new BTree<>(3);
+        metrics = bTree.enableMetrics();
+    }
+
+    @Test
+    @DisplayName("Test percentiles of the histogram stay within its bucket precision")
+    public void testHistogram() {
+        Histogram histogram = new Histogram();
+        Assert.assertEquals(0, histogram.valueAtPercentile(99));
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+        Assert.assertEquals(100_000, histogram.count());
+        Assert.assertEquals(1, histogram.min());
+        Assert.assertEquals(100_000, histogram.max());
+        Assert.assertEquals(50_000.5, histogram.mean(), 0.001);
+        Assert.assertEquals(50_000, histogram.valueAtPercentile(50), 50_000 / 64.0);
+        Assert.assertEquals(99_000, histogram.valueAtPercentile(99), 99_000 / 64.0);
+        Assert.assertEquals(100_000, histogram.valueAtPercentile(100));
+        Assert.assertEquals(1, histogram.valueAtPercentile(0));
+
+        histogram.record(Long.MAX_VALUE);
+        Assert.assertEquals(Long.MAX_VALUE, histogram.valueAtPercentile(100));
+        histogram.reset();
+        Assert.assertEquals(0, histogram.count());
+    }
+
+    @Test
+    @DisplayName("Test operations, splits, merges and comparisons are recorded once enabled")
+    public void testTreeMetrics() {
+        for (int value = 1; value <= 100; value++) {
+            bTree.add(value);
+        }
+        Assert.assertEquals(100, metrics.operationCount(ADD));
+        Assert.assertTrue(metrics.splitCount() > 0);
+        // ascending adds split the rightmost path, up to the full height of the tree
+        Assert.assertEquals(bTree.stats().height() - 1, metrics.splitCascades().max());
+
+        Assert.assertTrue(bTree.contains(50));
+        Assert.assertFalse(bTree.contains(500));
+        Assert.assertEquals(2, metrics.operationCount(CONTAINS));
+        Assert.assertTrue(metrics.comparisons().min() >= 1);
+        Assert.assertTrue(metrics.comparisons().max() <= 2 * bTree.stats().height() + 1);
+
+        Assert.assertEquals(Integer.valueOf(10), bTree.elementAt(9));
+        Assert.assertEquals(1, metrics.operationCount(ELEMENT_AT));
+
+        for (int value = 1; value <= 90; value++) {
+            bTree.remove(value);
+        }
+        Assert.assertEquals(90, metrics.operationCount(REMOVE));
+        Assert.assertTrue(metrics.mergeCount() > 0);
+
+        bTree.disableMetrics();
+        bTree.add(1);
+        Assert.assertNull(bTree.metrics());
+        Assert.assertEquals(100, metrics.operationCount(ADD));
+        metrics.reset();
+        Assert.assertEquals(0, metrics.splitCount());
+    }
+
+    @Test
+    @DisplayName("Test listeners receive operations and split cascades")
+    public void testListener() {
+        List<Integer> splitDepths = new ArrayList<>();
+        int[] operations = new int[1];
+        metrics.addListener(new TreeMetricsListener() {
+            @Override
+            public void onOperation(TreeMetrics.Operation operation, long nanos) {
+                operations[0]++;
+            }
+
+            @Override
+            public void onSplit(int depth) {
+                splitDepths.add(depth);
+            }
+        });
+        // order 3: the third key splits the root leaf, the seventh splits leaf and root
+        for (int value = 1; value <= 7; value++) {
+            bTree.add(value);
+        }
+        Assert.assertEquals(7, operations[0]);
+        Assert.assertEquals(List.of(1, 1, 2), splitDepths);
+    }
+
+    @Test
+    @DisplayName("Test the structural snapshot of a tree")
+    public void testStats() {
+        Assert.assertEquals(0, bTree.stats().height());
+        BTree<Integer> bulkLoaded = BTree.fromSorted(List.of(1, 2, 3, 4, 5, 6, 7, 8), 3, null, 1.0);
+        TreeStats stats = bulkLoaded.stats();
+        Assert.assertEquals(8, stats.size());
+        Assert.assertEquals(3, stats.order());
+        // a full root over three full leaves
+        Assert.assertEquals(2, stats.height());
+        Assert.assertEquals(1, stats.nodeCount(0));
+        Assert.assertEquals(3, stats.nodeCount(1));
+        Assert.assertEquals(4, stats.nodeCount());
+        Assert.assertEquals(1.0, stats.averageFill(), 1e-9);
+        Assert.assertEquals(1.0, stats.averageFill(1), 1e-9);
+
+        bulkLoaded.remove(8);
+        Assert.assertEquals(7.0 / 8, bulkLoaded.stats().averageFill(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Test the tree monitor is readable through the platform MBean server")
+    public void testMonitor() throws Exception {
+        for (int value = 1; value <= 20; value++) {
+            bTree.add(value);
+        }
+        ObjectName name = TreeMonitor.register(metrics, bTree::stats, "com.oop.util:type=BTree,name=test");
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            Assert.assertEquals(20, server.getAttribute(name, "Size"));
+            Assert.assertEquals(20L, server.getAttribute(name, "AddCount"));
+            Assert.assertEquals(bTree.stats().height(), server.getAttribute(name, "Height"));
+            server.invoke(name, "reset", null, null);
+            Assert.assertEquals(0L, server.getAttribute(name, "AddCount"));
+        } finally {
+            TreeMonitor.unregister(name);
+        }
+    }
+}
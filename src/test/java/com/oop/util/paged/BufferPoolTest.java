@@ -0,0 +1,105 @@
+package com.oop.util.paged;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class BufferPoolTest {
+
+    // pages are the strings "page<id>", stored pages are recorded
+    Map<Integer, String> stored = new HashMap<>();
+
+    BufferPool<String> bufferPool(EvictionPolicy policy) {
+        return bufferPool(3, policy);
+    }
+
+    BufferPool<String> bufferPool(int capacity, EvictionPolicy policy) {
+        return new BufferPool<>(capacity, policy, new BufferPool.PageStore<String>() {
+            public String load(int pageId) {
+                return "page" + pageId;
+            }
+
+            public void store(int pageId, String page) {
+                stored.put(pageId, page);
+            }
+        });
+    }
+
+    void touch(BufferPool<String> bufferPool, int... pageIds) {
+        for (int pageId : pageIds) {
+            bufferPool.pin(pageId);
+            bufferPool.unpin(pageId, false);
+        }
+    }
+
+    @Test
+    @DisplayName("Counters and dirty pages of a BufferPool")
+    public void testCountersAndDirtyPages() {
+        BufferPool<String> bufferPool = bufferPool(EvictionPolicy.lru());
+        Assert.assertEquals("page1", bufferPool.pin(1));
+        bufferPool.unpin(1, true);
+        touch(bufferPool, 2, 3, 1, 4);
+        Assert.assertEquals(1, bufferPool.hitCount());
+        Assert.assertEquals(4, bufferPool.missCount());
+        Assert.assertEquals(1, bufferPool.evictionCount());
+        Assert.assertEquals(3, bufferPool.size());
+        Assert.assertTrue(stored.isEmpty());
+
+        bufferPool.flush();
+        Assert.assertEquals("page1", stored.get(1));
+        Assert.assertEquals(1, stored.size());
+        Assert.assertThrows(IllegalStateException.class, () -> bufferPool.unpin(1, false));
+    }
+
+    @Test
+    @DisplayName("Pinned pages of a BufferPool are not evicted")
+    public void testPinnedPages() {
+        BufferPool<String> bufferPool = bufferPool(EvictionPolicy.lru());
+        for (int pageId = 1; pageId <= 4; pageId++) {
+            bufferPool.pin(pageId);
+        }
+        Assert.assertEquals(4, bufferPool.size());
+        Assert.assertThrows(IllegalStateException.class, () -> bufferPool.discard(2));
+        for (int pageId = 1; pageId <= 4; pageId++) {
+            bufferPool.unpin(pageId, false);
+        }
+        Assert.assertEquals(3, bufferPool.size());
+        Assert.assertEquals(1, bufferPool.evictionCount());
+    }
+
+    @Test
+    @DisplayName("Victims chosen by LRU and CLOCK")
+    public void testLruAndClock() {
+        BufferPool<String> lru = bufferPool(EvictionPolicy.lru());
+        touch(lru, 1, 2, 3, 1, 4);
+        touch(lru, 1, 3, 4);
+        Assert.assertEquals(4, lru.missCount());
+        touch(lru, 2);
+        Assert.assertEquals(5, lru.missCount());
+
+        // page 1 gets a second chance from its reference bit, page 2 does not
+        BufferPool<String> clock = bufferPool(EvictionPolicy.clock());
+        touch(clock, 1, 2, 3, 1, 4);
+        touch(clock, 1, 3, 4);
+        Assert.assertEquals(4, clock.missCount());
+    }
+
+    @Test
+    @DisplayName("A scan does not evict the frequently used pages of 2Q")
+    public void testTwoQueueScanResistance() {
+        BufferPool<String> lru = bufferPool(4, EvictionPolicy.lru());
+        BufferPool<String> twoQueue = bufferPool(4, EvictionPolicy.twoQueue(4));
+        for (BufferPool<String> bufferPool : Arrays.asList(lru, twoQueue)) {
+            // page 1 is loaded again soon after its eviction
+            touch(bufferPool, 1, 2, 3, 4, 5, 1);
+            bufferPool.resetCounters();
+            touch(bufferPool, 6, 7, 8, 9, 1);
+        }
+        Assert.assertEquals(0, lru.hitCount());
+        Assert.assertEquals(1, twoQueue.hitCount());
+    }
+}
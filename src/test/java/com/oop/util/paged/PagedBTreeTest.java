@@ -0,0 +1,168 @@
+package com.oop.util.paged;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class PagedBTreeTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    Path path;
+    PagedBTree<Integer> pagedBTree;
+
+    @Before
+    public void setUp() throws IOException {
+        path = folder.getRoot().toPath().resolve("tree.db");
+        // small pages to get a few levels out of a small number of keys
+        pagedBTree = PagedBTree.open(path, KeySerializer.integerSerializer(), null, 64);
+        pagedBTree.addAll(Arrays.asList(101, 120, 111, 152, 125, 80, 75, 99, 82, 83));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        pagedBTree.close();
+    }
+
+    @Test
+    @DisplayName("Keys of a PagedBTree are kept after the file is reopened")
+    public void testReopen() throws IOException {
+        pagedBTree.close();
+        pagedBTree = PagedBTree.open(path, KeySerializer.integerSerializer());
+        Assert.assertEquals(10, pagedBTree.size());
+        Assert.assertEquals(Arrays.asList(75, 80, 82, 83, 99, 101, 111, 120, 125, 152), new ArrayList<>(pagedBTree));
+        Assert.assertTrue(pagedBTree.contains(99));
+        Assert.assertFalse(pagedBTree.contains(100));
+        Assert.assertEquals(Integer.valueOf(111), pagedBTree.elementAt(6));
+    }
+
+    @Test
+    @DisplayName("Random adds and removes on a PagedBTree match a sorted list")
+    public void testAddAndRemove() throws IOException {
+        pagedBTree.clear();
+        List<Integer> expected = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 5000; i++) {
+            Integer value = random.nextInt(500);
+            if (random.nextInt(3) > 0) {
+                expected.add(value);
+                pagedBTree.add(value);
+            } else {
+                Assert.assertEquals(expected.remove(value), pagedBTree.remove(value));
+            }
+        }
+        Collections.sort(expected);
+        Assert.assertEquals(expected, new ArrayList<>(pagedBTree));
+        for (int index = 0; index < expected.size(); index += 37) {
+            Assert.assertEquals(expected.get(index), pagedBTree.elementAt(index));
+        }
+
+        pagedBTree.close();
+        pagedBTree = PagedBTree.open(path, KeySerializer.integerSerializer());
+        Assert.assertEquals(expected, new ArrayList<>(pagedBTree));
+        for (Integer value : new ArrayList<>(expected)) {
+            Assert.assertTrue(pagedBTree.remove(value));
+        }
+        Assert.assertTrue(pagedBTree.isEmpty());
+        Assert.assertFalse(pagedBTree.iterator().hasNext());
+    }
+
+    @Test
+    @DisplayName("PagedBTree with a small buffer pool under every eviction policy")
+    public void testSmallBufferPool() throws IOException {
+        for (EvictionPolicy policy : Arrays.asList(EvictionPolicy.lru(), EvictionPolicy.clock(),
+                EvictionPolicy.twoQueue(8))) {
+            Path poolPath = folder.getRoot().toPath().resolve(policy.getClass().getSimpleName() + ".db");
+            List<Integer> expected = new ArrayList<>();
+            Random random = new Random(11);
+            try (PagedBTree<Integer> tree = PagedBTree.open(poolPath, KeySerializer.integerSerializer(),
+                    null, 64, 8, policy)) {
+                for (int i = 0; i < 3000; i++) {
+                    Integer value = random.nextInt(1000);
+                    if (random.nextInt(4) > 0) {
+                        expected.add(value);
+                        tree.add(value);
+                    } else {
+                        Assert.assertEquals(expected.remove(value), tree.remove(value));
+                    }
+                }
+                BufferPool<?> bufferPool = tree.bufferPool();
+                Assert.assertTrue(bufferPool.size() <= bufferPool.capacity());
+                Assert.assertTrue(bufferPool.evictionCount() > 0);
+                Assert.assertTrue(bufferPool.hitCount() > 0);
+            }
+            Collections.sort(expected);
+            try (PagedBTree<Integer> tree = PagedBTree.open(poolPath, KeySerializer.integerSerializer())) {
+                Assert.assertEquals(expected, new ArrayList<>(tree));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Pages freed by a PagedBTree are reused")
+    public void testFreedPagesReused() throws IOException {
+        pagedBTree.clear();
+        for (int value = 0; value < 1000; value++) {
+            pagedBTree.add(value);
+        }
+        pagedBTree.clear();
+        pagedBTree.close();
+
+        PageFile file = PageFile.open(path, 64);
+        int pageCount = file.pageCount();
+        file.close();
+        pagedBTree = PagedBTree.open(path, KeySerializer.integerSerializer());
+        for (int value = 0; value < 1000; value++) {
+            pagedBTree.add(value);
+        }
+        pagedBTree.close();
+
+        file = PageFile.open(path, 64);
+        Assert.assertEquals(pageCount, file.pageCount());
+        file.close();
+        pagedBTree = PagedBTree.open(path, KeySerializer.integerSerializer());
+    }
+
+    @Test
+    @DisplayName("Closing a PageFile leaves out the header changes not forced")
+    public void testCloseWithoutForce() throws IOException {
+        pagedBTree.add(7);
+        pagedBTree.close();
+
+        PageFile file = PageFile.open(path, 64);
+        int rootPageId = file.rootPageId();
+        file.setRootPageId(PageFile.NO_PAGE);
+        file.setEntryCount(0);
+        file.close();
+        file = PageFile.open(path, 64);
+        Assert.assertEquals(rootPageId, file.rootPageId());
+        file.close();
+        pagedBTree = PagedBTree.open(path, KeySerializer.integerSerializer());
+        Assert.assertTrue(pagedBTree.contains(7));
+    }
+
+    @Test
+    @DisplayName("String keys of a PagedBTree")
+    public void testStringKeys() throws IOException {
+        Path stringPath = folder.getRoot().toPath().resolve("names.db");
+        try (PagedBTree<String> names = PagedBTree.open(stringPath, KeySerializer.stringSerializer(16))) {
+            names.addAll(Arrays.asList("Hoang", "Anh", "Moorthy", "Valdez", "Alkhanjar"));
+            Assert.assertEquals("Anh", names.elementAt(1));
+            Assert.assertThrows(IllegalArgumentException.class,
+                    () -> names.add("a name longer than sixteen bytes"));
+        }
+    }
+}
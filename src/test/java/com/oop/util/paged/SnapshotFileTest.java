@@ -0,0 +1,88 @@
+package com.oop.util.paged;
+
+import com.oop.model.Student;
+import com.oop.util.BTree;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static com.oop.util.student.StudentSortStrategy.studentNameAscSort;
+
+public class SnapshotFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    @DisplayName("Save a BTree to a snapshot file and load it back")
+    public void testSaveAndLoad() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("tree.snapshot");
+        BTree<Integer> bTree = new BTree<>(5);
+        Random random = new Random(11);
+        // enough keys for several blocks, duplicates included
+        for (int i = 0; i < 300_000; i++) {
+            bTree.add(random.nextInt(100_000));
+        }
+        SnapshotFile.save(bTree, path, KeySerializer.integerSerializer());
+        BTree<Integer> loaded = SnapshotFile.load(path, KeySerializer.integerSerializer(), null);
+        Assert.assertEquals(new ArrayList<>(bTree), new ArrayList<>(loaded));
+        Assert.assertEquals(5, loaded.order());
+        Assert.assertEquals(bTree.elementAt(123_456), loaded.elementAt(123_456));
+
+        SnapshotFile.save(new BTree<Integer>(), path, KeySerializer.integerSerializer());
+        Assert.assertTrue(SnapshotFile.load(path, KeySerializer.integerSerializer(), null).isEmpty());
+        Assert.assertFalse(Files.exists(path.resolveSibling("tree.snapshot.tmp")));
+    }
+
+    @Test
+    @DisplayName("Save Students ordered by name and load them back with the same ordering")
+    public void testStudents() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("students.snapshot");
+        BTree<Student> studentBTree = new BTree<>(studentNameAscSort());
+        studentBTree.addAll(Arrays.asList(new Student("Megan", 1, 2.85F), new Student("Karolina", 2, 2.7F),
+                new Student("Alex", 3, 4.0F), new Student("Jorge", 4, 2.5F), new Student("Sachin", 8, 2.2F)));
+        SnapshotFile.save(studentBTree, path, KeySerializer.studentSerializer(64));
+        BTree<Student> loaded = SnapshotFile.load(path, KeySerializer.studentSerializer(64), studentNameAscSort());
+        Assert.assertEquals(new ArrayList<>(studentBTree), new ArrayList<>(loaded));
+        Assert.assertTrue(loaded.contains(new Student("Jorge", 4, 2.5F)));
+    }
+
+    @Test
+    @DisplayName("throws exception when a snapshot file is corrupt")
+    public void testCorruptSnapshot() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("tree.snapshot");
+        BTree<Integer> bTree = new BTree<>();
+        for (int value = 0; value < 1000; value++) {
+            bTree.add(value);
+        }
+        SnapshotFile.save(bTree, path, KeySerializer.integerSerializer());
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            // a flipped byte in the middle of the keys
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), 1000);
+        }
+        IOException exception = Assert.assertThrows(IOException.class,
+                () -> SnapshotFile.load(path, KeySerializer.integerSerializer(), null));
+        Assert.assertTrue(exception.getMessage().startsWith("Corrupt block"));
+
+        Files.write(path, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        Assert.assertThrows(IOException.class, () -> SnapshotFile.load(path, KeySerializer.integerSerializer(), null));
+
+        SnapshotFile.save(bTree, path, KeySerializer.integerSerializer());
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 4));
+        Assert.assertThrows(IOException.class, () -> SnapshotFile.load(path, KeySerializer.integerSerializer(), null));
+    }
+}
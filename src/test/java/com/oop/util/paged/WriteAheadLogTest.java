@@ -0,0 +1,245 @@
+package com.oop.util.paged;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class WriteAheadLogTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    @DisplayName("Records of a WriteAheadLog up to a torn record")
+    public void testTornRecord() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("records.wal");
+        try (WriteAheadLog log = WriteAheadLog.open(path, 1 << 20, 0)) {
+            log.append((byte) 1, ByteBuffer.wrap(new byte[]{10, 11}));
+            log.append((byte) 2, ByteBuffer.allocate(0));
+            Assert.assertEquals(0, Files.size(path));
+            log.sync();
+            Assert.assertEquals(2, log.read().size());
+        }
+        // a record cut short by a crash
+        Files.write(path, new byte[]{0, 0, 0, 9, 1, 2}, StandardOpenOption.APPEND);
+        try (WriteAheadLog log = WriteAheadLog.open(path, 0, 0)) {
+            List<WriteAheadLog.Record> records = log.read();
+            Assert.assertEquals(2, records.size());
+            Assert.assertEquals(1, records.get(0).type());
+            Assert.assertEquals(ByteBuffer.wrap(new byte[]{10, 11}), records.get(0).payload());
+            Assert.assertEquals(0, records.get(1).payload().remaining());
+            log.truncate();
+            Assert.assertTrue(log.read().isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("A durable PagedBTree recovers the operations synced before a crash")
+    public void testRecovery() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("tree.db");
+        List<Integer> expected = new ArrayList<>();
+        Random random = new Random(3);
+        // the tree is never closed, as if the process stopped after the last sync
+        PagedBTree<Integer> crashed = PagedBTree.openDurable(path, KeySerializer.integerSerializer(),
+                null, 1 << 20, 0);
+        for (int i = 0; i < 20000; i++) {
+            Integer value = random.nextInt(5000);
+            if (random.nextInt(3) > 0) {
+                expected.add(value);
+                crashed.add(value);
+            } else {
+                Assert.assertEquals(expected.remove(value), crashed.remove(value));
+            }
+            if (i == 12000) {
+                crashed.flush();
+            }
+        }
+        crashed.sync();
+        for (int value = 0; value < 100; value++) {
+            crashed.add(value);
+        }
+
+        Collections.sort(expected);
+        try (PagedBTree<Integer> recovered = PagedBTree.openDurable(path, KeySerializer.integerSerializer())) {
+            Assert.assertEquals(expected.size(), recovered.size());
+            Assert.assertEquals(expected, new ArrayList<>(recovered));
+            recovered.clear();
+            recovered.addAll(Arrays.asList(3, 1, 2));
+        }
+        try (PagedBTree<Integer> reopened = PagedBTree.openDurable(path, KeySerializer.integerSerializer())) {
+            Assert.assertEquals(Arrays.asList(1, 2, 3), new ArrayList<>(reopened));
+        }
+        Assert.assertEquals(0, Files.size(path.resolveSibling("tree.db.wal")));
+    }
+
+    @Test
+    @DisplayName("A WriteAheadLog keeps a group pending until its sync succeeds")
+    public void testFailedSync() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("failing.wal");
+        FailingChannel channel = new FailingChannel(FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE));
+        try (WriteAheadLog log = new WriteAheadLog(channel, 1 << 20, 0)) {
+            log.append((byte) 1, ByteBuffer.wrap(new byte[]{10, 11, 12, 13}));
+            log.append((byte) 2, ByteBuffer.wrap(new byte[]{20}));
+            // the write stops partway through the group
+            channel.failWrites = true;
+            Assert.assertThrows(IOException.class, log::sync);
+            Assert.assertTrue(Files.size(path) > 0);
+            channel.failWrites = false;
+            channel.failForce = true;
+            Assert.assertThrows(IOException.class, log::sync);
+            channel.failForce = false;
+            log.sync();
+            Assert.assertEquals(2, log.read().size());
+            Assert.assertEquals(ByteBuffer.wrap(new byte[]{20}), log.read().get(1).payload());
+            Assert.assertEquals(Files.size(path), log.size());
+        }
+    }
+
+    @Test
+    @DisplayName("A failed background sync of a WriteAheadLog is reported to the writer")
+    public void testFailedBackgroundSync() throws Exception {
+        Path path = folder.getRoot().toPath().resolve("background.wal");
+        FailingChannel channel = new FailingChannel(FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE));
+        channel.failForce = true;
+        WriteAheadLog log = new WriteAheadLog(channel, 1 << 20, 5);
+        log.append((byte) 1, ByteBuffer.wrap(new byte[]{10}));
+        Assert.assertTrue(channel.forceFailed.await(10, TimeUnit.SECONDS));
+        channel.failForce = false;
+        Assert.assertThrows(IOException.class, () -> log.append((byte) 2, ByteBuffer.allocate(0)));
+        Assert.assertThrows(IOException.class, log::sync);
+        Assert.assertThrows(IOException.class, log::close);
+        Assert.assertFalse(channel.isOpen());
+    }
+
+    // file channel whose writes and forces fail on demand, writing part of the buffer first
+    private static final class FailingChannel extends FileChannel {
+        private final FileChannel channel;
+        private final CountDownLatch forceFailed = new CountDownLatch(1);
+        volatile boolean failWrites;
+        volatile boolean failForce;
+
+        FailingChannel(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public int write(ByteBuffer source, long position) throws IOException {
+            if (failWrites) {
+                ByteBuffer part = source.duplicate();
+                part.limit(part.position() + part.remaining() / 2);
+                int written = channel.write(part, position);
+                source.position(source.position() + written);
+                throw new IOException("Write failed");
+            }
+            return channel.write(source, position);
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            if (failForce) {
+                forceFailed.countDown();
+                throw new IOException("Force failed");
+            }
+            channel.force(metaData);
+        }
+
+        @Override
+        public int read(ByteBuffer destination, long position) throws IOException {
+            return channel.read(destination, position);
+        }
+
+        @Override
+        public int read(ByteBuffer destination) throws IOException {
+            return channel.read(destination);
+        }
+
+        @Override
+        public long read(ByteBuffer[] destinations, int offset, int length) throws IOException {
+            return channel.read(destinations, offset, length);
+        }
+
+        @Override
+        public int write(ByteBuffer source) throws IOException {
+            return channel.write(source);
+        }
+
+        @Override
+        public long write(ByteBuffer[] sources, int offset, int length) throws IOException {
+            return channel.write(sources, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return channel.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            channel.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return channel.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            channel.truncate(size);
+            return this;
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return channel.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel source, long position, long count) throws IOException {
+            return channel.transferFrom(source, position, count);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return channel.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return channel.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return channel.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.oop.util.student;
+
+import com.oop.model.Student;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static com.oop.util.student.StudentSortStrategy.studentGPADescSort;
+import static com.oop.util.student.StudentSortStrategy.studentNameAscSort;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class IndexedStudentsTest {
+
+    IndexedStudents students;
+
+    @Before
+    public void setUp() {
+        students = new IndexedStudents();
+        students.addIndex("name", studentNameAscSort());
+        students.add(new Student("Megan", 1, 2.85F));
+        students.add(new Student("Karolina", 2, 2.7F));
+        students.add(new Student("Alex", 3, 4.0F));
+        students.add(new Student("Jorge", 4, 2.5F));
+        students.add(new Student("Andrea", 5, 4.0F));
+        students.add(new Student("Xavier", 6, 3.5F));
+        students.add(new Student("Simona", 7, 4.0F));
+        students.add(new Student("Sachin", 8, 2.2F));
+        // registered after the students were added, built from them
+        students.addIndex("gpa", studentGPADescSort());
+    }
+
+    private static List<String> names(Iterable<Student> students) {
+        List<String> names = new ArrayList<>();
+        for (Student student : students) {
+            names.add(student.getName());
+        }
+        return names;
+    }
+
+    @Test
+    @DisplayName("Retrieve students by redId and in the order of each index")
+    public void testLookupAndSortedViews() {
+        Assert.assertEquals("Alex", students.get(3).getName());
+        Assert.assertNull(students.get(9));
+        Assert.assertFalse(students.add(new Student("Duplicate", 3, 1.0F)));
+        assertThat(names(students.sorted("name")), is(Arrays.asList(
+                "Alex", "Andrea", "Jorge", "Karolina", "Megan", "Sachin", "Simona", "Xavier")));
+        assertThat(names(students.sorted("gpa")), is(Arrays.asList(
+                "Alex", "Andrea", "Simona", "Xavier", "Megan", "Karolina", "Jorge", "Sachin")));
+        assertThat(names(students), is(Arrays.asList(
+                "Megan", "Karolina", "Alex", "Jorge", "Andrea", "Xavier", "Simona", "Sachin")));
+    }
+
+    @Test
+    @DisplayName("Retrieve a range of students from an index, bounds compared by indexed fields only")
+    public void testRange() {
+        Student gpa4 = new Student(null, 0, 4.0F);
+        Student gpa27 = new Student(null, 0, 2.7F);
+        assertThat(names(students.range("gpa", gpa4, true, gpa27, true)), is(Arrays.asList(
+                "Alex", "Andrea", "Simona", "Xavier", "Megan", "Karolina")));
+        assertThat(names(students.range("gpa", gpa4, false, gpa27, false)),
+                is(Arrays.asList("Xavier", "Megan")));
+        assertThat(names(students.range("name", new Student("J", 0, 0F), true, new Student("S", 0, 0F), false)),
+                is(Arrays.asList("Jorge", "Karolina", "Megan")));
+    }
+
+    @Test
+    @DisplayName("Retrieve redId of students on probation from the name index")
+    public void testToList() {
+        List<Integer> redIds = students.toList("name", student -> student.getGpa() < 2.85F, Student::getRedId);
+        assertThat(redIds, is(Arrays.asList(4, 2, 8)));
+    }
+
+    @Test
+    @DisplayName("Indexes follow updates and removals")
+    public void testUpdateAndRemove() {
+        Assert.assertTrue(students.update(8, student -> student.setGpa(3.9F)));
+        Assert.assertFalse(students.update(9, student -> student.setGpa(3.9F)));
+        assertThat(names(students.sorted("gpa")).subList(3, 5), is(Arrays.asList("Sachin", "Xavier")));
+        Assert.assertTrue(students.update(2, student -> student.setName("Zoe")));
+        Assert.assertEquals("Zoe", students.sorted("name").last().getName());
+
+        Assert.assertEquals("Alex", students.remove(3).getName());
+        Assert.assertNull(students.remove(3));
+        Assert.assertEquals(7, students.size());
+        Assert.assertEquals(7, students.sorted("gpa").size());
+        Assert.assertEquals("Andrea", students.sorted("name").first().getName());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    @DisplayName("throws exception when an update changes the redId")
+    public void testUpdateRedId() {
+        try {
+            students.update(1, student -> student.setRedId(11));
+        } finally {
+            Assert.assertEquals("Megan", students.get(1).getName());
+            Assert.assertEquals(8, students.sorted("name").size());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    @DisplayName("throws exception when querying an index that is not registered")
+    public void testUnknownIndex() {
+        students.sorted("redId");
+    }
+
+    @Test
+    @DisplayName("Test indexes against sorting all students for random operations")
+    public void testAgainstSorting() {
+        IndexedStudents random = new IndexedStudents(4);
+        random.addIndex("gpa", studentGPADescSort());
+        Random generator = new Random(16);
+        for (int operation = 0; operation < 3000; operation++) {
+            int redId = generator.nextInt(300);
+            float gpa = generator.nextInt(9) / 2F;
+            switch (generator.nextInt(3)) {
+                case 0:
+                    random.add(new Student("s" + redId, redId, gpa));
+                    break;
+                case 1:
+                    random.remove(redId);
+                    break;
+                default:
+                    random.update(redId, student -> student.setGpa(gpa));
+            }
+        }
+        List<Student> expected = new ArrayList<>();
+        random.forEach(expected::add);
+        expected.sort(studentGPADescSort().thenComparing(Comparator.naturalOrder()));
+        Assert.assertEquals(expected, new ArrayList<>(random.sorted("gpa")));
+        Assert.assertEquals(expected.stream().filter(student -> student.getGpa() >= 3.0F)
+                        .collect(Collectors.toList()),
+                new ArrayList<>(random.range("gpa", new Student(null, 0, 4.0F), true,
+                        new Student(null, 0, 3.0F), true)));
+    }
+}